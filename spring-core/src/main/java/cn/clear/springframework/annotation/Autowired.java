@@ -3,9 +3,9 @@ package cn.clear.springframework.annotation;
 import java.lang.annotation.*;
 
 /**
- * 依赖注入注解
+ * 依赖注入注解，可以标注在属性、setter方法和构造方法上
  */
-@Target({ElementType.FIELD})
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Autowired {
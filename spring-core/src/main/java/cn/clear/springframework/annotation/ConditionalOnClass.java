@@ -0,0 +1,19 @@
+package cn.clear.springframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 类路径下存在所有指定的类时才注册bean
+ * 只从字节码中读取类名并查找类文件，指定的类不存在也不会因为加载bean的类而报错
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalOnClass {
+    Class<?>[] value() default {};
+
+    /**
+     * 全类名，适合编译时不在类路径下的类
+     */
+    String[] name() default {};
+}
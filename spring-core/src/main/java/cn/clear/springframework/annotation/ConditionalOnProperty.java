@@ -0,0 +1,26 @@
+package cn.clear.springframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 配置环境中的属性满足条件时才注册bean，不满足时不会生成BeanDefinition
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalOnProperty {
+    /**
+     * 属性名
+     */
+    String name();
+
+    /**
+     * 期望的属性值（忽略大小写），为空时只要属性存在且不为false就满足
+     */
+    String havingValue() default "";
+
+    /**
+     * 属性不存在时是否满足
+     */
+    boolean matchIfMissing() default false;
+}
@@ -0,0 +1,14 @@
+package cn.clear.springframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 把前缀下的配置绑定到bean的属性上，例如 prefix = "server" 时 server.port 绑定到 setPort
+ * 配置名可以使用驼峰（maxSize）或者短横线（max-size）
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConfigurationProperties {
+    String prefix() default "";
+}
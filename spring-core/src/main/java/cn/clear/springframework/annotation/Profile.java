@@ -0,0 +1,14 @@
+package cn.clear.springframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 任意一个profile处于激活状态时才注册bean，"!worker" 表示worker没有激活时注册
+ * 激活的profile由 spring.profiles.active 指定，没有指定时为 default
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Profile {
+    String[] value();
+}
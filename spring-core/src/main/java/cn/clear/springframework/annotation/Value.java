@@ -0,0 +1,14 @@
+package cn.clear.springframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 注入配置值，例如 @Value("${server.port:8080}")，可以标注在属性、setter方法和构造方法参数上
+ * 表达式在类第一次被解析时计算并转换为字段类型，创建bean时不再解析
+ */
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Value {
+    String value();
+}
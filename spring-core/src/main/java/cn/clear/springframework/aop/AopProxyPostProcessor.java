@@ -0,0 +1,82 @@
+package cn.clear.springframework.aop;
+
+import cn.clear.springframework.aop.config.AopConfig;
+import cn.clear.springframework.aop.support.AdvisedSupport;
+import cn.clear.springframework.aop.support.AspectAdvisor;
+import cn.clear.springframework.beans.config.BeanPostProcessor;
+import cn.clear.springframework.core.factory.BeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 生成AOP代理的后置处理器：类符合切点表达式的bean在初始化之后替换为代理对象
+ * 类是否符合切点只在构建处理器链时判断一次，不符合的类不会解析切面；
+ * 切面在容器中只编译一次，每个bean只需要取出它的类对应的拦截器链；
+ * 循环依赖提前获取bean时就生成代理，初始化之后不再重复生成，依赖它的bean拿到的也是代理
+ */
+public class AopProxyPostProcessor implements BeanPostProcessor {
+
+    private final AspectAdvisor advisor;
+
+    /**
+     * 已经提前生成代理的bean，key：bean名称，value：原始对象
+     */
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>();
+
+    /**
+     * @param config AOP配置
+     * @param beanFactory 获取切面bean的容器
+     */
+    public AopProxyPostProcessor(AopConfig config, BeanFactory beanFactory) {
+        this.advisor = new AspectAdvisor(config, beanFactory);
+    }
+
+    public AspectAdvisor getAdvisor() {
+        return advisor;
+    }
+
+    @Override
+    public boolean supports(Class<?> beanClass) {
+        return advisor.matches(beanClass);
+    }
+
+    @Override
+    public void evictClasses(Predicate<Class<?>> classes) {
+        advisor.evictClasses(classes);
+    }
+
+    @Override
+    public Object getEarlyBeanReference(Object bean, String beanName) throws Exception {
+        earlyProxyReferences.put(beanName, bean);
+        Object proxy = wrapIfNecessary(bean);
+        return proxy == null ? bean : proxy;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws Exception {
+        if (earlyProxyReferences.remove(beanName) == bean) {
+            // 提前暴露时已经生成了代理，容器使用那个代理
+            return bean;
+        }
+        return wrapIfNecessary(bean);
+    }
+
+    private Object wrapIfNecessary(Object bean) throws Exception {
+        AdvisedSupport advised = new AdvisedSupport(advisor);
+        advised.setTargetClass(bean.getClass());
+        advised.setTarget(bean);
+        // 代理创建失败时返回null，容器保留原始对象
+        return createProxy(advised).getProxy();
+    }
+
+    private AopProxy createProxy(AdvisedSupport config) {
+        Class<?> targetClass = config.getTargetClass();
+        // 如果接口数量大于0则使用JDK原生动态代理
+        if (targetClass.getInterfaces().length > 0) {
+            return new JdkDynamicAopProxy(config);
+        }
+        return new CglibAopProxy(config);
+    }
+}
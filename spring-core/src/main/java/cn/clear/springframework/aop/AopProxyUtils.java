@@ -0,0 +1,26 @@
+package cn.clear.springframework.aop;
+
+import cn.clear.springframework.aop.bytecode.SubclassProxyGenerator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+/**
+ * AOP代理的工具方法
+ */
+public class AopProxyUtils {
+
+    /**
+     * @return 代理对象的目标对象；不是本框架生成的代理时返回null
+     */
+    public static Object getTarget(Object candidate) {
+        if (candidate == null) {
+            return null;
+        }
+        if (Proxy.isProxyClass(candidate.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(candidate);
+            return handler instanceof JdkDynamicAopProxy ? ((JdkDynamicAopProxy) handler).getAdvised().getTarget() : null;
+        }
+        return SubclassProxyGenerator.getTarget(candidate);
+    }
+}
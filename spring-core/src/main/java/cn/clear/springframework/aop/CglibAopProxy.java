@@ -1,20 +1,64 @@
 package cn.clear.springframework.aop;
 
 
+import cn.clear.springframework.aop.bytecode.ProxyDispatcher;
+import cn.clear.springframework.aop.bytecode.SubclassProxyGenerator;
+import cn.clear.springframework.aop.support.AdvisedMethod;
 import cn.clear.springframework.aop.support.AdvisedSupport;
 
-public class CglibAopProxy implements AopProxy {
+import java.lang.reflect.Method;
+
+/**
+ * 没有接口的类使用子类代理：运行时生成被代理类的子类，不依赖第三方字节码库
+ * 有通知的方法按下标直接找到预先取出的拦截器链，没有通知的方法在生成的代码中直接调用目标对象；equals 和 hashCode 总是经过调度，由代理处理
+ */
+public class CglibAopProxy implements AopProxy, ProxyDispatcher {
+
+    private final AdvisedSupport advised;
+
+    /**
+     * 代理类中有通知的方法，按生成代码中的下标对应
+     */
+    private AdvisedMethod[] advisedMethods;
 
     public CglibAopProxy(AdvisedSupport config) {
+        this.advised = config;
     }
 
     @Override
     public Object getProxy() {
-        return null;
+        return getProxy(this.advised.getTargetClass().getClassLoader());
     }
 
+    /**
+     * @return 代理对象；类不能被继承时返回null，容器保留原始对象
+     */
     @Override
     public Object getProxy(ClassLoader classLoader) {
-        return null;
+        Class<?> targetClass = this.advised.getTargetClass();
+        if (!SubclassProxyGenerator.isProxyable(targetClass)) {
+            return null;
+        }
+        try {
+            Method[] proxiedMethods = SubclassProxyGenerator.getProxiedMethods(targetClass);
+            AdvisedMethod[] methods = new AdvisedMethod[proxiedMethods.length];
+            boolean[] adviceFlags = new boolean[proxiedMethods.length];
+            for (int i = 0; i < proxiedMethods.length; i++) {
+                methods[i] = this.advised.getAdvisedMethod(proxiedMethods[i]);
+                adviceFlags[i] = methods[i].requiresDispatch();
+            }
+            SubclassProxyGenerator.ProxyClass proxyClass =
+                    SubclassProxyGenerator.getProxyClass(targetClass, proxiedMethods, adviceFlags, classLoader);
+            this.advisedMethods = methods;
+            return proxyClass.newInstance(this.advised.getTarget(), this);
+        } catch (Exception | LinkageError e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public Object invoke(int methodIndex, Object proxy, Object[] args) throws Throwable {
+        return advisedMethods[methodIndex].invoke(proxy, args);
     }
 }
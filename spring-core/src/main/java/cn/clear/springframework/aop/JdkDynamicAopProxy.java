@@ -2,13 +2,12 @@ package cn.clear.springframework.aop;
 
 
 
-import cn.clear.springframework.aop.intercept.MethodInvocation;
+import cn.clear.springframework.aop.support.AdvisedMethod;
 import cn.clear.springframework.aop.support.AdvisedSupport;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.List;
 
 public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
@@ -18,6 +17,10 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
         this.advised = config;
     }
 
+    AdvisedSupport getAdvised() {
+        return advised;
+    }
+
     @Override
     public Object getProxy() {
         return getProxy(this.advised.getTargetClass().getClassLoader());
@@ -28,21 +31,12 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
         return Proxy.newProxyInstance(classLoader, this.advised.getTargetClass().getInterfaces(), this);
     }
 
+    /**
+     * 按 Method 对象的引用取出准备好的拦截器链和方法句柄，没有通知的方法（例如 toString）直接调用目标对象
+     * equals 和 hashCode 由代理处理，见 {@link AdvisedMethod}
+     */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // 获取拦截器链
-        List<Object> interceptorsAndDynamicMethodMatchers =
-                this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, this.advised.getTargetClass());
-        // 外层拦截器，用于控制拦截器链的执行
-        MethodInvocation invocation = new MethodInvocation(
-                proxy,
-                this.advised.getTarget(),
-                method,
-                args,
-                this.advised.getTargetClass(),
-                interceptorsAndDynamicMethodMatchers
-        );
-        // 开始连接器链的调用
-        return invocation.proceed();
+        return this.advised.getAdvisedMethod(method).invoke(proxy, args);
     }
 }
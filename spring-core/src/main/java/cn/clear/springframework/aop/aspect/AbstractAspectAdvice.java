@@ -1,40 +1,125 @@
 package cn.clear.springframework.aop.aspect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 
+/**
+ * 通知的公共实现：创建时把通知方法的参数绑定规则编译成一个 {@link MethodHandle}，
+ * 调用时不再检查参数类型、也不创建参数数组；拦截器本身没有可变状态，所有线程可以共用一个实例
+ * 参数绑定规则：JoinPoint（及其子接口）绑定连接点，Throwable绑定异常，Object绑定返回值，其他引用类型传null
+ */
 public abstract class AbstractAspectAdvice implements Advice {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 编译后的通知方法的类型：(JoinPoint, 返回值, 异常)返回值
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, JoinPoint.class, Object.class, Throwable.class);
+
+    private static final int JOIN_POINT = 0;
+
+    private static final int RETURN_VALUE = 1;
+
+    private static final int THROWABLE = 2;
+
     /**通知方法*/
-    private Method aspectMethod;
+    private final Method aspectMethod;
 
     /**切面类*/
-    private Object aspectTarget;
+    private final Object aspectTarget;
+
+    /**
+     * 绑定了切面对象和参数规则的通知方法
+     */
+    private final MethodHandle invoker;
 
     public AbstractAspectAdvice(Method aspectMethod, Object aspectTarget) {
         this.aspectMethod = aspectMethod;
         this.aspectTarget = aspectTarget;
+        this.invoker = compile(aspectMethod, aspectTarget);
+    }
+
+    /**
+     * 把通知方法编译成 (JoinPoint, Object, Throwable)Object 的方法句柄
+     */
+    private static MethodHandle compile(Method aspectMethod, Object aspectTarget) {
+        if (aspectMethod == null) {
+            throw new IllegalArgumentException("Advice method not found in aspect " + aspectTarget.getClass().getName());
+        }
+        try {
+            aspectMethod.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(aspectMethod).bindTo(aspectTarget);
+            Class<?>[] paramTypes = aspectMethod.getParameterTypes();
+            // 没有对应参数的位置先填入null，剩下的参数按绑定规则从调用参数中取
+            int[] reorder = new int[paramTypes.length];
+            int bound = 0;
+            for (int i = paramTypes.length - 1; i >= 0; i--) {
+                int slot = slotOf(paramTypes[i]);
+                if (slot < 0) {
+                    if (paramTypes[i].isPrimitive()) {
+                        throw new IllegalArgumentException("Unsupported parameter type " + paramTypes[i] + " of advice method " + aspectMethod);
+                    }
+                    handle = MethodHandles.insertArguments(handle, i, (Object) null);
+                }
+            }
+            Class<?>[] boundTypes = new Class<?>[handle.type().parameterCount()];
+            for (Class<?> paramType : paramTypes) {
+                int slot = slotOf(paramType);
+                if (slot >= 0) {
+                    reorder[bound] = slot;
+                    boundTypes[bound++] = INVOKER_TYPE.parameterType(slot);
+                }
+            }
+            // 参数和返回值转换为统一的类型，再按绑定规则重新排列
+            handle = handle.asType(MethodType.methodType(Object.class, boundTypes));
+            int[] permutation = new int[bound];
+            System.arraycopy(reorder, 0, permutation, 0, bound);
+            return MethodHandles.permuteArguments(handle, INVOKER_TYPE, permutation);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can not access advice method " + aspectMethod, e);
+        }
+    }
+
+    private static int slotOf(Class<?> paramType) {
+        if (JoinPoint.class.isAssignableFrom(paramType)) {
+            return JOIN_POINT;
+        }
+        if (paramType == Throwable.class) {
+            return THROWABLE;
+        }
+        if (paramType == Object.class) {
+            return RETURN_VALUE;
+        }
+        return -1;
     }
 
 	/**
      * 调用通知方法
      */
     public Object invokeAdviceMethod(JoinPoint joinPoint, Object returnValue, Throwable tx) throws Throwable {
-        Class<?>[] paramTypes = this.aspectMethod.getParameterTypes();
-        if (paramTypes.length == 0) {
-            return this.aspectMethod.invoke(aspectTarget);
-        } else {
-            Object[] args = new Object[paramTypes.length];
-            for (int i = 0; i < paramTypes.length; i++) {
-                if (paramTypes[i] == JoinPoint.class) {
-                    args[i] = joinPoint;
-                } else if (paramTypes[i] == Throwable.class) {
-                    args[i] = tx;
-                } else if (paramTypes[i] == Object.class) {
-                    args[i] = returnValue;
-                }
-            }
-            return this.aspectMethod.invoke(aspectTarget, args);
+        return (Object) invoker.invokeExact(joinPoint, returnValue, tx);
+    }
+
+    /**
+     * 异步方法完成时调用通知方法，此时调用方已经返回，通知方法的异常只打印，不影响方法的结果
+     */
+    protected void invokeAdviceMethodOnCompletion(JoinPoint joinPoint, Object returnValue, Throwable tx) {
+        try {
+            invokeAdviceMethod(joinPoint, returnValue, tx);
+        } catch (Throwable e) {
+            e.printStackTrace();
         }
     }
+
+    public Method getAspectMethod() {
+        return aspectMethod;
+    }
+
+    public Object getAspectTarget() {
+        return aspectTarget;
+    }
 }
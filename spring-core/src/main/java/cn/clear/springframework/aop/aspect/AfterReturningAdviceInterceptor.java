@@ -4,14 +4,14 @@ import cn.clear.springframework.aop.intercept.MethodInterceptor;
 import cn.clear.springframework.aop.intercept.MethodInvocation;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 后置通知
+ * 方法返回 {@link CompletionStage}（如 CompletableFuture）时，在结果完成时才调用通知方法，返回值为异步的结果，不阻塞等待
  */
 public class AfterReturningAdviceInterceptor extends AbstractAspectAdvice implements MethodInterceptor {
 
-    private JoinPoint joinPoint;
-
     public AfterReturningAdviceInterceptor(Method aspectMethod, Object aspectTarget) {
         super(aspectMethod, aspectTarget);
     }
@@ -20,13 +20,18 @@ public class AfterReturningAdviceInterceptor extends AbstractAspectAdvice implem
     public Object invoke(MethodInvocation mi) throws Throwable {
         // 先调用下一个拦截器
         Object retVal = mi.proceed();
+        if (retVal instanceof CompletionStage) {
+            // 调用对象在方法返回后会被复用，异步的通知使用连接点的快照
+            JoinPoint joinPoint = mi.snapshot();
+            ((CompletionStage<?>) retVal).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    invokeAdviceMethodOnCompletion(joinPoint, result, null);
+                }
+            });
+            return retVal;
+        }
         // 再调用后置通知
-        this.joinPoint = mi;
-        this.afterReturning(retVal, mi.getMethod(), mi.getArguments(), mi.getThis());
+        invokeAdviceMethod(mi, retVal, null);
         return retVal;
     }
-
-    private void afterReturning(Object retVal, Method method, Object[] arguments, Object aThis) throws Throwable {
-        super.invokeAdviceMethod(this.joinPoint, retVal, null);
-    }
 }
@@ -4,14 +4,19 @@ import cn.clear.springframework.aop.intercept.MethodInterceptor;
 import cn.clear.springframework.aop.intercept.MethodInvocation;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 异常通知
+ * 方法返回 {@link CompletionStage}（如 CompletableFuture）时，在结果异常完成时调用通知方法，不阻塞等待
  */
 public class AfterThrowingAdviceInterceptor extends AbstractAspectAdvice implements MethodInterceptor {
 
-
-    private String throwingName;
+    /**
+     * 只处理该类型的异常，没有配置时处理所有异常
+     */
+    private volatile Class<?> throwingType = Throwable.class;
 
     public AfterThrowingAdviceInterceptor(Method aspectMethod, Object aspectTarget) {
         super(aspectMethod, aspectTarget);
@@ -21,15 +26,49 @@ public class AfterThrowingAdviceInterceptor extends AbstractAspectAdvice impleme
     public Object invoke(MethodInvocation mi) throws Throwable {
         try {
             // 直接调用下一个拦截器，如果不出现异常就不调用异常通知
-            return mi.proceed();
+            Object retVal = mi.proceed();
+            if (retVal instanceof CompletionStage) {
+                // 调用对象在方法返回后会被复用，异步的通知使用连接点的快照
+                JoinPoint joinPoint = mi.snapshot();
+                ((CompletionStage<?>) retVal).whenComplete((result, ex) -> {
+                    Throwable cause = unwrap(ex);
+                    if (cause != null && throwingType.isInstance(cause)) {
+                        invokeAdviceMethodOnCompletion(joinPoint, null, cause);
+                    }
+                });
+            }
+            return retVal;
         } catch (Throwable e) {
-            // 异常捕捉中调用通知方法
-            invokeAdviceMethod(mi, null, e.getCause());
+            // 异常捕捉中调用通知方法，目标方法通过方法句柄调用，异常没有被包装
+            if (throwingType.isInstance(e)) {
+                invokeAdviceMethod(mi, null, e);
+            }
             throw e;
         }
     }
 
+    /**
+     * 依赖的阶段异常时，异步结果的异常被包装为 CompletionException
+     */
+    private static Throwable unwrap(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * @param throwName 处理的异常类型的全类名，创建时解析一次
+     */
     public void setThrowName(String throwName) {
-        this.throwingName = throwName;
+        if (throwName == null || throwName.trim().isEmpty()) {
+            this.throwingType = Throwable.class;
+            return;
+        }
+        try {
+            this.throwingType = Class.forName(throwName.trim(), false, getAspectTarget().getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown throwing type " + throwName, e);
+        }
     }
 }
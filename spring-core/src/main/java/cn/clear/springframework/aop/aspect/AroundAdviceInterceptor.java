@@ -0,0 +1,22 @@
+package cn.clear.springframework.aop.aspect;
+
+import cn.clear.springframework.aop.intercept.MethodInterceptor;
+import cn.clear.springframework.aop.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+
+/**
+ * 环绕通知，通知方法的 {@link ProceedingJoinPoint} 参数就是本次调用对象，不额外创建对象
+ * 通知方法的返回值作为被代理方法的返回值
+ */
+public class AroundAdviceInterceptor extends AbstractAspectAdvice implements MethodInterceptor {
+
+    public AroundAdviceInterceptor(Method aspectMethod, Object aspectTarget) {
+        super(aspectMethod, aspectTarget);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation mi) throws Throwable {
+        return invokeAdviceMethod(mi, null, null);
+    }
+}
@@ -10,21 +10,14 @@ import java.lang.reflect.Method;
  */
 public class MethodBeforeAdviceInterceptor extends AbstractAspectAdvice implements MethodInterceptor {
 
-    private JoinPoint joinPoint;
-
     public MethodBeforeAdviceInterceptor(Method aspectMethod, Object aspectTarget) {
         super(aspectMethod, aspectTarget);
     }
 
-    private void before(Method method, Object[] args, Object target) throws Throwable {
-        super.invokeAdviceMethod(this.joinPoint, null, null);
-    }
-
     @Override
     public Object invoke(MethodInvocation mi) throws Throwable {
-        this.joinPoint = mi;
-        // 在调用下一个拦截器前先执行前置通知
-        before(mi.getMethod(), mi.getArguments(), mi.getThis());
+        // 在调用下一个拦截器前先执行前置通知，连接点直接作为参数传递，不保存在拦截器中
+        invokeAdviceMethod(mi, null, null);
         return mi.proceed();
     }
 }
@@ -0,0 +1,18 @@
+package cn.clear.springframework.aop.aspect;
+
+/**
+ * 环绕通知的连接点，由通知方法决定是否、何时以及用什么参数调用目标方法
+ * 与 {@link JoinPoint} 一样只在本次调用期间有效
+ */
+public interface ProceedingJoinPoint extends JoinPoint {
+
+    /**
+     * 执行后续的拦截器和目标方法
+     */
+    Object proceed() throws Throwable;
+
+    /**
+     * 用新的参数执行后续的拦截器和目标方法
+     */
+    Object proceed(Object[] args) throws Throwable;
+}
@@ -0,0 +1,324 @@
+package cn.clear.springframework.aop.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最小的类文件写入器，只支持生成代理需要的内容：字段、方法和没有分支的字节码
+ * 没有分支就不需要 StackMapTable，最大栈深度和局部变量数由调用方给出
+ */
+public class ClassFileWriter {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+    public static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int JAVA_8 = 52;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * 常量池，下标从1开始
+     */
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+
+    private final DataOutputStream constantPoolOut = new DataOutputStream(constantPool);
+
+    private final Map<String, Integer> constants = new HashMap<>();
+
+    private int constantCount = 1;
+
+    private final int access;
+
+    private final int thisClass;
+
+    private final int superClass;
+
+    private final int[] interfaces;
+
+    private final List<byte[]> fields = new ArrayList<>();
+
+    private final List<CodeBuilder> methods = new ArrayList<>();
+
+    /**
+     * @param access 类的修饰符
+     * @param name 内部名，例如 cn/clear/Foo
+     * @param superName 父类的内部名
+     * @param interfaceNames 实现的接口的内部名
+     */
+    public ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access;
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    public void addField(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * 添加方法，通过返回的 {@link CodeBuilder} 写入字节码
+     */
+    public CodeBuilder addMethod(int access, String name, String descriptor) {
+        CodeBuilder code = new CodeBuilder(access, utf8(name), utf8(descriptor));
+        methods.add(code);
+        return code;
+    }
+
+    public byte[] toByteArray() {
+        int codeAttribute = utf8("Code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(JAVA_8);
+            out.writeShort(constantCount);
+            constantPoolOut.flush();
+            constantPool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int anInterface : interfaces) {
+                out.writeShort(anInterface);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (CodeBuilder method : methods) {
+                method.writeTo(out, codeAttribute);
+            }
+            // 类的属性
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ---------------------------------------------------------------- 常量池
+
+    private int constant(String key, ConstantWriter writer, int slots) {
+        Integer index = constants.get(key);
+        if (index == null) {
+            try {
+                writer.write(constantPoolOut);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = constantCount;
+            constantCount += slots;
+            constants.put(key, index);
+        }
+        return index;
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        }, 1);
+    }
+
+    int integer(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        }, 1);
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        }, 1);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        }, 1);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        return constant("M" + tag + owner + "." + name + ":" + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndTypeIndex);
+        }, 1);
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * 一个方法的字节码，只包含代理需要的指令
+     */
+    public class CodeBuilder {
+
+        private final int access;
+
+        private final int name;
+
+        private final int descriptor;
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private int maxStack;
+
+        private int maxLocals;
+
+        private CodeBuilder(int access, int name, int descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        public CodeBuilder maxs(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+            return this;
+        }
+
+        /**
+         * 按类型读取局部变量：iload、lload、fload、dload、aload
+         */
+        public CodeBuilder load(Class<?> type, int slot) {
+            int opcode = type == long.class ? 0x16 : type == float.class ? 0x17 : type == double.class ? 0x18
+                    : type.isPrimitive() ? 0x15 : 0x19;
+            if (slot > 255) {
+                // wide
+                op(0xc4).op(opcode).u2(slot);
+            } else {
+                op(opcode).op(slot);
+            }
+            return this;
+        }
+
+        /**
+         * 按类型返回：ireturn、lreturn、freturn、dreturn、areturn、return
+         */
+        public CodeBuilder returnValue(Class<?> type) {
+            return op(type == void.class ? 0xb1 : type == long.class ? 0xad : type == float.class ? 0xae
+                    : type == double.class ? 0xaf : type.isPrimitive() ? 0xac : 0xb0);
+        }
+
+        public CodeBuilder pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                return op(0x03 + value);
+            }
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                return op(0x10).op(value & 0xff);
+            }
+            if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                return op(0x11).u2(value);
+            }
+            // ldc_w
+            return op(0x13).u2(integer(value));
+        }
+
+        public CodeBuilder getField(String owner, String name, String descriptor) {
+            return op(0xb4).u2(memberRef(CONSTANT_FIELDREF, owner, name, descriptor));
+        }
+
+        public CodeBuilder checkCast(String internalName) {
+            return op(0xc0).u2(classRef(internalName));
+        }
+
+        public CodeBuilder newArray(String componentInternalName) {
+            return op(0xbd).u2(classRef(componentInternalName));
+        }
+
+        public CodeBuilder invokeVirtual(String owner, String name, String descriptor) {
+            return op(0xb6).u2(memberRef(CONSTANT_METHODREF, owner, name, descriptor));
+        }
+
+        public CodeBuilder invokeStatic(String owner, String name, String descriptor) {
+            return op(0xb8).u2(memberRef(CONSTANT_METHODREF, owner, name, descriptor));
+        }
+
+        /**
+         * @param argumentSlots 参数（包括接收者）占用的槽数
+         */
+        public CodeBuilder invokeInterface(String owner, String name, String descriptor, int argumentSlots) {
+            return op(0xb9).u2(memberRef(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor)).op(argumentSlots).op(0);
+        }
+
+        public CodeBuilder dup() {
+            return op(0x59);
+        }
+
+        public CodeBuilder arrayStore() {
+            return op(0x53);
+        }
+
+        public CodeBuilder pop() {
+            return op(0x57);
+        }
+
+        private CodeBuilder op(int value) {
+            code.write(value);
+            return this;
+        }
+
+        private CodeBuilder u2(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+            return this;
+        }
+
+        private void writeTo(DataOutputStream out, int codeAttribute) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            // max_stack、max_locals、code_length、code、异常表长度、属性数
+            out.writeInt(2 + 2 + 4 + code.size() + 2 + 2);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package cn.clear.springframework.aop.bytecode;
+
+/**
+ * 生成的子类代理把有通知的方法交给它处理
+ */
+public interface ProxyDispatcher {
+
+    /**
+     * @param methodIndex 方法在 {@link SubclassProxyGenerator.ProxyClass#getMethods()} 中的下标
+     * @param proxy 代理对象
+     * @param args 参数
+     * @return 返回值，基本类型为包装类
+     */
+    Object invoke(int methodIndex, Object proxy, Object[] args) throws Throwable;
+}
@@ -0,0 +1,407 @@
+package cn.clear.springframework.aop.bytecode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 运行时生成被代理类的子类：
+ * 有通知的方法按下标交给 {@link ProxyDispatcher}，没有通知的公开方法直接调用目标对象的同名方法；
+ * 代理类优先定义在目标类的类加载器中（同一个运行时包，包级私有的类也能代理），不允许时定义在一个子加载器中
+ * 代理对象不调用构造方法创建，所以只能通过重写的公开方法访问，代理本身的字段不会被初始化
+ */
+public class SubclassProxyGenerator {
+
+    static final String TARGET_FIELD = "$$target";
+
+    static final String DISPATCHER_FIELD = "$$dispatcher";
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String DISPATCHER = ProxyDispatcher.class.getName().replace('.', '/');
+
+    private static final String DISPATCHER_DESCRIPTOR = "(IL" + OBJECT + ";[L" + OBJECT + ";)L" + OBJECT + ";";
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * 每个类生成过的代理类，key：有通知的方法下标，同一个类在不同的切面下可能有不同的代理类
+     */
+    private static final ClassValue<Map<String, ProxyClass>> PROXY_CLASSES = new ClassValue<Map<String, ProxyClass>>() {
+        @Override
+        protected Map<String, ProxyClass> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * 生成的代理类中保存目标对象的字段，不是生成的代理类时为null
+     */
+    private static final ClassValue<Field> TARGET_FIELDS = new ClassValue<Field>() {
+        @Override
+        protected Field computeValue(Class<?> type) {
+            if (!type.isSynthetic() || !type.getName().contains("$$Proxy$$")) {
+                return null;
+            }
+            try {
+                return type.getDeclaredField(TARGET_FIELD);
+            } catch (NoSuchFieldException e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * @return 子类代理的目标对象，不是子类代理时返回null
+     */
+    public static Object getTarget(Object proxy) {
+        Field field = TARGET_FIELDS.get(proxy.getClass());
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(proxy);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 可以生成子类代理，final类、数组、基本类型、接口不行
+     */
+    public static boolean isProxyable(Class<?> targetClass) {
+        int modifiers = targetClass.getModifiers();
+        return !Modifier.isFinal(modifiers) && !targetClass.isInterface() && !targetClass.isArray()
+                && !targetClass.isPrimitive() && ObjectAllocator.isAvailable();
+    }
+
+    /**
+     * 可以重写的方法：公开、不是static和final的方法，包括从父类和Object继承的方法
+     */
+    public static Method[] getProxiedMethods(Class<?> targetClass) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            // 包级私有的类中的公开方法，反射调用目标方法时需要
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            methods.putIfAbsent(method.getName() + descriptor(method), method);
+        }
+        return methods.values().toArray(new Method[0]);
+    }
+
+    /**
+     * 获取代理类，同一个类和同一组有通知的方法只生成一次
+     * @param targetClass 被代理的类
+     * @param methods {@link #getProxiedMethods} 的结果
+     * @param advised 每个方法是否有通知
+     * @param classLoader 无法定义在目标类的类加载器中时，子加载器的父加载器
+     */
+    public static ProxyClass getProxyClass(Class<?> targetClass, Method[] methods, boolean[] advised, ClassLoader classLoader) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < advised.length; i++) {
+            if (advised[i]) {
+                key.append(i).append(',');
+            }
+        }
+        return PROXY_CLASSES.get(targetClass).computeIfAbsent(key.toString(),
+                k -> new ProxyClass(define(targetClass, methods, advised, classLoader), methods));
+    }
+
+    private static Class<?> define(Class<?> targetClass, Method[] methods, boolean[] advised, ClassLoader classLoader) {
+        String proxyName = targetClass.getName() + "$$Proxy$$" + COUNTER.incrementAndGet();
+        byte[] bytes = generate(proxyName.replace('.', '/'), targetClass, methods, advised);
+        Class<?> proxyClass = ClassDefiner.defineInTargetLoader(targetClass, proxyName, bytes);
+        if (proxyClass == null) {
+            proxyClass = new ProxyClassLoader(classLoader == null ? targetClass.getClassLoader() : classLoader)
+                    .define(proxyName, bytes, targetClass.getProtectionDomain());
+        }
+        return proxyClass;
+    }
+
+    /**
+     * 生成代理类的字节码
+     */
+    static byte[] generate(String proxyName, Class<?> targetClass, Method[] methods, boolean[] advised) {
+        String superName = internalName(targetClass);
+        ClassFileWriter writer = new ClassFileWriter(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SUPER
+                | ClassFileWriter.ACC_SYNTHETIC, proxyName, superName);
+        writer.addField(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SYNTHETIC, TARGET_FIELD, "L" + OBJECT + ";");
+        writer.addField(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SYNTHETIC, DISPATCHER_FIELD, "L" + DISPATCHER + ";");
+
+        for (int index = 0; index < methods.length; index++) {
+            Method method = methods[index];
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            int slots = 1;
+            for (Class<?> parameterType : parameterTypes) {
+                slots += slotSize(parameterType);
+            }
+            ClassFileWriter.CodeBuilder code = writer.addMethod(ClassFileWriter.ACC_PUBLIC, method.getName(), descriptor(method));
+            if (advised[index]) {
+                // return (R) this.$$dispatcher.invoke(index, this, new Object[]{args...});
+                code.load(Object.class, 0).getField(proxyName, DISPATCHER_FIELD, "L" + DISPATCHER + ";")
+                        .pushInt(index)
+                        .load(Object.class, 0)
+                        .pushInt(parameterTypes.length)
+                        .newArray(OBJECT);
+                int slot = 1;
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    code.dup().pushInt(i).load(parameterTypes[i], slot);
+                    box(code, parameterTypes[i]);
+                    code.arrayStore();
+                    slot += slotSize(parameterTypes[i]);
+                }
+                code.invokeInterface(DISPATCHER, "invoke", DISPATCHER_DESCRIPTOR, 4);
+                unbox(code, method.getReturnType());
+                code.returnValue(method.getReturnType()).maxs(8, slots);
+            } else {
+                // return ((T) this.$$target).method(args...);
+                code.load(Object.class, 0).getField(proxyName, TARGET_FIELD, "L" + OBJECT + ";").checkCast(superName);
+                int slot = 1;
+                for (Class<?> parameterType : parameterTypes) {
+                    code.load(parameterType, slot);
+                    slot += slotSize(parameterType);
+                }
+                code.invokeVirtual(superName, method.getName(), descriptor(method))
+                        .returnValue(method.getReturnType()).maxs(Math.max(slots, 2), slots);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static void box(ClassFileWriter.CodeBuilder code, Class<?> type) {
+        if (type.isPrimitive()) {
+            Class<?> wrapper = wrapper(type);
+            code.invokeStatic(internalName(wrapper), "valueOf", "(" + descriptor(type) + ")" + descriptor(wrapper));
+        }
+    }
+
+    private static void unbox(ClassFileWriter.CodeBuilder code, Class<?> type) {
+        if (type == void.class) {
+            code.pop();
+        } else if (type.isPrimitive()) {
+            Class<?> wrapper = wrapper(type);
+            code.checkCast(internalName(wrapper)).invokeVirtual(internalName(wrapper), type.getName() + "Value", "()" + descriptor(type));
+        } else if (type != Object.class) {
+            code.checkCast(internalName(type));
+        }
+    }
+
+    private static Class<?> wrapper(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == float.class) {
+            return Float.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+
+    private static int slotSize(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    /**
+     * 类的内部名，数组为描述符形式
+     */
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Method method) {
+        StringBuilder result = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            result.append(descriptor(parameterType));
+        }
+        return result.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+        if (type.isPrimitive()) {
+            if (type == int.class) {
+                return "I";
+            }
+            if (type == long.class) {
+                return "J";
+            }
+            if (type == boolean.class) {
+                return "Z";
+            }
+            if (type == double.class) {
+                return "D";
+            }
+            if (type == float.class) {
+                return "F";
+            }
+            if (type == short.class) {
+                return "S";
+            }
+            if (type == byte.class) {
+                return "B";
+            }
+            if (type == char.class) {
+                return "C";
+            }
+            return "V";
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    /**
+     * 生成好的代理类
+     */
+    public static class ProxyClass {
+
+        private final Class<?> proxyClass;
+
+        private final Method[] methods;
+
+        private final Field targetField;
+
+        private final Field dispatcherField;
+
+        ProxyClass(Class<?> proxyClass, Method[] methods) {
+            this.proxyClass = proxyClass;
+            this.methods = methods;
+            try {
+                this.targetField = proxyClass.getField(TARGET_FIELD);
+                this.dispatcherField = proxyClass.getField(DISPATCHER_FIELD);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 创建代理对象，不调用被代理类的构造方法
+         */
+        public Object newInstance(Object target, ProxyDispatcher dispatcher) throws Exception {
+            Object proxy = ObjectAllocator.allocate(proxyClass);
+            targetField.set(proxy, target);
+            dispatcherField.set(proxy, dispatcher);
+            return proxy;
+        }
+
+        public Class<?> getProxyClass() {
+            return proxyClass;
+        }
+
+        /**
+         * @return 重写的方法，下标和 {@link ProxyDispatcher#invoke} 的 methodIndex 对应
+         */
+        public Method[] getMethods() {
+            return methods;
+        }
+    }
+
+    /**
+     * 把代理类定义在目标类的类加载器中
+     */
+    private static class ClassDefiner {
+
+        private static final Method DEFINE_CLASS = findDefineClass();
+
+        private static Method findDefineClass() {
+            try {
+                Method method = ClassLoader.class.getDeclaredMethod("defineClass",
+                        String.class, byte[].class, int.class, int.class, ProtectionDomain.class);
+                method.setAccessible(true);
+                return method;
+            } catch (Exception | LinkageError e) {
+                // 新版本JDK不允许访问，使用子加载器
+                return null;
+            }
+        }
+
+        /**
+         * @return 定义失败返回null
+         */
+        static Class<?> defineInTargetLoader(Class<?> targetClass, String name, byte[] bytes) {
+            ClassLoader loader = targetClass.getClassLoader();
+            if (DEFINE_CLASS == null || loader == null) {
+                return null;
+            }
+            try {
+                return (Class<?>) DEFINE_CLASS.invoke(loader, name, bytes, 0, bytes.length, targetClass.getProtectionDomain());
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 目标类的类加载器不允许定义新类时使用，只能代理公开的类
+     */
+    private static class ProxyClassLoader extends ClassLoader {
+
+        ProxyClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes, ProtectionDomain protectionDomain) {
+            return defineClass(name, bytes, 0, bytes.length, protectionDomain);
+        }
+    }
+
+    /**
+     * 不调用构造方法创建对象，使用 sun.misc.Unsafe#allocateInstance（通过反射获取，不在编译期依赖）
+     */
+    static class ObjectAllocator {
+
+        private static final Object UNSAFE;
+
+        private static final Method ALLOCATE_INSTANCE;
+
+        static {
+            Object unsafe = null;
+            Method allocateInstance = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+            } catch (Exception | LinkageError e) {
+                // 不可用时不能生成子类代理
+            }
+            UNSAFE = unsafe;
+            ALLOCATE_INSTANCE = allocateInstance;
+        }
+
+        static boolean isAvailable() {
+            return ALLOCATE_INSTANCE != null;
+        }
+
+        static Object allocate(Class<?> type) throws Exception {
+            return ALLOCATE_INSTANCE.invoke(UNSAFE, type);
+        }
+    }
+}
@@ -14,6 +14,9 @@ public class AopConfig {
     //后置通知方法
     private String aspectAfter;
 
+    //环绕通知方法，参数为 ProceedingJoinPoint
+    private String aspectAround;
+
     //切面类
     private String aspectClass;
 
@@ -23,4 +26,10 @@ public class AopConfig {
     //抛出的异常类型
     private String aspectAfterThrowingName;
 
+    //是否统计符合切点的方法的耗时
+    private boolean metrics;
+
+    //耗时统计的抽样间隔，N表示约每N次调用记录一次
+    private int metricsSampleInterval = 1;
+
 }
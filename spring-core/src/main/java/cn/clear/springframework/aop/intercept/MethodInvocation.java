@@ -1,13 +1,26 @@
 package cn.clear.springframework.aop.intercept;
 
 import cn.clear.springframework.aop.aspect.JoinPoint;
+import cn.clear.springframework.aop.aspect.ProceedingJoinPoint;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-public class MethodInvocation implements JoinPoint {
+/**
+ * 一次被代理方法的调用，负责按顺序执行拦截器链，最后通过 {@link MethodHandle} 调用目标方法
+ * 对象按线程和调用深度复用，调用结束后回收，所以只在本次调用期间有效，不能在调用结束后继续持有
+ * 需要在调用结束后使用连接点时（如异步方法完成时的通知），使用 {@link #snapshot()}
+ */
+public class MethodInvocation implements ProceedingJoinPoint {
+
+    /**
+     * 每个线程复用的调用对象，下标为嵌套调用的深度
+     */
+    private static final ThreadLocal<InvocationStack> STACK = ThreadLocal.withInitial(InvocationStack::new);
+
     /**
      * 代理对象
      */
@@ -36,7 +49,12 @@ public class MethodInvocation implements JoinPoint {
     /**
      * 拦截器链
      */
-    private List<Object> interceptorsAndDynamicMethodMatchers;
+    private MethodInterceptor[] interceptors;
+
+    /**
+     * 绑定了目标对象的方法句柄，(Object[])Object
+     */
+    private MethodHandle targetHandle;
 
     /**
      * 用户参数
@@ -48,41 +66,72 @@ public class MethodInvocation implements JoinPoint {
      */
     private int currentInterceptorIndex = -1;
 
-    public MethodInvocation(Object proxy,
-                            Object target,
-                            Method method,
-                            Object[] arguments,
-                            Class<?> targetClass,
-                            List<Object> interceptorsAndDynamicMethodMatchers) {
-
-        this.proxy = proxy;
-        this.target = target;
-        this.targetClass = targetClass;
-        this.method = method;
-        this.arguments = arguments;
-        this.interceptorsAndDynamicMethodMatchers = interceptorsAndDynamicMethodMatchers;
+    private MethodInvocation() {
+    }
+
+    /**
+     * 执行拦截器链和目标方法，使用当前线程复用的调用对象
+     * @param targetHandle 绑定了目标对象的方法句柄，类型为 (Object[])Object
+     */
+    public static Object invoke(Object proxy, Object target, Method method, Object[] arguments, Class<?> targetClass,
+                                MethodInterceptor[] interceptors, MethodHandle targetHandle) throws Throwable {
+        InvocationStack stack = STACK.get();
+        MethodInvocation invocation = stack.push();
+        invocation.proxy = proxy;
+        invocation.target = target;
+        invocation.method = method;
+        invocation.arguments = arguments;
+        invocation.targetClass = targetClass;
+        invocation.interceptors = interceptors;
+        invocation.targetHandle = targetHandle;
+        invocation.currentInterceptorIndex = -1;
+        try {
+            return invocation.proceed();
+        } finally {
+            invocation.proxy = null;
+            invocation.target = null;
+            invocation.arguments = null;
+            invocation.userAttributes = null;
+            stack.pop();
+        }
     }
 
     /**
      * 调度执行拦截器链
+     * 拦截器返回后恢复执行位置，环绕通知可以多次调用 proceed（如重试）
      */
+    @Override
     public Object proceed() throws Throwable {
         // 拦截器执行完了，最后真正执行被代理的方法
-        if (currentInterceptorIndex == interceptorsAndDynamicMethodMatchers.size() - 1) {
-            return this.method.invoke(target, arguments);
+        if (currentInterceptorIndex == interceptors.length - 1) {
+            return (Object) targetHandle.invokeExact(arguments);
+        }
+
+        // 执行下一个拦截器的通知方法
+        int index = ++currentInterceptorIndex;
+        try {
+            return interceptors[index].invoke(this);
+        } finally {
+            currentInterceptorIndex = index - 1;
         }
+    }
 
-        // 获取一个拦截器
-        Object interceptorOrInterceptionAdvice = 
-                interceptorsAndDynamicMethodMatchers.get(++currentInterceptorIndex);
-        if (interceptorOrInterceptionAdvice instanceof MethodInterceptor) {
-            MethodInterceptor mi = (MethodInterceptor) interceptorOrInterceptionAdvice;
-            // 执行通知方法
-            return mi.invoke(this);
-        } else {
-            // 跳过，调用下一个拦截器
-            return proceed();
+    @Override
+    public Object proceed(Object[] args) throws Throwable {
+        if (args == null || args.length != method.getParameterCount()) {
+            throw new IllegalArgumentException("Expecting " + method.getParameterCount() + " arguments to proceed, but was passed "
+                    + (args == null ? 0 : args.length) + " arguments");
         }
+        this.arguments = args;
+        return proceed();
+    }
+
+    /**
+     * @return 与本次调用对象脱离的连接点，复制了参数和用户参数，调用结束后仍然可以使用
+     */
+    public JoinPoint snapshot() {
+        return new JoinPointSnapshot(target, method, arguments == null ? null : arguments.clone(),
+                userAttributes == null ? null : new HashMap<>(userAttributes));
     }
 
     @Override
@@ -100,6 +149,14 @@ public class MethodInvocation implements JoinPoint {
         return this.method;
     }
 
+    public Object getProxy() {
+        return this.proxy;
+    }
+
+    public Class<?> getTargetClass() {
+        return this.targetClass;
+    }
+
     @Override
     public void setUserAttribute(String key, Object value) {
         if (value != null) {
@@ -119,4 +176,91 @@ public class MethodInvocation implements JoinPoint {
     public Object getUserAttribute(String key) {
         return (this.userAttributes != null ? this.userAttributes.get(key) : null);
     }
+
+    /**
+     * 调用结束后仍然有效的连接点
+     */
+    private static class JoinPointSnapshot implements JoinPoint {
+
+        private final Object target;
+
+        private final Method method;
+
+        private final Object[] arguments;
+
+        private Map<String, Object> userAttributes;
+
+        JoinPointSnapshot(Object target, Method method, Object[] arguments, Map<String, Object> userAttributes) {
+            this.target = target;
+            this.method = method;
+            this.arguments = arguments;
+            this.userAttributes = userAttributes;
+        }
+
+        @Override
+        public Object getThis() {
+            return target;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return arguments;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public synchronized void setUserAttribute(String key, Object value) {
+            if (value != null) {
+                if (userAttributes == null) {
+                    userAttributes = new HashMap<>();
+                }
+                userAttributes.put(key, value);
+            } else if (userAttributes != null) {
+                userAttributes.remove(key);
+            }
+        }
+
+        @Override
+        public synchronized Object getUserAttribute(String key) {
+            return userAttributes != null ? userAttributes.get(key) : null;
+        }
+
+        @Override
+        public String toString() {
+            return "JoinPoint[" + method + ", args=" + Arrays.toString(arguments) + "]";
+        }
+    }
+
+    /**
+     * 一个线程中嵌套调用的调用对象
+     */
+    private static class InvocationStack {
+
+        private MethodInvocation[] frames = new MethodInvocation[8];
+
+        private int depth;
+
+        MethodInvocation push() {
+            if (depth == frames.length) {
+                MethodInvocation[] grown = new MethodInvocation[frames.length * 2];
+                System.arraycopy(frames, 0, grown, 0, frames.length);
+                frames = grown;
+            }
+            MethodInvocation invocation = frames[depth];
+            if (invocation == null) {
+                invocation = new MethodInvocation();
+                frames[depth] = invocation;
+            }
+            depth++;
+            return invocation;
+        }
+
+        void pop() {
+            depth--;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package cn.clear.springframework.aop.metrics;
+
+import cn.clear.springframework.core.metrics.HistogramSnapshot;
+import cn.clear.springframework.core.metrics.LatencyHistogram;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 被代理方法的耗时统计，配置 spring.aop.metrics=true 时启用
+ * 每个符合切点的方法在拦截器链的最前面有一个 {@link MethodTimingInterceptor}，同名的方法共用一个直方图
+ * spring.aop.metrics.sampleInterval=N 时只记录约 1/N 的调用，导出的次数需要乘以N
+ */
+public class MethodMetrics {
+
+    private final int sampleInterval;
+
+    /**
+     * key：类名.方法名(参数类型)，参数类型使用全名，同名不同包的参数类型的重载方法不会共用直方图
+     */
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleInterval 抽样间隔，小于1时按1处理，即记录每次调用
+     */
+    public MethodMetrics(int sampleInterval) {
+        this.sampleInterval = Math.max(sampleInterval, 1);
+    }
+
+    /**
+     * 创建一个方法的计时拦截器，在生成拦截器链时调用一次
+     */
+    public MethodTimingInterceptor createInterceptor(Class<?> targetClass, Method method) {
+        String name = nameOf(targetClass, method);
+        return new MethodTimingInterceptor(name, histograms.computeIfAbsent(name, k -> new LatencyHistogram()), sampleInterval);
+    }
+
+    /**
+     * 导出所有方法的耗时分布
+     * @return key：类名.方法名(参数类型)，按名称排序
+     */
+    public Map<String, HistogramSnapshot> snapshot() {
+        Map<String, HistogramSnapshot> result = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    private static String nameOf(Class<?> targetClass, Method method) {
+        StringBuilder name = new StringBuilder(targetClass.getName()).append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(parameterTypes[i].getTypeName());
+        }
+        return name.append(')').toString();
+    }
+}
@@ -0,0 +1,59 @@
+package cn.clear.springframework.aop.metrics;
+
+import cn.clear.springframework.aop.intercept.MethodInterceptor;
+import cn.clear.springframework.aop.intercept.MethodInvocation;
+import cn.clear.springframework.core.metrics.LatencyHistogram;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 记录一个方法耗时的拦截器，每个被代理的方法一个实例，调用时不需要查找直方图
+ * 按 1/sampleInterval 的概率抽样，没有抽中的调用不读取时间；返回 {@link CompletionStage} 的方法记录到结果完成为止的耗时
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    private final String name;
+
+    private final LatencyHistogram histogram;
+
+    private final int sampleInterval;
+
+    MethodTimingInterceptor(String name, LatencyHistogram histogram, int sampleInterval) {
+        this.name = name;
+        this.histogram = histogram;
+        this.sampleInterval = sampleInterval;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation mi) throws Throwable {
+        if (sampleInterval > 1 && ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+            return mi.proceed();
+        }
+        long start = System.nanoTime();
+        Object retVal;
+        try {
+            retVal = mi.proceed();
+        } catch (Throwable e) {
+            histogram.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        if (retVal instanceof CompletionStage) {
+            ((CompletionStage<?>) retVal).whenComplete((result, ex) -> histogram.record(System.nanoTime() - start, ex != null));
+        } else {
+            histogram.record(System.nanoTime() - start, false);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return 方法名称：类名.方法名(参数类型)
+     */
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,46 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * @annotation(注解的全类名)：方法上标注了该注解时匹配
+ */
+final class AnnotationPointcut implements Pointcut {
+
+    private final String annotationName;
+
+    AnnotationPointcut(String annotationName) {
+        this.annotationName = annotationName.trim();
+        if (this.annotationName.isEmpty()) {
+            throw new IllegalArgumentException("Missing annotation type in @annotation()");
+        }
+    }
+
+    /**
+     * 类中有方法标注了该注解
+     */
+    @Override
+    public boolean matchesClass(Class<?> targetClass) {
+        for (Method method : targetClass.getMethods()) {
+            if (hasAnnotation(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return hasAnnotation(method);
+    }
+
+    private boolean hasAnnotation(Method method) {
+        for (Annotation annotation : method.getDeclaredAnnotations()) {
+            if (annotation.annotationType().getName().equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.reflect.Method;
+
+/**
+ * 切点的组合：&&、||、!
+ */
+final class CompositePointcut implements Pointcut {
+
+    enum Operator {
+        AND, OR, NOT
+    }
+
+    private final Operator operator;
+
+    private final Pointcut left;
+
+    /**
+     * NOT时为null
+     */
+    private final Pointcut right;
+
+    CompositePointcut(Operator operator, Pointcut left, Pointcut right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * 预过滤只能排除一定不匹配的类：取反时无法根据类判断，始终通过
+     */
+    @Override
+    public boolean matchesClass(Class<?> targetClass) {
+        switch (operator) {
+            case AND:
+                return left.matchesClass(targetClass) && right.matchesClass(targetClass);
+            case OR:
+                return left.matchesClass(targetClass) || right.matchesClass(targetClass);
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        switch (operator) {
+            case AND:
+                return left.matches(method, targetClass) && right.matches(method, targetClass);
+            case OR:
+                return left.matches(method, targetClass) || right.matches(method, targetClass);
+            default:
+                return !left.matches(method, targetClass);
+        }
+    }
+}
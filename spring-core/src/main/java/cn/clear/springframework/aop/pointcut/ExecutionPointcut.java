@@ -0,0 +1,219 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * execution(修饰符? 返回类型 声明类型?.方法名(参数) throws 异常?)
+ * 例如 execution(public * cn.clear..*Service.get*(String, ..))；参数中 .. 匹配任意个参数，* 匹配一个任意类型的参数
+ */
+final class ExecutionPointcut implements Pointcut {
+
+    private static final String[] MODIFIER_NAMES = {"public", "protected", "private", "static", "final", "synchronized"};
+
+    private static final int[] MODIFIER_FLAGS = {Modifier.PUBLIC, Modifier.PROTECTED, Modifier.PRIVATE,
+            Modifier.STATIC, Modifier.FINAL, Modifier.SYNCHRONIZED};
+
+    /**
+     * 必须有的修饰符
+     */
+    private int requiredModifiers;
+
+    /**
+     * 不能有的修饰符，例如 !static
+     */
+    private int forbiddenModifiers;
+
+    private final TypePattern returnType;
+
+    private final TypePattern declaringType;
+
+    private final NamePattern name;
+
+    /**
+     * 参数类型，null表示 ..
+     */
+    private final TypePattern[] parameterTypes;
+
+    private final TypePattern[] throwsTypes;
+
+    ExecutionPointcut(String expression) {
+        int open = expression.indexOf('(');
+        int close = open < 0 ? -1 : expression.indexOf(')', open);
+        if (close < 0) {
+            throw new IllegalArgumentException("Missing parameter list in execution(" + expression + ")");
+        }
+        String[] tokens = expression.substring(0, open).trim().split("\\s+");
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("Missing return type in execution(" + expression + ")");
+        }
+        for (int i = 0; i < tokens.length - 2; i++) {
+            parseModifier(tokens[i]);
+        }
+        this.returnType = new TypePattern(tokens[tokens.length - 2]);
+
+        // 声明类型和方法名之间用最后一个点号分隔，cn.clear..*(..) 表示 cn.clear 及其子包中所有类型的方法
+        String qualifiedName = tokens[tokens.length - 1];
+        int dot = qualifiedName.lastIndexOf('.');
+        if (dot < 0) {
+            this.declaringType = TypePattern.ANY;
+        } else {
+            String type = qualifiedName.substring(0, dot);
+            this.declaringType = new TypePattern(type.endsWith(".") ? type + ".*" : type);
+        }
+        this.name = new NamePattern(qualifiedName.substring(dot + 1));
+        this.parameterTypes = parseTypes(expression.substring(open + 1, close), true);
+
+        String rest = expression.substring(close + 1).trim();
+        if (rest.isEmpty()) {
+            this.throwsTypes = new TypePattern[0];
+        } else if (rest.startsWith("throws ")) {
+            this.throwsTypes = parseTypes(rest.substring("throws ".length()), false);
+        } else {
+            throw new IllegalArgumentException("Unexpected '" + rest + "' in execution(" + expression + ")");
+        }
+    }
+
+    private void parseModifier(String token) {
+        boolean negated = token.startsWith("!");
+        String modifier = negated ? token.substring(1) : token;
+        for (int i = 0; i < MODIFIER_NAMES.length; i++) {
+            if (MODIFIER_NAMES[i].equals(modifier)) {
+                if (negated) {
+                    forbiddenModifiers |= MODIFIER_FLAGS[i];
+                } else {
+                    requiredModifiers |= MODIFIER_FLAGS[i];
+                }
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown modifier '" + token + "'");
+    }
+
+    private static TypePattern[] parseTypes(String text, boolean allowEllipsis) {
+        if (text.trim().isEmpty()) {
+            return new TypePattern[0];
+        }
+        List<TypePattern> result = new ArrayList<>();
+        for (String item : text.split(",")) {
+            String type = item.trim();
+            if (allowEllipsis && "..".equals(type)) {
+                result.add(null);
+            } else {
+                result.add(new TypePattern(type));
+            }
+        }
+        return result.toArray(new TypePattern[0]);
+    }
+
+    @Override
+    public boolean matchesClass(Class<?> targetClass) {
+        return declaringType == TypePattern.ANY || matchesDeclaringType(targetClass);
+    }
+
+    /**
+     * 被代理的类或者它的父类、接口符合声明类型
+     */
+    private boolean matchesDeclaringType(Class<?> type) {
+        if (type == null) {
+            return false;
+        }
+        if (declaringType.matches(type) || matchesDeclaringType(type.getSuperclass())) {
+            return true;
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (matchesDeclaringType(anInterface)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        int modifiers = method.getModifiers();
+        // 代理不能拦截static和final方法，包括Object的getClass、wait、notify
+        if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+            return false;
+        }
+        if ((modifiers & requiredModifiers) != requiredModifiers || (modifiers & forbiddenModifiers) != 0) {
+            return false;
+        }
+        if (!name.matches(method.getName(), 0) || !returnType.matches(method.getReturnType())) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        if (!matchesParameters(types, 0, 0) || !matchesThrows(method.getExceptionTypes())) {
+            return false;
+        }
+        return declaringType == TypePattern.ANY || declaresMethod(method.getDeclaringClass(), method.getName(), types);
+    }
+
+    /**
+     * 和AspectJ一致：声明类型要和声明（或重写）该方法的某个类型匹配，
+     * 所以 cn.clear..* 不会匹配从Object继承的 toString，接口中声明的方法也能用接口名匹配
+     */
+    private boolean declaresMethod(Class<?> type, String methodName, Class<?>[] parameterTypes) {
+        if (type == null) {
+            return false;
+        }
+        if (declaringType.matches(type) && hasDeclaredMethod(type, methodName, parameterTypes)) {
+            return true;
+        }
+        if (declaresMethod(type.getSuperclass(), methodName, parameterTypes)) {
+            return true;
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (declaresMethod(anInterface, methodName, parameterTypes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasDeclaredMethod(Class<?> type, String methodName, Class<?>[] parameterTypes) {
+        for (Method declared : type.getDeclaredMethods()) {
+            if (declared.getName().equals(methodName) && Arrays.equals(declared.getParameterTypes(), parameterTypes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesParameters(Class<?>[] types, int p, int t) {
+        if (p == parameterTypes.length) {
+            return t == types.length;
+        }
+        if (parameterTypes[p] == null) {
+            for (int k = t; k <= types.length; k++) {
+                if (matchesParameters(types, p + 1, k)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return t < types.length && parameterTypes[p].matches(types[t]) && matchesParameters(types, p + 1, t + 1);
+    }
+
+    /**
+     * 列出的每个异常类型都必须在方法的 throws 中
+     */
+    private boolean matchesThrows(Class<?>[] exceptionTypes) {
+        for (TypePattern throwsType : throwsTypes) {
+            boolean found = false;
+            for (Class<?> exceptionType : exceptionTypes) {
+                if (throwsType.matches(exceptionType)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package cn.clear.springframework.aop.pointcut;
+
+/**
+ * 名称通配符：* 匹配不含点号的任意字符，.. 匹配任意层包（只用于类型名）
+ * 直接在字符上回溯匹配，不创建字符串和正则
+ */
+final class NamePattern {
+
+    private final char[] pattern;
+
+    /**
+     * 是否只由 * 组成，匹配任何名称
+     */
+    private final boolean any;
+
+    NamePattern(String pattern) {
+        this.pattern = pattern.toCharArray();
+        this.any = "*".equals(pattern);
+    }
+
+    boolean isAny() {
+        return any;
+    }
+
+    /**
+     * @param name 名称
+     * @param from 从该位置开始匹配，用于只匹配类的简单名
+     */
+    boolean matches(String name, int from) {
+        return any || matches(0, name, from);
+    }
+
+    private boolean matches(int p, String name, int n) {
+        while (p < pattern.length) {
+            char c = pattern[p];
+            if (c == '*') {
+                // 尝试每一个不跨越点号的长度
+                for (int k = n; ; k++) {
+                    if (matches(p + 1, name, k)) {
+                        return true;
+                    }
+                    if (k >= name.length() || name.charAt(k) == '.') {
+                        return false;
+                    }
+                }
+            }
+            if (c == '.' && p + 1 < pattern.length && pattern[p + 1] == '.') {
+                // ..：点号开头，结束在点号之后的任意一段
+                if (n >= name.length() || name.charAt(n) != '.') {
+                    return false;
+                }
+                for (int k = n + 1; k <= name.length(); k++) {
+                    if (name.charAt(k - 1) == '.' && matches(p + 2, name, k)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (n >= name.length() || name.charAt(n) != c) {
+                return false;
+            }
+            p++;
+            n++;
+        }
+        return n == name.length();
+    }
+
+    @Override
+    public String toString() {
+        return new String(pattern);
+    }
+}
@@ -0,0 +1,22 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.reflect.Method;
+
+/**
+ * 切点：先按类过滤，类可能匹配时再逐个判断方法
+ * 由 {@link PointcutParser} 解析切点表达式得到，匹配时只比较类型、修饰符和名称，不拼接字符串
+ */
+public interface Pointcut {
+
+    /**
+     * 类级别的预过滤，返回false时该类的任何方法都不会匹配
+     * @param targetClass 被代理的类
+     */
+    boolean matchesClass(Class<?> targetClass);
+
+    /**
+     * @param method 被代理类的公开方法
+     * @param targetClass 被代理的类
+     */
+    boolean matches(Method method, Class<?> targetClass);
+}
@@ -0,0 +1,141 @@
+package cn.clear.springframework.aop.pointcut;
+
+/**
+ * 解析AspectJ风格的切点表达式：
+ * execution(...)、within(...)、@annotation(...)，可以用 &&、||、!（或 and、or、not）和括号组合
+ * 不是这种形式的表达式按原来的正则风格处理，见 {@link RegexPointcut}
+ */
+public class PointcutParser {
+
+    private static final String EXECUTION = "execution";
+
+    private static final String WITHIN = "within";
+
+    private static final String ANNOTATION = "@annotation";
+
+    private final String expression;
+
+    private int position;
+
+    private PointcutParser(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * @param expression 切点表达式
+     * @throws IllegalArgumentException 表达式不合法
+     */
+    public static Pointcut parse(String expression) {
+        String text = expression.trim();
+        if (!isAspectJStyle(text)) {
+            return new RegexPointcut(text);
+        }
+        PointcutParser parser = new PointcutParser(text);
+        Pointcut result = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw parser.error("Unexpected '" + text.substring(parser.position) + "'");
+        }
+        return result;
+    }
+
+    private static boolean isAspectJStyle(String text) {
+        return text.startsWith(EXECUTION + "(") || text.startsWith(WITHIN + "(") || text.startsWith(ANNOTATION + "(")
+                || text.startsWith("!") || text.startsWith("(") || text.startsWith("not ");
+    }
+
+    private Pointcut parseOr() {
+        Pointcut left = parseAnd();
+        while (consume("||") || consumeWord("or")) {
+            left = new CompositePointcut(CompositePointcut.Operator.OR, left, parseAnd());
+        }
+        return left;
+    }
+
+    private Pointcut parseAnd() {
+        Pointcut left = parseUnary();
+        while (consume("&&") || consumeWord("and")) {
+            left = new CompositePointcut(CompositePointcut.Operator.AND, left, parseUnary());
+        }
+        return left;
+    }
+
+    private Pointcut parseUnary() {
+        if (consume("!") || consumeWord("not")) {
+            return new CompositePointcut(CompositePointcut.Operator.NOT, parseUnary(), null);
+        }
+        if (consume("(")) {
+            Pointcut result = parseOr();
+            if (!consume(")")) {
+                throw error("Missing ')'");
+            }
+            return result;
+        }
+        if (consumeWord(EXECUTION)) {
+            return new ExecutionPointcut(parseArgument());
+        }
+        if (consumeWord(WITHIN)) {
+            return new WithinPointcut(parseArgument());
+        }
+        if (consumeWord(ANNOTATION)) {
+            return new AnnotationPointcut(parseArgument());
+        }
+        throw error("Expected execution, within or @annotation");
+    }
+
+    /**
+     * 读取括号中的内容，括号可以嵌套
+     */
+    private String parseArgument() {
+        if (!consume("(")) {
+            throw error("Missing '('");
+        }
+        int start = position;
+        int depth = 0;
+        for (; position < expression.length(); position++) {
+            char c = expression.charAt(position);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    return expression.substring(start, position++).trim();
+                }
+                depth--;
+            }
+        }
+        throw error("Missing ')'");
+    }
+
+    private boolean consume(String token) {
+        skipWhitespace();
+        if (expression.startsWith(token, position)) {
+            position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 单词后面不能紧跟字母或数字，例如 order 不是 or
+     */
+    private boolean consumeWord(String word) {
+        skipWhitespace();
+        int end = position + word.length();
+        if (expression.startsWith(word, position)
+                && (end == expression.length() || !Character.isJavaIdentifierPart(expression.charAt(end)))) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in pointcut '" + expression + "'");
+    }
+}
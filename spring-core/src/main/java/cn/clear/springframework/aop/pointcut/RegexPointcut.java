@@ -0,0 +1,54 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.reflect.Method;
+import java.util.regex.Pattern;
+
+/**
+ * 兼容原来的正则风格切点，例如 public .* cn.clear.demo..*..*(.*)，
+ * 表达式中的 .* 是通配符，和方法签名 {@link Method#toString()}（去掉 throws 部分）做正则匹配
+ * 方法只在创建代理时匹配一次，调用时不再匹配
+ */
+final class RegexPointcut implements Pointcut {
+
+    private final Pattern classPattern;
+
+    private final Pattern methodPattern;
+
+    RegexPointcut(String pointCut) {
+        String regex = toRegex(pointCut);
+        int parameters = regex.lastIndexOf("\\(");
+        if (parameters < 4) {
+            throw new IllegalArgumentException("Invalid pointcut '" + pointCut + "'");
+        }
+        String pointCutForClassRegex = regex.substring(0, parameters - 4);
+        this.classPattern = Pattern.compile("class " + pointCutForClassRegex.substring(
+                pointCutForClassRegex.lastIndexOf(" ") + 1));
+        this.methodPattern = Pattern.compile(regex);
+    }
+
+    /**
+     * 把切点表达式转换为匹配方法签名的正则
+     */
+    private static String toRegex(String pointCut) {
+        return pointCut
+                .replaceAll("\\.", "\\\\.")
+                .replaceAll("\\\\.\\*", ".*")
+                .replaceAll("\\(", "\\\\(")
+                .replaceAll("\\)", "\\\\)");
+    }
+
+    @Override
+    public boolean matchesClass(Class<?> targetClass) {
+        return classPattern.matcher(targetClass.toString()).matches();
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        String methodString = method.toString();
+        // 为了能正确匹配这里去除函数签名尾部的throws xxxException
+        if (methodString.contains("throws")) {
+            methodString = methodString.substring(0, methodString.lastIndexOf("throws")).trim();
+        }
+        return methodPattern.matcher(methodString).matches();
+    }
+}
@@ -0,0 +1,84 @@
+package cn.clear.springframework.aop.pointcut;
+
+/**
+ * 类型模式，例如 *、String、java.util.List、cn.clear..*Service、BaseService+、int[]
+ * 不含点号的模式只匹配类的简单名，所以 String 可以匹配 java.lang.String；+ 表示包括子类型
+ */
+final class TypePattern {
+
+    static final TypePattern ANY = new TypePattern("*");
+
+    private final NamePattern namePattern;
+
+    /**
+     * 数组的维数
+     */
+    private final int dimensions;
+
+    private final boolean includeSubtypes;
+
+    /**
+     * 是否只匹配简单名
+     */
+    private final boolean simpleName;
+
+    TypePattern(String pattern) {
+        String text = pattern.trim();
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Empty type pattern");
+        }
+        int dimensions = 0;
+        while (text.endsWith("[]")) {
+            dimensions++;
+            text = text.substring(0, text.length() - 2).trim();
+        }
+        this.includeSubtypes = text.endsWith("+");
+        if (includeSubtypes) {
+            text = text.substring(0, text.length() - 1);
+        }
+        this.dimensions = dimensions;
+        this.simpleName = text.indexOf('.') < 0;
+        this.namePattern = new NamePattern(text);
+    }
+
+    boolean matches(Class<?> type) {
+        if (namePattern.isAny() && dimensions == 0) {
+            return true;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            if (!type.isArray()) {
+                return false;
+            }
+            type = type.getComponentType();
+        }
+        if (type.isArray() && !namePattern.isAny()) {
+            return false;
+        }
+        return includeSubtypes ? matchesHierarchy(type) : matchesName(type);
+    }
+
+    private boolean matchesHierarchy(Class<?> type) {
+        if (type == null) {
+            return false;
+        }
+        if (matchesName(type) || matchesHierarchy(type.getSuperclass())) {
+            return true;
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (matchesHierarchy(anInterface)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesName(Class<?> type) {
+        String name = type.getName();
+        return namePattern.matches(name, simpleName ? name.lastIndexOf('.') + 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return namePattern + (includeSubtypes ? "+" : "");
+    }
+}
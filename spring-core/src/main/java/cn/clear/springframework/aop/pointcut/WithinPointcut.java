@@ -0,0 +1,31 @@
+package cn.clear.springframework.aop.pointcut;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * within(类型模式)：被代理的类符合时，在符合的类型中声明的公开方法都匹配，例如 within(cn.clear.demo..*)
+ * 从不符合的父类（如Object）继承的方法、static和final方法不匹配
+ */
+final class WithinPointcut implements Pointcut {
+
+    private final TypePattern type;
+
+    WithinPointcut(String expression) {
+        this.type = new TypePattern(expression);
+    }
+
+    @Override
+    public boolean matchesClass(Class<?> targetClass) {
+        return type.matches(targetClass);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+            return false;
+        }
+        return type.matches(targetClass) && type.matches(method.getDeclaringClass());
+    }
+}
@@ -0,0 +1,98 @@
+package cn.clear.springframework.aop.support;
+
+import cn.clear.springframework.aop.AopProxyUtils;
+import cn.clear.springframework.aop.intercept.MethodInterceptor;
+import cn.clear.springframework.aop.intercept.MethodInvocation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
+/**
+ * 一个被代理方法的调用信息，创建代理后第一次调用时准备好：拦截器链和绑定了目标对象的方法句柄
+ * 没有通知的方法直接调用目标方法，不经过拦截器链
+ * equals 和 hashCode 不通知，由代理处理：代理等于自己，也等于目标对象相等的其他代理，哈希值为目标对象的哈希值；
+ * 直接交给目标对象时，目标对象收到的参数是代理，代理会不等于自己
+ */
+public class AdvisedMethod {
+
+    static final int INVOKE = 0;
+
+    static final int EQUALS = 1;
+
+    static final int HASH_CODE = 2;
+
+    private final Method method;
+
+    private final Object target;
+
+    private final Class<?> targetClass;
+
+    private final MethodInterceptor[] interceptors;
+
+    /**
+     * (Object[])Object
+     */
+    private final MethodHandle targetHandle;
+
+    /**
+     * 普通方法、equals 或 hashCode
+     */
+    private final int kind;
+
+    AdvisedMethod(Method method, Object target, Class<?> targetClass, MethodInterceptor[] interceptors, MethodHandle targetHandle, int kind) {
+        this.method = method;
+        this.target = target;
+        this.targetClass = targetClass;
+        this.interceptors = interceptors;
+        this.targetHandle = targetHandle;
+        this.kind = kind;
+    }
+
+    /**
+     * @return 是否有通知
+     */
+    public boolean isAdvised() {
+        return interceptors.length > 0;
+    }
+
+    /**
+     * @return 代理中是否需要调用 {@link #invoke}：有通知，或者是由代理处理的 equals、hashCode
+     */
+    public boolean requiresDispatch() {
+        return kind != INVOKE || interceptors.length > 0;
+    }
+
+    /**
+     * 调用方法，目标方法抛出的异常原样抛出
+     */
+    public Object invoke(Object proxy, Object[] args) throws Throwable {
+        if (kind != INVOKE) {
+            return kind == EQUALS ? proxyEquals(proxy, args[0]) : target.hashCode();
+        }
+        if (interceptors.length == 0) {
+            return (Object) targetHandle.invokeExact(args);
+        }
+        return MethodInvocation.invoke(proxy, target, method, args, targetClass, interceptors, targetHandle);
+    }
+
+    private boolean proxyEquals(Object proxy, Object other) {
+        if (other == proxy) {
+            return true;
+        }
+        Object otherTarget = AopProxyUtils.getTarget(other);
+        return otherTarget != null && (otherTarget == target || target.equals(otherTarget));
+    }
+
+    /**
+     * @return equals(Object) 返回 {@link #EQUALS}，hashCode() 返回 {@link #HASH_CODE}，其他方法返回 {@link #INVOKE}
+     */
+    static int kindOf(Method method) {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1 && method.getParameterTypes()[0] == Object.class) {
+            return EQUALS;
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return HASH_CODE;
+        }
+        return INVOKE;
+    }
+}
@@ -1,23 +1,22 @@
 package cn.clear.springframework.aop.support;
 
-import cn.clear.springframework.aop.aspect.AfterReturningAdviceInterceptor;
-import cn.clear.springframework.aop.aspect.AfterThrowingAdviceInterceptor;
-import cn.clear.springframework.aop.aspect.MethodBeforeAdviceInterceptor;
-import cn.clear.springframework.aop.config.AopConfig;
-import cn.clear.springframework.util.StringUtil;
+import cn.clear.springframework.aop.intercept.MethodInterceptor;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class AdvisedSupport {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+
     /**
      * 被代理的类class
      */
@@ -28,128 +27,88 @@ public class AdvisedSupport {
      * 被代理的对象实例
      */
     @Getter
-    @Setter
     private Object target;
 
     /**
-     * 被代理的方法对应的拦截器集合
+     * 被代理的方法对应的拦截器集合，同一个类的代理共用
      */
-    private Map<Method, List<Object>> methodCache;
+    private Map<Method, MethodInterceptor[]> methodCache;
 
     /**
-     * AOP外部配置
+     * 代理调用的方法和准备好的调用信息，按 Method 对象的引用查找；
+     * JDK代理和子类代理每次传入的都是同一个 Method 对象，只有第一次调用时需要解析，写入时复制
      */
-    private AopConfig config;
+    private volatile Map<Method, AdvisedMethod> advisedMethods = new IdentityHashMap<>();
 
     /**
-     * 切点正则表达式
+     * 容器中编译好的切面
      */
-    private Pattern pointCutClassPattern;
+    private final AspectAdvisor advisor;
 
-    public AdvisedSupport(AopConfig config) {
-        this.config = config;
+    public AdvisedSupport(AspectAdvisor advisor) {
+        this.advisor = advisor;
     }
 
     /**
-     * 获取拦截器
+     * 获取拦截器，没有通知时返回空数组
+     * @param method 被代理类的方法，或者接口中声明的方法
      */
-    public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, Class<?> targetClass) throws Exception {
-        List<Object> cached = methodCache.get(method);
-        if (cached == null) {
-            Method m = targetClass.getMethod(method.getName(), method.getParameterTypes());
-            cached = methodCache.get(m);
-            this.methodCache.put(m, cached);
+    public MethodInterceptor[] getInterceptors(Method method) throws Exception {
+        MethodInterceptor[] cached = methodCache.get(method);
+        if (cached == null && method.getDeclaringClass().isInterface()) {
+            cached = methodCache.get(targetClass.getMethod(method.getName(), method.getParameterTypes()));
         }
-
-        return cached;
-    }
-
-    public void setTargetClass(Class<?> targetClass) {
-        this.targetClass = targetClass;
-        parse();
+        return cached == null ? NO_INTERCEPTORS : cached;
     }
 
     /**
-     * 解析AOP配置，创建拦截器
+     * 获取方法的调用信息，每个 Method 对象只准备一次
      */
-    private void parse() {
-        //编译切点表达式为正则
-        String pointCut = config.getPointCut()
-                .replaceAll("\\.", "\\\\.")
-                .replaceAll("\\\\.\\*", ".*")
-                .replaceAll("\\(", "\\\\(")
-                .replaceAll("\\)", "\\\\)");
-        String pointCutForClassRegex = pointCut.substring(0, pointCut.lastIndexOf("\\(") - 4);
-        pointCutClassPattern = Pattern.compile("class " + pointCutForClassRegex.substring(
-                pointCutForClassRegex.lastIndexOf(" ") + 1));
-
-        try {
-            // 保存切面的所有通知方法
-            Map<String, Method> aspectMethods = new HashMap<>();
-            // 获取切面类信息
-            Class<?> aspectClass = Class.forName(this.config.getAspectClass());
-            // 遍历切面类方法
-            for (Method m : aspectClass.getMethods()) {
-                aspectMethods.put(m.getName(), m);
-            }
-
-            // 遍历被代理类的所有方法，为符合切点表达式的方法创建拦截器
-            methodCache = new HashMap<>();
-            Pattern pattern = Pattern.compile(pointCut);
-            for (Method m : this.targetClass.getMethods()) {
-                String methodString = m.toString();
-                // 为了能正确匹配这里去除函数签名尾部的throws xxxException
-                if (methodString.contains("throws")) {
-                    methodString = methodString.substring(0, methodString.lastIndexOf("throws")).trim();
-                }
-
-                Matcher matcher = pattern.matcher(methodString);
-                if (matcher.matches()) {
-                    // 执行器链
-                    List<Object> advices = new LinkedList<>();
-
-                    // 创建前置拦截器
-                    if (config.getAspectBefore() != null && !config.getAspectBefore().isEmpty()) {
-                        // 创建一个Advice
-                        MethodBeforeAdviceInterceptor beforeAdvice = new MethodBeforeAdviceInterceptor(
-                                aspectMethods.get(config.getAspectBefore()),
-                                aspectClass.newInstance()
-                        );
-                        advices.add(beforeAdvice);
-                    }
-                    // 创建后置拦截器
-                    if (config.getAspectAfter() != null && !config.getAspectAfter().isEmpty()) {
-                        AfterReturningAdviceInterceptor returningAdvice = new AfterReturningAdviceInterceptor(
-                                aspectMethods.get(config.getAspectAfter()),
-                                aspectClass.newInstance()
-                        );
-                        advices.add(returningAdvice);
-                    }
-                    // 创建异常拦截器
-                    if (config.getAspectAfterThrow() != null && !config.getAspectAfterThrow().isEmpty()) {
-                        AfterThrowingAdviceInterceptor throwingAdvice = new AfterThrowingAdviceInterceptor(
-                                aspectMethods.get(config.getAspectAfterThrow()),
-                                aspectClass.newInstance()
-                        );
-                        throwingAdvice.setThrowName(config.getAspectAfterThrowingName());
-                        advices.add(throwingAdvice);
-                    }
-
-                    // 保存被代理方法和执行器链的对应关系
-                    methodCache.put(m, advices);
-                }
+    public AdvisedMethod getAdvisedMethod(Method method) throws Exception {
+        AdvisedMethod advisedMethod = advisedMethods.get(method);
+        if (advisedMethod != null) {
+            return advisedMethod;
+        }
+        synchronized (this) {
+            advisedMethod = advisedMethods.get(method);
+            if (advisedMethod == null) {
+                advisedMethod = createAdvisedMethod(method);
+                Map<Method, AdvisedMethod> copy = new IdentityHashMap<>(advisedMethods);
+                copy.put(method, advisedMethod);
+                advisedMethods = copy;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            return advisedMethod;
         }
+    }
 
+    private AdvisedMethod createAdvisedMethod(Method method) throws Exception {
+        // 接口中的方法找到实现类中的方法，包级私有的类中的方法需要设置访问权限
+        Method targetMethod = method.getDeclaringClass().isAssignableFrom(targetClass) && !method.getDeclaringClass().isInterface()
+                ? method : targetClass.getMethod(method.getName(), method.getParameterTypes());
+        if (!Modifier.isPublic(targetMethod.getDeclaringClass().getModifiers())) {
+            targetMethod.setAccessible(true);
+        }
+        // (Object[])Object：target.method(args...)
+        MethodHandle handle = LOOKUP.unreflect(targetMethod)
+                .bindTo(target)
+                .asSpreader(Object[].class, targetMethod.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        int kind = AdvisedMethod.kindOf(method);
+        MethodInterceptor[] interceptors = kind == AdvisedMethod.INVOKE ? getInterceptors(targetMethod) : NO_INTERCEPTORS;
+        return new AdvisedMethod(method, target, targetClass, interceptors, handle, kind);
     }
-    
-    
+
     /**
-     * 判断一个类是否需要被代理 
+     * 设置被代理的类，从切面中取出该类的拦截器，不再重复解析切面
      */
-    public boolean pointCutMatch() {
-        return pointCutClassPattern.matcher(this.targetClass.toString()).matches();
+    public void setTargetClass(Class<?> targetClass) throws Exception {
+        this.targetClass = targetClass;
+        this.methodCache = advisor.getMethodInterceptors(targetClass);
+        this.advisedMethods = new IdentityHashMap<>();
+    }
+
+    public void setTarget(Object target) {
+        this.target = target;
+        this.advisedMethods = new IdentityHashMap<>();
     }
 }
@@ -0,0 +1,207 @@
+package cn.clear.springframework.aop.support;
+
+import cn.clear.springframework.aop.aspect.AfterReturningAdviceInterceptor;
+import cn.clear.springframework.aop.aspect.AfterThrowingAdviceInterceptor;
+import cn.clear.springframework.aop.aspect.AroundAdviceInterceptor;
+import cn.clear.springframework.aop.aspect.MethodBeforeAdviceInterceptor;
+import cn.clear.springframework.aop.config.AopConfig;
+import cn.clear.springframework.aop.intercept.MethodInterceptor;
+import cn.clear.springframework.aop.metrics.MethodMetrics;
+import cn.clear.springframework.aop.pointcut.Pointcut;
+import cn.clear.springframework.aop.pointcut.PointcutParser;
+import cn.clear.springframework.core.factory.BeanFactory;
+import cn.clear.springframework.util.StringUtil;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 一个容器中编译好的切面：切点表达式、切面类和通知方法只解析一次，所有被代理的bean共用
+ * 切面实例是单例，切面类在容器中声明为组件时使用容器中的bean，否则只创建一个实例
+ * 每个类只匹配一次方法：先用切点做类级别的预过滤，通过的类再逐个匹配公开方法
+ * 拦截器链是数组，所有匹配的方法共用，调用时不能修改；启用方法耗时统计时，每个方法的链最前面是它自己的计时拦截器
+ * 只统计耗时、不配置切面类时，链中只有计时拦截器
+ */
+public class AspectAdvisor {
+
+    private final AopConfig config;
+
+    /**
+     * 获取切面bean的容器
+     */
+    private final BeanFactory beanFactory;
+
+    /**
+     * 解析好的切点
+     */
+    private final Pointcut pointcut;
+
+    /**
+     * 每个类中符合切点的方法，没有时为空数组
+     */
+    private final Map<Class<?>, Method[]> matchedMethods = new ConcurrentHashMap<>();
+
+    /**
+     * 切面的拦截器链，第一次使用时创建，所有匹配的方法共用
+     */
+    private volatile MethodInterceptor[] interceptors;
+
+    /**
+     * 每个被代理类的方法和拦截器链的对应关系
+     */
+    private final Map<Class<?>, Map<Method, MethodInterceptor[]>> methodInterceptors = new ConcurrentHashMap<>();
+
+    /**
+     * 方法耗时统计，没有启用时为null
+     */
+    private final MethodMetrics methodMetrics;
+
+    /**
+     * @param config AOP配置
+     * @param beanFactory 获取切面bean的容器
+     */
+    public AspectAdvisor(AopConfig config, BeanFactory beanFactory) {
+        this.config = config;
+        this.beanFactory = beanFactory;
+        this.pointcut = PointcutParser.parse(config.getPointCut());
+        this.methodMetrics = config.isMetrics() ? new MethodMetrics(config.getMetricsSampleInterval()) : null;
+    }
+
+    /**
+     * @return 方法耗时统计，没有启用时为null
+     */
+    public MethodMetrics getMethodMetrics() {
+        return methodMetrics;
+    }
+
+    /**
+     * 判断一个类是否需要被代理：至少有一个方法符合切点，切面类本身不代理
+     */
+    public boolean matches(Class<?> targetClass) {
+        return !targetClass.getName().equals(config.getAspectClass()) && getMatchedMethods(targetClass).length > 0;
+    }
+
+    private Method[] getMatchedMethods(Class<?> targetClass) {
+        Method[] result = matchedMethods.get(targetClass);
+        if (result == null) {
+            List<Method> methods = new ArrayList<>();
+            if (pointcut.matchesClass(targetClass)) {
+                for (Method m : targetClass.getMethods()) {
+                    // static和final方法代理拦截不到，不能因为它们创建代理
+                    int modifiers = m.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                        continue;
+                    }
+                    if (pointcut.matches(m, targetClass)) {
+                        methods.add(m);
+                    }
+                }
+            }
+            result = methods.toArray(new Method[0]);
+            matchedMethods.put(targetClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * 获取类中符合切点的方法和它们的拦截器链，每个类只计算一次
+     */
+    public Map<Method, MethodInterceptor[]> getMethodInterceptors(Class<?> targetClass) throws Exception {
+        Map<Method, MethodInterceptor[]> result = methodInterceptors.get(targetClass);
+        if (result == null) {
+            MethodInterceptor[] chain = getInterceptors();
+            Map<Method, MethodInterceptor[]> methods = new HashMap<>();
+            for (Method m : getMatchedMethods(targetClass)) {
+                methods.put(m, methodMetrics == null ? chain : withTiming(targetClass, m, chain));
+            }
+            result = Collections.unmodifiableMap(methods);
+            methodInterceptors.put(targetClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * 热刷新后删除被替换的类匹配的方法和拦截器链
+     * @param classes 判断一个类是否已经被替换
+     */
+    public void evictClasses(Predicate<Class<?>> classes) {
+        matchedMethods.keySet().removeIf(classes);
+        methodInterceptors.keySet().removeIf(classes);
+    }
+
+    /**
+     * 在链的最前面加上方法的计时拦截器，耗时包含所有通知
+     */
+    private MethodInterceptor[] withTiming(Class<?> targetClass, Method method, MethodInterceptor[] chain) {
+        MethodInterceptor[] result = new MethodInterceptor[chain.length + 1];
+        result[0] = methodMetrics.createInterceptor(targetClass, method);
+        System.arraycopy(chain, 0, result, 1, chain.length);
+        return result;
+    }
+
+    /**
+     * 创建切面的拦截器链
+     */
+    private MethodInterceptor[] getInterceptors() throws Exception {
+        MethodInterceptor[] result = interceptors;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            if (interceptors != null) {
+                return interceptors;
+            }
+            if (StringUtil.isEmpty(config.getAspectClass())) {
+                interceptors = new MethodInterceptor[0];
+                return interceptors;
+            }
+            Class<?> aspectClass = Class.forName(config.getAspectClass());
+            Object aspect = getAspectInstance(aspectClass);
+            // 保存切面的所有通知方法
+            Map<String, Method> aspectMethods = new HashMap<>();
+            for (Method m : aspectClass.getMethods()) {
+                aspectMethods.put(m.getName(), m);
+            }
+
+            List<MethodInterceptor> advices = new ArrayList<>();
+            // 创建环绕拦截器，放在最前面，包住其他通知
+            if (!StringUtil.isEmpty(config.getAspectAround())) {
+                advices.add(new AroundAdviceInterceptor(aspectMethods.get(config.getAspectAround()), aspect));
+            }
+            // 创建前置拦截器
+            if (!StringUtil.isEmpty(config.getAspectBefore())) {
+                advices.add(new MethodBeforeAdviceInterceptor(aspectMethods.get(config.getAspectBefore()), aspect));
+            }
+            // 创建后置拦截器
+            if (!StringUtil.isEmpty(config.getAspectAfter())) {
+                advices.add(new AfterReturningAdviceInterceptor(aspectMethods.get(config.getAspectAfter()), aspect));
+            }
+            // 创建异常拦截器
+            if (!StringUtil.isEmpty(config.getAspectAfterThrow())) {
+                AfterThrowingAdviceInterceptor throwingAdvice = new AfterThrowingAdviceInterceptor(
+                        aspectMethods.get(config.getAspectAfterThrow()), aspect);
+                throwingAdvice.setThrowName(config.getAspectAfterThrowingName());
+                advices.add(throwingAdvice);
+            }
+            interceptors = advices.toArray(new MethodInterceptor[0]);
+            return interceptors;
+        }
+    }
+
+    /**
+     * 切面类是容器中的bean时使用容器中的实例，否则创建一个
+     */
+    private Object getAspectInstance(Class<?> aspectClass) throws Exception {
+        if (beanFactory != null && beanFactory.containsBean(aspectClass.getName())) {
+            return beanFactory.getBean(aspectClass);
+        }
+        return aspectClass.newInstance();
+    }
+}
@@ -13,6 +13,15 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BeanDefinition {
+    /**
+     * 单例，容器中只有一个实例
+     */
+    public static final String SCOPE_SINGLETON = "singleton";
+    /**
+     * 原型，每次获取都创建新的实例
+     */
+    public static final String SCOPE_PROTOTYPE = "prototype";
+
     /**
      * 类名
      */
@@ -25,9 +34,21 @@ public class BeanDefinition {
      * 工厂bean名
      */
     private String factoryBeanName;
+    /**
+     * 作用域，默认单例
+     */
+    private String scope = SCOPE_SINGLETON;
     
     public BeanDefinition(String beanClassName, String factoryBeanName) {
         this.beanClassName = beanClassName;
         this.factoryBeanName = factoryBeanName;
     }
+
+    public boolean isSingleton() {
+        return SCOPE_SINGLETON.equals(scope);
+    }
+
+    public boolean isPrototype() {
+        return SCOPE_PROTOTYPE.equals(scope);
+    }
 }
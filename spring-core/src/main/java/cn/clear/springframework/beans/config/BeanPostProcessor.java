@@ -0,0 +1,49 @@
+package cn.clear.springframework.beans.config;
+
+import java.util.function.Predicate;
+
+/**
+ * bean的后置处理器，在依赖注入完成之后处理bean，例如生成AOP代理、包装监控
+ * 容器按bean的类缓存适用的处理器链，创建bean时只调用适用的处理器；返回null时保留原来的对象
+ * 可以通过 {@code addBeanPostProcessor} 注册，也可以声明为组件，由容器在预实例化之前找到
+ */
+public interface BeanPostProcessor {
+
+    /**
+     * 是否处理该类的bean，同一个类只判断一次
+     * @param beanClass bean的原始类
+     */
+    default boolean supports(Class<?> beanClass) {
+        return true;
+    }
+
+    /**
+     * 单例在依赖注入完成之前被循环依赖获取时调用，返回提前暴露的引用，例如AOP代理
+     * 提前返回了包装对象的处理器，在 {@link #postProcessAfterInitialization} 中应该返回原来的对象，
+     * 容器会把提前暴露的引用作为最终的对象；最终对象和提前暴露的引用不一致时容器报错
+     */
+    default Object getEarlyBeanReference(Object bean, String beanName) throws Exception {
+        return bean;
+    }
+
+    /**
+     * 依赖注入之后、初始化之前调用
+     */
+    default Object postProcessBeforeInitialization(Object bean, String beanName) throws Exception {
+        return bean;
+    }
+
+    /**
+     * 初始化之后调用，返回值会替换原来的对象放入容器
+     */
+    default Object postProcessAfterInitialization(Object bean, String beanName) throws Exception {
+        return bean;
+    }
+
+    /**
+     * 热刷新替换或丢弃一代类时调用，按类缓存信息的处理器应该删除这些类的缓存，否则旧的类加载器无法回收
+     * @param classes 判断一个类是否已经被替换
+     */
+    default void evictClasses(Predicate<Class<?>> classes) {
+    }
+}
@@ -0,0 +1,9 @@
+package cn.clear.springframework.beans.config;
+
+/**
+ * 按需创建对象的工厂，作用域在需要新实例时调用
+ */
+public interface ObjectFactory<T> {
+
+    T getObject() throws Exception;
+}
@@ -0,0 +1,21 @@
+package cn.clear.springframework.beans.config;
+
+/**
+ * bean的作用域，决定实例存放在哪里、什么时候重新创建
+ * 单例和原型由容器直接处理，其他作用域通过 {@code registerScope} 注册到容器
+ */
+public interface Scope {
+
+    /**
+     * 从作用域中获取实例，不存在时通过objectFactory创建并保存
+     * @param name bean名称
+     * @param objectFactory 创建实例的工厂
+     */
+    Object get(String name, ObjectFactory<?> objectFactory) throws Exception;
+
+    /**
+     * 从作用域中移除实例
+     * @return 被移除的实例，不存在返回null
+     */
+    Object remove(String name);
+}
@@ -1,14 +1,22 @@
 package cn.clear.springframework.beans.support;
 
 import cn.clear.springframework.annotation.Component;
+import cn.clear.springframework.annotation.Scope;
 import cn.clear.springframework.beans.config.BeanDefinition;
+import cn.clear.springframework.context.index.CandidateComponentsIndex;
+import cn.clear.springframework.context.index.CandidateComponentsIndexLoader;
+import cn.clear.springframework.core.env.Environment;
+import cn.clear.springframework.core.io.ClassPathScanner;
+import cn.clear.springframework.core.type.classreading.AnnotationAttributes;
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
+import cn.clear.springframework.core.type.classreading.MetadataReaderFactory;
+import cn.clear.springframework.util.StringUtil;
 import lombok.Getter;
 
-import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.annotation.Annotation;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 
@@ -29,8 +37,32 @@ public class BeanDefinitionReader {
      * 存储扫描到的类的className
      */
     private List<String> registyBeanClasses = new ArrayList<>();
+    /**
+     * 是否已经找过候选类
+     */
+    private boolean candidatesLoaded;
+    /**
+     * 字节码元信息读取
+     */
+    @Getter
+    private final MetadataReaderFactory metadataReaderFactory;
+    /**
+     * 条件注解的判断，属性从配置环境中读取
+     */
+    @Getter
+    private final ConditionEvaluator conditionEvaluator;
     
     public BeanDefinitionReader(String... locations) {
+        this(new MetadataReaderFactory(BeanDefinitionReader.class.getClassLoader()), new Environment(), locations);
+    }
+
+    /**
+     * @param metadataReaderFactory 与容器共用的字节码元信息读取，同一个类只解析一次
+     * @param environment 容器的配置环境，配置文件添加到最后，优先级低于系统属性和环境变量
+     * @param locations 配置文件路径
+     */
+    public BeanDefinitionReader(MetadataReaderFactory metadataReaderFactory, Environment environment, String... locations) {
+        this.metadataReaderFactory = metadataReaderFactory;
         try {
             // 找到配置文件，转换为文件流
             InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream(locations[0].replace("classpath:", ""));
@@ -40,62 +72,93 @@ public class BeanDefinitionReader {
         } catch (Exception e) {
             e.printStackTrace();
         }
-        
-        // 扫描
-        doScanner(config.getProperty(SCAN_PACKAGE));
+        environment.addLast(locations[0], config);
+        this.conditionEvaluator = new ConditionEvaluator(environment, this.getClass().getClassLoader());
+    }
+
+    /**
+     * 找到扫描包下所有的候选类，只执行一次；没有调用时由 {@link #loadBeanDefinitions()} 调用
+     */
+    public void loadCandidates() {
+        if (candidatesLoaded) {
+            return;
+        }
+        candidatesLoaded = true;
+        String scanPackage = getScanPackage();
+        // 优先使用编译期生成的组件索引，没有索引时再扫描类路径
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(this.getClass().getClassLoader());
+        if (index != null) {
+            registyBeanClasses.addAll(index.getCandidateTypes(scanPackage, Component.class.getName()));
+        } else {
+            doScanner(scanPackage);
+        }
     }
     
+    /**
+     * @return 配置文件中的扫描包
+     */
+    public String getScanPackage() {
+        return config.getProperty(SCAN_PACKAGE);
+    }
+
+    /**
+     * 扫描包下所有的类，支持目录和jar包
+     */
     private void doScanner(String scanPackage) {
-        URL url = this.getClass().getClassLoader().getResource(scanPackage.replaceAll("\\.", "/"));
-        File listFile = new File(url.getFile());
-        for (File file : listFile.listFiles()) {
-            if (file.isDirectory()) {
-                // 递归扫描
-                doScanner(scanPackage + "." + file.getName());
-            } else {
-                if (!file.getName().endsWith(".class")) {
-                    continue;
-                }
-                String className = (scanPackage + "." + file.getName().replace(".class", ""));
-                registyBeanClasses.add(className);
-            }
+        try {
+            registyBeanClasses.addAll(new ClassPathScanner(this.getClass().getClassLoader()).scan(scanPackage));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
     /**
      * 加载 bean 定义。
+     * 直接读取类的字节码判断是否为组件，不会加载和初始化扫描到的类，类的加载推迟到bean被实例化时
      *
      * @return 包含所有bean定义的列表。
      */
     public List<BeanDefinition> loadBeanDefinitions() {
+        loadCandidates();
+        return loadBeanDefinitions(registyBeanClasses);
+    }
+
+    /**
+     * 加载指定类的bean定义，不是组件的类忽略
+     * @param classNames 全类名
+     * @return 包含所有bean定义的列表。
+     */
+    public List<BeanDefinition> loadBeanDefinitions(Collection<String> classNames) {
         ArrayList<BeanDefinition> result = new ArrayList<>();
         try {
-            for (String className : registyBeanClasses) {
-                Class<?> beanClass = Class.forName(className);
-                // 如果是接口，不能实例化，不封装
-                if (beanClass.isInterface()) {
+            for (String className : classNames) {
+                ClassMetadata metadata = metadataReaderFactory.getMetadata(className);
+                // 如果是接口或抽象类，不能实例化，不封装
+                if (metadata == null || !metadata.isConcrete()) {
                     continue;
                 }
 
-                // 获取该类上的所有注解
-                Annotation[] annotations = beanClass.getAnnotations();
-
-                // 遍历注解
-                for (Annotation annotation : annotations) {
-                    // 获取注解类型
-                    Class<? extends Annotation> annotationType = annotation.annotationType();
-                    // 暂时只处理 @Component 注解的类
-                    if (annotationType.isAnnotationPresent(Component.class)) {
-                        result.add(doCreateBeanDefinition(toLowerFirstCase(beanClass.getSimpleName()), beanClass.getName()));
-
-                        // 获取该类实现的所有接口
-                        Class<?>[] interfaces = beanClass.getInterfaces();
-                        // 封装实现类与接口之间的关系
-                        for (Class<?> anInterface : interfaces) {
-                            result.add(doCreateBeanDefinition(anInterface.getName(), beanClass.getName()));
-                        }
-                        break;
-                    }
+                // 只处理 @Component 以及被 @Component 标注的注解（@Service、@Controller等）所标注的类
+                AnnotationAttributes component = metadataReaderFactory.findAnnotation(metadata, Component.class.getName());
+                if (component == null) {
+                    continue;
+                }
+
+                // 条件不满足的类不生成BeanDefinition，也就不会被创建和代理
+                if (conditionEvaluator.shouldSkip(metadata)) {
+                    continue;
+                }
+
+                String beanName = component.getString("value");
+                if (StringUtil.isEmpty(beanName)) {
+                    beanName = toLowerFirstCase(metadata.getSimpleName());
+                }
+                String scope = resolveScope(metadata);
+                result.add(doCreateBeanDefinition(beanName, metadata.getClassName(), scope));
+
+                // 封装实现类与接口之间的关系
+                for (String interfaceName : metadata.getInterfaceNames()) {
+                    result.add(doCreateBeanDefinition(interfaceName, metadata.getClassName(), scope));
                 }
             }
         } catch (Exception e) {
@@ -110,15 +173,26 @@ public class BeanDefinitionReader {
      * 封装成BeanDefinition
      * @param factoryBeanName 工厂Bean名称
      * @param beanClassName bean Class名称
+     * @param scope 作用域
      * @return 封装好的BeanDefinition对象
      */
-    private BeanDefinition doCreateBeanDefinition(String factoryBeanName, String beanClassName) {
+    private BeanDefinition doCreateBeanDefinition(String factoryBeanName, String beanClassName, String scope) {
         BeanDefinition beanDefinition = new BeanDefinition();
         beanDefinition.setFactoryBeanName(factoryBeanName);
         beanDefinition.setBeanClassName(beanClassName);
+        beanDefinition.setScope(scope);
         return beanDefinition;
     }
 
+    /**
+     * 读取类上的 @Scope，没有设定时为单例
+     */
+    public static String resolveScope(ClassMetadata metadata) {
+        AnnotationAttributes scope = metadata.getAnnotationAttributes(Scope.class.getName());
+        String value = scope == null ? null : scope.getString("value");
+        return StringUtil.isEmpty(value) ? BeanDefinition.SCOPE_SINGLETON : value.trim();
+    }
+
     /**
      * 将类名的第一个字母转消协
      * @param simpleName 类名
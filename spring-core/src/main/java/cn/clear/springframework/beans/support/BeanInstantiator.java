@@ -0,0 +1,35 @@
+package cn.clear.springframework.beans.support;
+
+/**
+ * 编译期生成的bean实例化和依赖注入代码，直接调用构造方法、直接给属性赋值和调用方法，不使用反射
+ * 依赖按下标传入：构造方法的参数在前，之后依次是属性和方法参数，和 {@link #getDependencyTypes()} 的顺序一致
+ */
+public interface BeanInstantiator {
+
+    /**
+     * @return 所有注入点的类型
+     */
+    Class<?>[] getDependencyTypes();
+
+    /**
+     * @return 所有注入点 @Autowired 指定的名称，没有指定为空字符串
+     */
+    String[] getDependencyQualifiers();
+
+    /**
+     * @return 构造方法的参数个数，即前几个注入点属于构造方法
+     */
+    int getConstructorDependencyCount();
+
+    /**
+     * 调用构造方法创建实例
+     * @param dependencies 构造方法的参数
+     */
+    Object instantiate(Object[] dependencies) throws Exception;
+
+    /**
+     * 注入属性和方法，父类的在前
+     * @param dependencies 属性和方法参数，不包括构造方法的参数
+     */
+    void inject(Object instance, Object[] dependencies) throws Exception;
+}
@@ -0,0 +1,43 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.core.factory.BeanFactory;
+
+/**
+ * bean的引用，保存bean在 {@link SingletonRegistry} 中的编号
+ * 单例创建之后，获取bean只需要按编号读取数组；还没有创建或者不是单例时交给容器处理
+ */
+public final class BeanRef {
+
+    private final SingletonRegistry registry;
+
+    private final BeanFactory beanFactory;
+
+    private final int id;
+
+    private final String beanName;
+
+    public BeanRef(SingletonRegistry registry, BeanFactory beanFactory, int id) {
+        this.registry = registry;
+        this.beanFactory = beanFactory;
+        this.id = id;
+        this.beanName = registry.getBeanName(id);
+    }
+
+    public Object getBean() throws Exception {
+        Object singleton = registry.getSingleton(id);
+        return singleton != null ? singleton : beanFactory.getBean(beanName);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanRef(" + beanName + "#" + id + ")";
+    }
+}
@@ -0,0 +1,178 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
+import cn.clear.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * bean的类型索引和注解索引，在注册BeanDefinition时建立
+ * 类型索引：类本身、所有父类和所有接口 -> bean名称；注解索引：类上的注解及其元注解 -> bean名称
+ * 索引通过字节码元信息建立，不会加载bean的类
+ */
+public class BeanTypeIndex {
+
+    private static final String OBJECT = Object.class.getName();
+
+    private final MetadataReaderFactory metadataReaderFactory;
+
+    /**
+     * key：类型全类名，value：bean名称
+     */
+    private final Map<String, Set<String>> beanNamesByType = new ConcurrentHashMap<>();
+
+    /**
+     * key：注解全类名，value：bean名称
+     */
+    private final Map<String, Set<String>> beanNamesByAnnotation = new ConcurrentHashMap<>();
+
+    /**
+     * key：bean名称，value：[类型名称数组, 注解名称数组]
+     */
+    private final Map<String, String[][]> typesByBeanName = new ConcurrentHashMap<>();
+
+    /**
+     * 所有注册过的bean名称，用于 Object 类型的查找
+     */
+    private final Set<String> allBeanNames = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    public BeanTypeIndex(MetadataReaderFactory metadataReaderFactory) {
+        this.metadataReaderFactory = metadataReaderFactory;
+    }
+
+    /**
+     * 登记一个bean
+     * @param beanName bean名称
+     * @param className bean的类名
+     */
+    public void register(String beanName, String className) {
+        Set<String> visitedTypes = new LinkedHashSet<>();
+        Set<String> annotations = new LinkedHashSet<>();
+        Deque<String> types = new ArrayDeque<>();
+        types.add(className);
+        while (!types.isEmpty()) {
+            String type = types.poll();
+            if (type == null || OBJECT.equals(type) || !visitedTypes.add(type)) {
+                continue;
+            }
+
+            ClassMetadata metadata = metadataReaderFactory.getMetadata(type);
+            if (metadata == null) {
+                continue;
+            }
+            if (type.equals(className)) {
+                collectAnnotations(metadata, annotations);
+            }
+            if (metadata.getSuperClassName() != null) {
+                types.add(metadata.getSuperClassName());
+            }
+            Collections.addAll(types, metadata.getInterfaceNames());
+        }
+        register(beanName, visitedTypes.toArray(new String[0]), annotations.toArray(new String[0]));
+    }
+
+    /**
+     * 使用已经解析好的类型和注解登记一个bean，例如从启动快照中恢复
+     * @param beanName bean名称
+     * @param typeNames 类本身、所有父类和所有接口
+     * @param annotationNames 类上的注解及其元注解
+     */
+    public void register(String beanName, String[] typeNames, String[] annotationNames) {
+        allBeanNames.add(beanName);
+        typesByBeanName.put(beanName, new String[][]{typeNames, annotationNames});
+        for (String typeName : typeNames) {
+            add(beanNamesByType, typeName, beanName);
+        }
+        for (String annotationName : annotationNames) {
+            add(beanNamesByAnnotation, annotationName, beanName);
+        }
+    }
+
+    /**
+     * 移除一个bean的登记，类变化后重新登记之前调用
+     */
+    public void remove(String beanName) {
+        String[][] types = typesByBeanName.remove(beanName);
+        allBeanNames.remove(beanName);
+        if (types == null) {
+            return;
+        }
+        for (String typeName : types[0]) {
+            remove(beanNamesByType, typeName, beanName);
+        }
+        for (String annotationName : types[1]) {
+            remove(beanNamesByAnnotation, annotationName, beanName);
+        }
+    }
+
+    /**
+     * 收集类上的注解，以及注解上的元注解
+     */
+    private void collectAnnotations(ClassMetadata metadata, Set<String> visited) {
+        Deque<String> annotations = new ArrayDeque<>(metadata.getAnnotations().keySet());
+        while (!annotations.isEmpty()) {
+            String annotation = annotations.poll();
+            if (!visited.add(annotation)) {
+                continue;
+            }
+            // JDK的元注解（@Documented、@Retention等）不再往下找
+            if (annotation.startsWith("java.")) {
+                continue;
+            }
+            ClassMetadata annotationMetadata = metadataReaderFactory.getMetadata(annotation);
+            if (annotationMetadata != null) {
+                annotations.addAll(annotationMetadata.getAnnotations().keySet());
+            }
+        }
+    }
+
+    /**
+     * @return bean登记的[类型名称数组, 注解名称数组]，没有登记返回null
+     */
+    public String[][] getTypes(String beanName) {
+        return typesByBeanName.get(beanName);
+    }
+
+    private static void add(Map<String, Set<String>> index, String key, String beanName) {
+        index.computeIfAbsent(key, k -> Collections.synchronizedSet(new LinkedHashSet<>())).add(beanName);
+    }
+
+    private static void remove(Map<String, Set<String>> index, String key, String beanName) {
+        Set<String> beanNames = index.get(key);
+        if (beanNames != null) {
+            beanNames.remove(beanName);
+        }
+    }
+
+    /**
+     * 获取类型匹配的bean名称
+     */
+    public String[] getBeanNamesForType(String typeName) {
+        if (OBJECT.equals(typeName)) {
+            return toArray(allBeanNames);
+        }
+        return toArray(beanNamesByType.get(typeName));
+    }
+
+    /**
+     * 获取标注了该注解的bean名称
+     */
+    public String[] getBeanNamesForAnnotation(String annotationType) {
+        return toArray(beanNamesByAnnotation.get(annotationType));
+    }
+
+    private static String[] toArray(Set<String> names) {
+        if (names == null) {
+            return new String[0];
+        }
+        synchronized (names) {
+            return names.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.annotation.ConditionalOnClass;
+import cn.clear.springframework.annotation.ConditionalOnProperty;
+import cn.clear.springframework.annotation.Profile;
+import cn.clear.springframework.core.env.Environment;
+import cn.clear.springframework.core.type.classreading.AnnotationAttributes;
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
+import cn.clear.springframework.util.StringUtil;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 根据类上的条件注解判断是否注册bean，在生成BeanDefinition之前执行
+ * 只读取字节码中的注解属性，不会加载bean的类；多个条件同时满足才注册
+ * 属性和激活的profile都从容器的配置环境中读取，和 @Value 一样包括系统属性、环境变量，并解析 ${...} 占位符
+ * 判断时读取过的属性和查找过的类都会记录下来，启动快照用它们判断条件的结果是否可能已经变化
+ */
+public class ConditionEvaluator {
+
+    /**
+     * 激活的profile，逗号分隔；和其他属性一样，系统属性、环境变量优先于配置文件
+     */
+    public static final String ACTIVE_PROFILES = "spring.profiles.active";
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private final Environment environment;
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 读取过的属性，key：属性名，value：解析后的值，不存在时为null
+     */
+    private final Map<String, String> evaluatedProperties = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * 查找过的类，key：全类名，value：类路径下是否存在
+     */
+    private final Map<String, Boolean> evaluatedClasses = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * @param environment 条件中的属性从这里读取，之后添加的属性来源同样生效
+     * @param classLoader 查找 @ConditionalOnClass 指定的类
+     */
+    public ConditionEvaluator(Environment environment, ClassLoader classLoader) {
+        this.environment = environment;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return 激活的profile，没有配置时为 default
+     */
+    public Set<String> getActiveProfiles() {
+        String value = getProperty(ACTIVE_PROFILES);
+        Set<String> profiles = new LinkedHashSet<>();
+        if (!StringUtil.isEmpty(value)) {
+            for (String profile : value.split(",")) {
+                if (!profile.trim().isEmpty()) {
+                    profiles.add(profile.trim());
+                }
+            }
+        }
+        return profiles.isEmpty() ? Collections.singleton(DEFAULT_PROFILE) : Collections.unmodifiableSet(profiles);
+    }
+
+    /**
+     * @return 条件不满足，不应该注册时返回true
+     */
+    public boolean shouldSkip(ClassMetadata metadata) {
+        AnnotationAttributes property = metadata.getAnnotationAttributes(ConditionalOnProperty.class.getName());
+        if (property != null && !matchesProperty(property)) {
+            return true;
+        }
+        AnnotationAttributes profile = metadata.getAnnotationAttributes(Profile.class.getName());
+        if (profile != null && !matchesProfile(profile.getStringArray("value"))) {
+            return true;
+        }
+        AnnotationAttributes onClass = metadata.getAnnotationAttributes(ConditionalOnClass.class.getName());
+        return onClass != null && !(isPresent(onClass.getStringArray("value")) && isPresent(onClass.getStringArray("name")));
+    }
+
+    private boolean matchesProperty(AnnotationAttributes attributes) {
+        String value = getProperty(attributes.getString("name"));
+        if (value == null) {
+            return attributes.getBoolean("matchIfMissing", false);
+        }
+        String havingValue = attributes.getString("havingValue");
+        if (StringUtil.isEmpty(havingValue)) {
+            return !"false".equalsIgnoreCase(value.trim());
+        }
+        return havingValue.equalsIgnoreCase(value.trim());
+    }
+
+    private boolean matchesProfile(String[] profiles) {
+        if (profiles == null) {
+            return true;
+        }
+        Set<String> activeProfiles = getActiveProfiles();
+        for (String profile : profiles) {
+            profile = profile.trim();
+            if (profile.startsWith("!") ? !activeProfiles.contains(profile.substring(1).trim()) : activeProfiles.contains(profile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPresent(String[] classNames) {
+        if (classNames == null) {
+            return true;
+        }
+        for (String className : classNames) {
+            boolean present = classLoader.getResource(className.trim().replace('.', '/') + ".class") != null;
+            evaluatedClasses.put(className.trim(), present);
+            if (!present) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getProperty(String key) {
+        String value = environment.getProperty(key);
+        evaluatedProperties.put(key, value);
+        return value;
+    }
+
+    /**
+     * @return 到目前为止判断条件时读取过的属性及其值，值为null表示属性不存在
+     */
+    public Map<String, String> getEvaluatedProperties() {
+        synchronized (evaluatedProperties) {
+            return new LinkedHashMap<>(evaluatedProperties);
+        }
+    }
+
+    /**
+     * @return 到目前为止判断条件时查找过的类及其是否存在
+     */
+    public Map<String, Boolean> getEvaluatedClasses() {
+        synchronized (evaluatedClasses) {
+            return new LinkedHashMap<>(evaluatedClasses);
+        }
+    }
+
+    /**
+     * 之前记录的属性和类在当前环境中是否都没有变化，没有变化时所有条件的结果都和当时一样
+     * @param properties {@link #getEvaluatedProperties()} 的结果
+     * @param classes {@link #getEvaluatedClasses()} 的结果
+     */
+    public boolean isUnchanged(Map<String, String> properties, Map<String, Boolean> classes) {
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            if (!Objects.equals(environment.getProperty(entry.getKey()), entry.getValue())) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Boolean> entry : classes.entrySet()) {
+            boolean present = classLoader.getResource(entry.getKey().replace('.', '/') + ".class") != null;
+            if (present != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
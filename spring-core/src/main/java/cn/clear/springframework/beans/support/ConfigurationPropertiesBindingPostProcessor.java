@@ -0,0 +1,145 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.annotation.ConfigurationProperties;
+import cn.clear.springframework.beans.config.BeanPostProcessor;
+import cn.clear.springframework.core.env.Environment;
+import cn.clear.springframework.util.TypeConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 把配置绑定到标注了 {@link ConfigurationProperties} 的bean上，在依赖注入之后、初始化之前调用setter
+ * 每个类第一次绑定时找出有配置的setter，并把配置值转换为参数类型，之后创建的实例直接调用setter，不再查找和转换配置；
+ * 数组和集合类型的值每次绑定复制一份，多例、线程、请求、池化的实例之间不共享
+ */
+public class ConfigurationPropertiesBindingPostProcessor implements BeanPostProcessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final String SETTER_PREFIX = "set";
+
+    private final Environment environment;
+
+    /**
+     * 每个类的绑定计划
+     */
+    private final Map<Class<?>, PropertyBinding[]> bindings = new ConcurrentHashMap<>();
+
+    public ConfigurationPropertiesBindingPostProcessor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean supports(Class<?> beanClass) {
+        return beanClass.isAnnotationPresent(ConfigurationProperties.class);
+    }
+
+    @Override
+    public void evictClasses(Predicate<Class<?>> classes) {
+        bindings.keySet().removeIf(classes);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws Exception {
+        PropertyBinding[] plan = bindings.get(bean.getClass());
+        if (plan == null) {
+            plan = buildBindings(bean.getClass());
+            bindings.put(bean.getClass(), plan);
+        }
+        for (PropertyBinding binding : plan) {
+            try {
+                // 数组和集合每个实例一个副本
+                binding.setter.invokeExact(bean, TypeConverter.copyOf(binding.value));
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new Exception("Failed to bind property '" + binding.key + "' to bean '" + beanName + "'", e);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 找出配置中有值的公开setter，配置名为 前缀.属性名，属性名可以是驼峰或者短横线形式
+     */
+    private PropertyBinding[] buildBindings(Class<?> beanClass) throws Exception {
+        String prefix = beanClass.getAnnotation(ConfigurationProperties.class).prefix().trim();
+        if (!prefix.isEmpty() && !prefix.endsWith(".")) {
+            prefix = prefix + ".";
+        }
+        List<PropertyBinding> result = new ArrayList<>();
+        for (Method method : beanClass.getMethods()) {
+            if (!isSetter(method)) {
+                continue;
+            }
+            String property = method.getName().substring(SETTER_PREFIX.length());
+            property = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+            String key = prefix + property;
+            String value = environment.getProperty(key);
+            if (value == null) {
+                key = prefix + toKebabCase(property);
+                value = environment.getProperty(key);
+            }
+            if (value == null) {
+                continue;
+            }
+            Object converted;
+            try {
+                converted = TypeConverter.convert(value, method.getGenericParameterTypes()[0]);
+            } catch (Exception e) {
+                throw new Exception("Failed to convert property '" + key + "' of " + beanClass.getName() + ": " + e.getMessage(), e);
+            }
+            MethodHandle setter = LOOKUP.unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            result.add(new PropertyBinding(key, setter, converted));
+        }
+        return result.toArray(new PropertyBinding[0]);
+    }
+
+    private static boolean isSetter(Method method) {
+        return method.getName().length() > SETTER_PREFIX.length() && method.getName().startsWith(SETTER_PREFIX)
+                && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())
+                && TypeConverter.isConvertible(method.getParameterTypes()[0]);
+    }
+
+    /**
+     * maxSize -> max-size
+     */
+    private static String toKebabCase(String property) {
+        StringBuilder result = new StringBuilder();
+        for (char c : property.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                result.append('-').append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * 一个属性的绑定：setter和转换好的值
+     */
+    private static class PropertyBinding {
+
+        private final String key;
+
+        private final MethodHandle setter;
+
+        private final Object value;
+
+        PropertyBinding(String key, MethodHandle setter, Object value) {
+            this.key = key;
+            this.setter = setter;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package cn.clear.springframework.beans.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * bean之间的依赖关系图
+ * 按拓扑顺序把bean分成若干层，同一层的bean互不依赖，可以并行创建；后一层只依赖前面的层
+ */
+public class DependencyGraph {
+
+    /**
+     * key：bean名称，value：它依赖的bean名称
+     */
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+    /**
+     * 添加一个bean
+     */
+    public void addBean(String beanName) {
+        dependencies.computeIfAbsent(beanName, key -> new LinkedHashSet<>());
+    }
+
+    /**
+     * 添加依赖关系：beanName 依赖 dependencyName
+     */
+    public void addDependency(String beanName, String dependencyName) {
+        addBean(beanName);
+        addBean(dependencyName);
+        dependencies.get(beanName).add(dependencyName);
+    }
+
+    /**
+     * @return 所有的bean名称
+     */
+    public Set<String> getBeanNames() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    public Set<String> getDependencies(String beanName) {
+        Set<String> result = dependencies.get(beanName);
+        return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * 拓扑排序并分层
+     * @return 分层后的bean名称，第一层没有任何依赖
+     * @throws Exception 存在循环依赖
+     */
+    public List<List<String>> sortLevels() throws Exception {
+        // 每个bean还没有被满足的依赖数量
+        Map<String, Integer> pending = new HashMap<>();
+        // 反向边：key被哪些bean依赖
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            pending.put(entry.getKey(), entry.getValue().size());
+            for (String dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        List<List<String>> levels = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (entry.getValue() == 0) {
+                current.add(entry.getKey());
+            }
+        }
+
+        int sorted = 0;
+        while (!current.isEmpty()) {
+            levels.add(current);
+            sorted += current.size();
+            List<String> next = new ArrayList<>();
+            for (String beanName : current) {
+                for (String dependent : dependents.getOrDefault(beanName, Collections.emptyList())) {
+                    if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            current = next;
+        }
+
+        if (sorted < dependencies.size()) {
+            throw new Exception("Circular dependency between beans: " + String.join(" -> ", findCycle(pending)));
+        }
+        return levels;
+    }
+
+    /**
+     * 在还有未满足依赖的bean中找出一个环，用于错误提示
+     */
+    private List<String> findCycle(Map<String, Integer> pending) {
+        for (String start : pending.keySet()) {
+            if (pending.get(start) > 0) {
+                List<String> path = new ArrayList<>();
+                if (findCycle(start, pending, path, new HashSet<>())) {
+                    return path;
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private boolean findCycle(String beanName, Map<String, Integer> pending, List<String> path, Set<String> visited) {
+        int index = path.indexOf(beanName);
+        if (index >= 0) {
+            path.add(beanName);
+            path.subList(0, index).clear();
+            return true;
+        }
+        if (!visited.add(beanName)) {
+            return false;
+        }
+        path.add(beanName);
+        for (String dependency : dependencies.get(beanName)) {
+            if (pending.get(dependency) > 0 && findCycle(dependency, pending, path, visited)) {
+                return true;
+            }
+        }
+        path.remove(path.size() - 1);
+        return false;
+    }
+}
@@ -0,0 +1,341 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.annotation.Autowired;
+import cn.clear.springframework.annotation.Value;
+import cn.clear.springframework.core.factory.BeanFactory;
+import cn.clear.springframework.util.TypeConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一个类的依赖注入信息，每个类只解析一次
+ * 包括用于实例化的构造方法，以及标注了 @Autowired、@Value 的属性和方法；注入的bean名称在解析时就已经确定，
+ * @Value 的表达式也在解析时计算并转换成目标类型，创建bean时直接使用；
+ * 属性、方法和构造方法都预先转换成 {@link MethodHandle}，创建bean时不再需要反射查找；
+ * 有编译期生成的 {@link BeanInstantiator} 时直接使用生成的代码
+ */
+public class InjectionMetadata {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Class<?> targetClass;
+
+    /**
+     * 实例化用的构造方法
+     */
+    private final InjectedElement constructor;
+
+    /**
+     * 需要注入的属性和方法，父类的在前
+     */
+    private final InjectedElement[] elements;
+
+    /**
+     * 编译期生成的实例化和注入代码，没有时为null
+     */
+    private final BeanInstantiator instantiator;
+
+    private InjectionMetadata(Class<?> targetClass, InjectedElement constructor, InjectedElement[] elements) {
+        this.targetClass = targetClass;
+        this.constructor = constructor;
+        this.elements = elements;
+        this.instantiator = null;
+    }
+
+    private InjectionMetadata(Class<?> targetClass, BeanInstantiator instantiator, String[] dependencyNames) {
+        int constructorCount = instantiator.getConstructorDependencyCount();
+        this.targetClass = targetClass;
+        this.constructor = new InjectedElement(targetClass, Arrays.copyOfRange(dependencyNames, 0, constructorCount), null, null);
+        this.elements = new InjectedElement[]{
+                new InjectedElement(targetClass, Arrays.copyOfRange(dependencyNames, constructorCount, dependencyNames.length), null, null)};
+        this.instantiator = instantiator;
+    }
+
+    /**
+     * 使用编译期生成的代码
+     * @param clazz bean的类
+     * @param instantiator 生成的实例化和注入代码
+     * @param resolver 依赖名称解析规则
+     */
+    public static InjectionMetadata forInstantiator(Class<?> clazz, BeanInstantiator instantiator, DependencyNameResolver resolver) {
+        Class<?>[] types = instantiator.getDependencyTypes();
+        String[] qualifiers = instantiator.getDependencyQualifiers();
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = resolver.resolve(types[i], qualifiers[i]);
+        }
+        return new InjectionMetadata(clazz, instantiator, names);
+    }
+
+    /**
+     * 解析一个类的依赖注入信息
+     * @param clazz bean的类
+     * @param resolver 依赖名称解析规则
+     * @param valueResolver @Value 表达式的计算规则
+     */
+    public static InjectionMetadata forClass(Class<?> clazz, DependencyNameResolver resolver, ValueResolver valueResolver) throws Exception {
+        InjectedElement constructor = buildConstructor(clazz, resolver, valueResolver);
+
+        // 父类的属性和方法先注入
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(current);
+        }
+        Collections.reverse(hierarchy);
+
+        List<InjectedElement> elements = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                Autowired autowired = field.getAnnotation(Autowired.class);
+                Value value = field.getAnnotation(Value.class);
+                if ((autowired == null && value == null) || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                // (Object, Object[])void：target.field = args[0]
+                MethodHandle handle = LOOKUP.unreflectSetter(field)
+                        .asSpreader(Object[].class, 1)
+                        .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+                if (value != null) {
+                    elements.add(new InjectedElement(field, new String[1],
+                            new Object[]{resolveValue(field, value, field.getGenericType(), valueResolver)}, handle));
+                } else {
+                    elements.add(new InjectedElement(field,
+                            new String[]{resolver.resolve(field.getType(), autowired.value())}, null, handle));
+                }
+            }
+            for (Method method : current.getDeclaredMethods()) {
+                Autowired autowired = method.getAnnotation(Autowired.class);
+                if ((autowired == null && method.getAnnotation(Value.class) == null)
+                        || Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                    continue;
+                }
+                method.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+                elements.add(resolveParameters(method, autowired, handle, resolver, valueResolver));
+            }
+        }
+        return new InjectionMetadata(clazz, constructor, elements.toArray(new InjectedElement[0]));
+    }
+
+    /**
+     * 选择构造方法：标注了 @Autowired 的构造方法优先，其次是无参构造方法，只有一个构造方法时直接使用它
+     */
+    private static InjectedElement buildConstructor(Class<?> clazz, DependencyNameResolver resolver, ValueResolver valueResolver) throws Exception {
+        Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+        Constructor<?> candidate = null;
+        Autowired autowired = null;
+        for (Constructor<?> constructor : constructors) {
+            Autowired annotation = constructor.getAnnotation(Autowired.class);
+            if (annotation != null) {
+                if (candidate != null && autowired != null) {
+                    throw new Exception("Only one constructor of " + clazz.getName() + " may be annotated with @Autowired");
+                }
+                candidate = constructor;
+                autowired = annotation;
+            } else if (autowired == null && (constructor.getParameterCount() == 0 || constructors.length == 1)) {
+                candidate = constructor;
+            }
+        }
+        if (candidate == null) {
+            throw new Exception("No default constructor found for " + clazz.getName());
+        }
+
+        candidate.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflectConstructor(candidate)
+                .asSpreader(Object[].class, candidate.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return resolveParameters(candidate, autowired, handle, resolver, valueResolver);
+    }
+
+    /**
+     * 解析方法参数要注入的bean名称或配置值；只有一个参数的方法可以直接用方法上的 @Autowired、@Value 指定，
+     * 其他情况在参数上用 @Autowired、@Value 指定
+     */
+    private static InjectedElement resolveParameters(Executable executable, Autowired autowired, MethodHandle handle,
+                                                     DependencyNameResolver resolver, ValueResolver valueResolver) throws Exception {
+        Parameter[] parameters = executable.getParameters();
+        Value methodValue = parameters.length == 1 ? executable.getAnnotation(Value.class) : null;
+        String[] names = new String[parameters.length];
+        Object[] values = null;
+        for (int i = 0; i < parameters.length; i++) {
+            Value value = parameters[i].getAnnotation(Value.class);
+            if (value == null) {
+                value = methodValue;
+            }
+            if (value != null) {
+                if (values == null) {
+                    values = new Object[parameters.length];
+                }
+                values[i] = resolveValue(executable, value, parameters[i].getParameterizedType(), valueResolver);
+                continue;
+            }
+            Autowired qualifier = parameters[i].getAnnotation(Autowired.class);
+            String name = qualifier != null ? qualifier.value()
+                    : (parameters.length == 1 && autowired != null ? autowired.value() : "");
+            names[i] = resolver.resolve(parameters[i].getType(), name);
+        }
+        return new InjectedElement(executable, names, values, handle);
+    }
+
+    private static Object resolveValue(Object member, Value value, Type type, ValueResolver valueResolver) throws Exception {
+        try {
+            return valueResolver.resolve(value.value(), type);
+        } catch (Exception e) {
+            throw new Exception("Could not resolve @Value(\"" + value.value() + "\") on " + member + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 通过构造方法创建实例
+     */
+    public Object instantiate(BeanFactory beanFactory) throws Throwable {
+        if (instantiator != null) {
+            return instantiator.instantiate(constructor.resolveArguments(beanFactory));
+        }
+        return (Object) constructor.handle.invokeExact(constructor.resolveArguments(beanFactory));
+    }
+
+    /**
+     * 注入属性和方法
+     */
+    public void inject(Object target, BeanFactory beanFactory) throws Throwable {
+        if (instantiator != null) {
+            instantiator.inject(target, elements[0].resolveArguments(beanFactory));
+            return;
+        }
+        for (InjectedElement element : elements) {
+            element.handle.invokeExact(target, element.resolveArguments(beanFactory));
+        }
+    }
+
+    /**
+     * 构造方法、属性和方法依赖的所有bean名称
+     */
+    public Set<String> getDependencyNames() {
+        Set<String> result = new LinkedHashSet<>();
+        constructor.collectDependencyNames(result);
+        for (InjectedElement element : elements) {
+            element.collectDependencyNames(result);
+        }
+        return result;
+    }
+
+    /**
+     * 构造方法依赖的bean名称，这些依赖必须先于该bean创建完成
+     */
+    public String[] getConstructorDependencyNames() {
+        Set<String> result = new LinkedHashSet<>();
+        constructor.collectDependencyNames(result);
+        return result.toArray(new String[0]);
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return 是否使用编译期生成的代码
+     */
+    public boolean isGenerated() {
+        return instantiator != null;
+    }
+
+    /**
+     * 依赖名称的解析规则，不同的容器规则不同
+     */
+    public interface DependencyNameResolver {
+        /**
+         * @param type 注入的类型
+         * @param qualifier @Autowired 上指定的名称，可能为空
+         * @return 要注入的bean名称
+         */
+        String resolve(Class<?> type, String qualifier);
+    }
+
+    /**
+     * @Value 表达式的计算规则，由容器的配置环境提供
+     */
+    public interface ValueResolver {
+        /**
+         * @param expression 表达式，例如 ${server.port:8080}
+         * @param type 注入的类型，可能带泛型
+         * @return 转换为注入类型的值
+         */
+        Object resolve(String expression, Type type) throws Exception;
+    }
+
+    /**
+     * 一个注入点：构造方法、属性或方法
+     */
+    private static class InjectedElement {
+
+        /**
+         * 构造方法、属性或方法；使用生成代码时为bean的类
+         */
+        private final Object member;
+
+        /**
+         * 每个参数要注入的bean名称，注入配置值的参数为null
+         */
+        private final String[] dependencyNames;
+
+        /**
+         * 每个参数预先计算好的配置值，没有 @Value 时为null
+         */
+        private final Object[] values;
+
+        private final MethodHandle handle;
+
+        InjectedElement(Object member, String[] dependencyNames, Object[] values, MethodHandle handle) {
+            this.member = member;
+            this.dependencyNames = dependencyNames;
+            this.values = values;
+            this.handle = handle;
+        }
+
+        Object[] resolveArguments(BeanFactory beanFactory) throws Exception {
+            if (dependencyNames.length == 0) {
+                return NO_ARGS;
+            }
+            Object[] args = new Object[dependencyNames.length];
+            for (int i = 0; i < args.length; i++) {
+                // 配置值只转换一次，数组和集合每次注入一个副本，实例之间不共享
+                args[i] = dependencyNames[i] == null ? TypeConverter.copyOf(values[i]) : beanFactory.getBean(dependencyNames[i]);
+            }
+            return args;
+        }
+
+        void collectDependencyNames(Set<String> result) {
+            for (String dependencyName : dependencyNames) {
+                if (dependencyName != null) {
+                    result.add(dependencyName);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return member.toString();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.beans.config.ObjectFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 有界的对象池，一个pooled作用域的bean对应一个
+ * 每个创建的对象固定占用一个槽位：members 中保存对象本身，slots 中同一位置非null表示空闲、null表示已借出
+ * 借出和归还都是CAS操作，不加锁，也不会为每次借还分配节点对象；
+ * 只有借出中的本池对象可以归还，重复归还和其他池的对象被忽略，同一个对象不会同时借给两个使用者
+ */
+public class ObjectPool {
+
+    /**
+     * 池已满时，等待归还的轮询间隔
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final String name;
+
+    private final int maxSize;
+
+    /**
+     * 池创建的对象，null表示槽位还没有对象
+     */
+    private final AtomicReferenceArray<Object> members;
+
+    /**
+     * 空闲的对象，和 members 同一位置；null表示对象已借出或者槽位还没有对象
+     */
+    private final AtomicReferenceArray<Object> slots;
+
+    /**
+     * 下一次查找的起始槽位，让并发的借还分散到不同槽位上
+     */
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /**
+     * 已经创建的对象数量，不超过maxSize
+     */
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final AtomicInteger idle = new AtomicInteger();
+
+    private final LongAdder borrowCount = new LongAdder();
+
+    private final LongAdder waitCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ObjectPool(String name, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size of '" + name + "' must be positive: " + maxSize);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.members = new AtomicReferenceArray<>(maxSize);
+        this.slots = new AtomicReferenceArray<>(maxSize);
+    }
+
+    /**
+     * 借出一个对象：优先使用空闲对象，池未满时创建新对象，否则等待其他线程归还
+     * @param objectFactory 创建对象的工厂
+     * @param maxWaitMillis 最长等待时间，超时抛出异常
+     */
+    public Object borrow(ObjectFactory<?> objectFactory, long maxWaitMillis) throws Exception {
+        borrowCount.increment();
+        Object object = poll();
+        if (object != null) {
+            return object;
+        }
+
+        object = tryCreate(objectFactory);
+        if (object != null) {
+            return object;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while ((object = poll()) == null) {
+            if (System.nanoTime() - deadline >= 0) {
+                recordWait(System.nanoTime() - start);
+                throw new Exception("Timeout waiting for pooled bean '" + name + "' after " + maxWaitMillis
+                        + "ms, all " + maxSize + " instances are in use");
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        recordWait(System.nanoTime() - start);
+        return object;
+    }
+
+    /**
+     * 归还对象，按引用找到对象的槽位
+     * 不是本池创建的对象（例如热刷新之前从旧池借出）和已经归还的对象被忽略
+     * @return 是否归还成功
+     */
+    public boolean release(Object object) {
+        if (object == null) {
+            return false;
+        }
+        for (int i = 0; i < maxSize; i++) {
+            if (members.get(i) == object) {
+                if (slots.compareAndSet(i, null, object)) {
+                    idle.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 预先创建对象放入池中
+     * @param count 预热的对象数量，不超过maxSize
+     */
+    public void prewarm(ObjectFactory<?> objectFactory, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Object object = tryCreate(objectFactory);
+            if (object == null) {
+                return;
+            }
+            release(object);
+        }
+    }
+
+    private Object tryCreate(ObjectFactory<?> objectFactory) throws Exception {
+        for (int count = created.get(); count < maxSize; count = created.get()) {
+            if (created.compareAndSet(count, count + 1)) {
+                try {
+                    Object object = objectFactory.getObject();
+                    register(object);
+                    return object;
+                } catch (Exception | Error e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 新创建的对象占用一个空的槽位，状态为借出；创建数量不超过maxSize，一定有空的槽位
+     */
+    private void register(Object object) throws Exception {
+        if (object == null) {
+            throw new Exception("Factory of pooled bean '" + name + "' returned null");
+        }
+        for (int i = 0; i < maxSize; i++) {
+            if (members.get(i) == null && members.compareAndSet(i, null, object)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("No free slot in pool '" + name + "'");
+    }
+
+    private Object poll() {
+        if (idle.get() == 0) {
+            return null;
+        }
+        int start = nextSlot.getAndIncrement();
+        for (int i = 0; i < maxSize; i++) {
+            int index = Math.floorMod(start + i, maxSize);
+            Object object = slots.get(index);
+            if (object != null && slots.compareAndSet(index, object, null)) {
+                idle.decrementAndGet();
+                return object;
+            }
+        }
+        return null;
+    }
+
+    private void recordWait(long nanos) {
+        waitCount.increment();
+        totalWaitNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, nanos)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 当前的占用和等待情况
+     */
+    public PoolStatistics getStatistics() {
+        int idleCount = Math.max(idle.get(), 0);
+        int createdCount = created.get();
+        return new PoolStatistics(name, maxSize, createdCount, idleCount, Math.max(createdCount - idleCount, 0),
+                borrowCount.sum(), waitCount.sum(), totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+}
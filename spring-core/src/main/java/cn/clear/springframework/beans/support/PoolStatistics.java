@@ -0,0 +1,54 @@
+package cn.clear.springframework.beans.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 对象池某一时刻的统计信息
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PoolStatistics {
+    /**
+     * bean名称
+     */
+    private final String name;
+    /**
+     * 池的容量
+     */
+    private final int maxSize;
+    /**
+     * 已经创建的实例数
+     */
+    private final int created;
+    /**
+     * 空闲的实例数
+     */
+    private final int idle;
+    /**
+     * 借出未归还的实例数
+     */
+    private final int active;
+    /**
+     * 累计借出次数
+     */
+    private final long borrowCount;
+    /**
+     * 因为池已满而等待的次数
+     */
+    private final long waitCount;
+    /**
+     * 累计等待时间，纳秒
+     */
+    private final long totalWaitNanos;
+    /**
+     * 最长的一次等待时间，纳秒
+     */
+    private final long maxWaitNanos;
+
+    public double getAverageWaitMillis() {
+        return waitCount == 0 ? 0 : totalWaitNanos / 1e6 / waitCount;
+    }
+}
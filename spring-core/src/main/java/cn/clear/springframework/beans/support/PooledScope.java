@@ -0,0 +1,109 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.beans.config.ObjectFactory;
+import cn.clear.springframework.beans.config.Scope;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 池化作用域，适合创建代价高、又不是线程安全的bean
+ * 每个bean一个有界对象池，getBean 从池中借出实例，用完后通过 {@code releaseBean} 归还
+ */
+public class PooledScope implements Scope {
+
+    public static final String SCOPE_POOLED = "pooled";
+
+    /**
+     * 每个bean的池容量
+     */
+    public static final String MAX_SIZE = "spring.scope.pooled.maxSize";
+
+    /**
+     * 启动时预先创建的实例数
+     */
+    public static final String PREWARM_SIZE = "spring.scope.pooled.prewarmSize";
+
+    /**
+     * 池中没有空闲实例时的最长等待时间，毫秒
+     */
+    public static final String MAX_WAIT = "spring.scope.pooled.maxWait";
+
+    public static final int DEFAULT_MAX_SIZE = 8;
+
+    public static final long DEFAULT_MAX_WAIT = 1000;
+
+    private final int maxSize;
+
+    private final int prewarmSize;
+
+    private final long maxWaitMillis;
+
+    private final Map<String, ObjectPool> pools = new ConcurrentHashMap<>();
+
+    public PooledScope() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_SIZE, DEFAULT_MAX_WAIT);
+    }
+
+    public PooledScope(int maxSize, int prewarmSize, long maxWaitMillis) {
+        this.maxSize = maxSize;
+        this.prewarmSize = Math.min(prewarmSize, maxSize);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) throws Exception {
+        return getPool(name).borrow(objectFactory, maxWaitMillis);
+    }
+
+    /**
+     * 池中的实例由池管理，不能单独移除；这里移除整个对象池，之后按新的类重新创建
+     * @return 总是返回null
+     */
+    @Override
+    public Object remove(String name) {
+        pools.remove(name);
+        return null;
+    }
+
+    /**
+     * 归还借出的实例
+     */
+    public void release(String name, Object instance) {
+        ObjectPool pool = pools.get(name);
+        if (pool != null) {
+            pool.release(instance);
+        }
+    }
+
+    /**
+     * 启动时预先创建实例
+     */
+    public void prewarm(String name, ObjectFactory<?> objectFactory) throws Exception {
+        getPool(name).prewarm(objectFactory, prewarmSize);
+    }
+
+    /**
+     * @return bean对应池的统计信息，没有创建过池返回null
+     */
+    public PoolStatistics getStatistics(String name) {
+        ObjectPool pool = pools.get(name);
+        return pool == null ? null : pool.getStatistics();
+    }
+
+    /**
+     * @return 所有池的统计信息，key：bean名称
+     */
+    public Map<String, PoolStatistics> getStatistics() {
+        Map<String, PoolStatistics> result = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectPool> entry : pools.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return result;
+    }
+
+    private ObjectPool getPool(String name) {
+        return pools.computeIfAbsent(name, key -> new ObjectPool(key, maxSize));
+    }
+}
@@ -0,0 +1,99 @@
+package cn.clear.springframework.beans.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单例注册表：注册BeanDefinition时给每个bean分配一个连续的整数编号，单例按编号存放在数组中
+ * bean名称、接口别名、类名都只在别名表中保存一个编号，实例本身只存一份；
+ * 拿到编号（{@link BeanRef}）之后获取单例只是一次数组读取，不需要计算字符串哈希
+ */
+public class SingletonRegistry {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * 别名表，key：bean名称、接口别名或者类名，value：编号
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * 编号对应的bean名称
+     */
+    private volatile String[] beanNames = new String[INITIAL_CAPACITY];
+
+    /**
+     * 编号对应的单例，没有创建为null
+     */
+    private volatile AtomicReferenceArray<Object> singletons = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    private int size;
+
+    /**
+     * 登记一个bean，已经登记过时返回原来的编号
+     * @return bean的编号
+     */
+    public synchronized int register(String beanName) {
+        Integer existing = ids.get(beanName);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == beanNames.length) {
+            grow();
+        }
+        int id = size++;
+        beanNames[id] = beanName;
+        ids.put(beanName, id);
+        return id;
+    }
+
+    /**
+     * 登记别名，别名已经存在时保留原来的
+     */
+    public void registerAlias(String alias, int id) {
+        ids.putIfAbsent(alias, id);
+    }
+
+    /**
+     * @return 名称或别名对应的编号，没有登记返回-1
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String getBeanName(int id) {
+        return beanNames[id];
+    }
+
+    /**
+     * @return 编号对应的单例，没有创建返回null
+     */
+    public Object getSingleton(int id) {
+        return singletons.get(id);
+    }
+
+    /**
+     * 保存单例；和扩容互斥，扩容时不会丢失正在写入的实例
+     */
+    public synchronized void addSingleton(int id, Object singleton) {
+        singletons.set(id, singleton);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void grow() {
+        int capacity = beanNames.length << 1;
+        String[] newBeanNames = new String[capacity];
+        System.arraycopy(beanNames, 0, newBeanNames, 0, size);
+        AtomicReferenceArray<Object> newSingletons = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < size; i++) {
+            newSingletons.set(i, singletons.get(i));
+        }
+        beanNames = newBeanNames;
+        singletons = newSingletons;
+    }
+}
@@ -0,0 +1,33 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.beans.config.ObjectFactory;
+import cn.clear.springframework.beans.config.Scope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 线程作用域，每个线程一个实例
+ */
+public class ThreadScope implements Scope {
+
+    public static final String SCOPE_THREAD = "thread";
+
+    private final ThreadLocal<Map<String, Object>> threadScope = ThreadLocal.withInitial(HashMap::new);
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) throws Exception {
+        Map<String, Object> scope = threadScope.get();
+        Object instance = scope.get(name);
+        if (instance == null) {
+            instance = objectFactory.getObject();
+            scope.put(name, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        return threadScope.get().remove(name);
+    }
+}
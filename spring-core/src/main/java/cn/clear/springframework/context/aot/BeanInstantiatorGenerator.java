@@ -0,0 +1,411 @@
+package cn.clear.springframework.context.aot;
+
+import cn.clear.springframework.annotation.Autowired;
+import cn.clear.springframework.annotation.Value;
+import cn.clear.springframework.beans.support.BeanInstantiator;
+import cn.clear.springframework.context.index.CandidateComponentsIndexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 编译期生成组件的 {@link BeanInstantiator}
+ * 每个组件在同一个包下生成一个 XXX__BeanInstantiator 类，用 new 调用构造方法，直接给 @Autowired 属性赋值、直接调用 @Autowired 方法，
+ * 并在 META-INF/spring.instantiators 中登记；容器创建bean时优先使用生成的代码，不再通过反射实例化和注入
+ * 注入点为private、在生成的类中无法访问，或者是基本类型时，该组件不生成代码，运行时仍然使用反射
+ */
+@SupportedAnnotationTypes("*")
+public class BeanInstantiatorGenerator extends AbstractProcessor {
+
+    private static final String SUFFIX = "__BeanInstantiator";
+
+    /**
+     * 生成的代码，key：组件类的二进制名称，value：生成类的二进制名称
+     */
+    private final Map<String, String> instantiators = new TreeMap<>();
+
+    /**
+     * 本次编译处理过的所有类的二进制名称，索引中这些类以本次的生成结果为准
+     */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+
+        if (roundEnv.processingOver() && !processedTypes.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement typeElement = (TypeElement) element;
+        processedTypes.add(processingEnv.getElementUtils().getBinaryName(typeElement).toString());
+        if (typeElement.getKind() == ElementKind.CLASS && !typeElement.getModifiers().contains(Modifier.ABSTRACT)
+                && CandidateComponentsIndexer.isComponent(typeElement)) {
+            String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+            if (!instantiators.containsKey(className)) {
+                generate(typeElement, className);
+            }
+        }
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    private void generate(TypeElement type, String className) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? className : className.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        try {
+            Plan plan = new Plan(packageName);
+            plan.build(type);
+            String generatedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(generatedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(plan.toSource(simpleName));
+            }
+            instantiators.put(className, generatedName);
+        } catch (NotGeneratableException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No BeanInstantiator generated for " + className + ": " + e.getMessage(), type);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to generate BeanInstantiator for " + className + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * 一个组件的实例化和注入代码
+     */
+    private class Plan {
+
+        private final String packageName;
+
+        private String typeName;
+
+        private final List<String> dependencyTypes = new ArrayList<>();
+
+        private final List<String> dependencyQualifiers = new ArrayList<>();
+
+        private int constructorDependencyCount;
+
+        private String constructorCall;
+
+        private final List<String> injections = new ArrayList<>();
+
+        Plan(String packageName) {
+            this.packageName = packageName;
+        }
+
+        void build(TypeElement type) throws NotGeneratableException {
+            for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+                if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                    throw new NotGeneratableException("class is private");
+                }
+                if (current.getEnclosingElement() instanceof TypeElement && !current.getModifiers().contains(Modifier.STATIC)) {
+                    throw new NotGeneratableException("inner class is not static");
+                }
+            }
+            typeName = erasure(type.asType());
+
+            ExecutableElement constructor = selectConstructor(type);
+            checkAccessible(constructor);
+            constructorCall = "new " + typeName + "(" + arguments(constructor, 0) + ")";
+            constructorDependencyCount = constructor.getParameters().size();
+
+            // 父类的属性和方法先注入
+            List<TypeElement> hierarchy = new ArrayList<>();
+            for (TypeElement current = type; current != null && !isObject(current); current = superclass(current)) {
+                hierarchy.add(current);
+            }
+            Collections.reverse(hierarchy);
+
+            for (TypeElement current : hierarchy) {
+                for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                    checkNoValue(field);
+                    AnnotationMirror autowired = findAutowired(field);
+                    if (autowired == null || field.getModifiers().contains(Modifier.STATIC)) {
+                        continue;
+                    }
+                    checkAccessible(field);
+                    int index = addDependency(field.asType(), qualifier(autowired));
+                    injections.add("bean." + field.getSimpleName() + " = (" + erasure(field.asType()) + ") dependencies["
+                            + (index - constructorDependencyCount) + "];");
+                }
+                for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                    checkNoValue(method);
+                    AnnotationMirror autowired = findAutowired(method);
+                    if (autowired == null || method.getModifiers().contains(Modifier.STATIC)) {
+                        continue;
+                    }
+                    checkAccessible(method);
+                    injections.add("bean." + method.getSimpleName() + "(" + arguments(method, constructorDependencyCount) + ");");
+                }
+            }
+        }
+
+        /**
+         * 和运行时的规则一致：标注了 @Autowired 的构造方法优先，其次是无参构造方法，只有一个构造方法时直接使用它
+         */
+        private ExecutableElement selectConstructor(TypeElement type) throws NotGeneratableException {
+            List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+            ExecutableElement candidate = null;
+            boolean autowired = false;
+            for (ExecutableElement constructor : constructors) {
+                if (findAutowired(constructor) != null) {
+                    if (autowired) {
+                        throw new NotGeneratableException("more than one @Autowired constructor");
+                    }
+                    candidate = constructor;
+                    autowired = true;
+                } else if (!autowired && (constructor.getParameters().isEmpty() || constructors.size() == 1)) {
+                    candidate = constructor;
+                }
+            }
+            if (candidate == null) {
+                throw new NotGeneratableException("no default constructor");
+            }
+            return candidate;
+        }
+
+        /**
+         * 生成方法参数，只有一个参数的方法可以直接用方法上的 @Autowired 指定名称
+         */
+        private String arguments(ExecutableElement executable, int offset) throws NotGeneratableException {
+            AnnotationMirror methodAutowired = findAutowired(executable);
+            List<? extends VariableElement> parameters = executable.getParameters();
+            StringBuilder result = new StringBuilder();
+            for (VariableElement parameter : parameters) {
+                checkNoValue(parameter);
+                AnnotationMirror autowired = findAutowired(parameter);
+                String qualifier = autowired != null ? qualifier(autowired)
+                        : (parameters.size() == 1 && methodAutowired != null ? qualifier(methodAutowired) : "");
+                int index = addDependency(parameter.asType(), qualifier);
+                if (result.length() > 0) {
+                    result.append(", ");
+                }
+                result.append('(').append(erasure(parameter.asType())).append(") dependencies[").append(index - offset).append(']');
+            }
+            return result.toString();
+        }
+
+        /**
+         * @Value 的配置值在运行时由容器计算，带有 @Value 的类使用反射方式创建
+         */
+        private void checkNoValue(Element member) throws NotGeneratableException {
+            if (findAnnotation(member, Value.class.getName()) != null) {
+                throw new NotGeneratableException("@Value injection point " + member);
+            }
+        }
+
+        private int addDependency(TypeMirror type, String qualifier) throws NotGeneratableException {
+            if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY) {
+                throw new NotGeneratableException("unsupported injection type " + type);
+            }
+            dependencyTypes.add(erasure(type));
+            dependencyQualifiers.add(qualifier);
+            return dependencyTypes.size() - 1;
+        }
+
+        /**
+         * 生成的类和组件在同一个包下，可以访问同一个包中非private的成员，以及public类的public成员
+         */
+        private void checkAccessible(Element member) throws NotGeneratableException {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                throw new NotGeneratableException(member + " is private");
+            }
+            TypeElement owner = (TypeElement) member.getEnclosingElement();
+            boolean samePackage = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().contentEquals(packageName);
+            if (!samePackage && !(modifiers.contains(Modifier.PUBLIC) && owner.getModifiers().contains(Modifier.PUBLIC))) {
+                throw new NotGeneratableException(member + " is not accessible from package " + packageName);
+            }
+        }
+
+        String toSource(String simpleName) {
+            StringBuilder source = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                source.append("package ").append(packageName).append(";\n\n");
+            }
+            source.append("/**\n * 由 ").append(BeanInstantiatorGenerator.class.getSimpleName()).append(" 生成，不要修改\n */\n");
+            source.append("public final class ").append(simpleName).append(" implements ")
+                    .append(BeanInstantiator.class.getName()).append(" {\n\n");
+
+            source.append("    @Override\n    public Class<?>[] getDependencyTypes() {\n        return new Class<?>[]{");
+            for (int i = 0; i < dependencyTypes.size(); i++) {
+                source.append(i == 0 ? "" : ", ").append(dependencyTypes.get(i)).append(".class");
+            }
+            source.append("};\n    }\n\n");
+
+            source.append("    @Override\n    public String[] getDependencyQualifiers() {\n        return new String[]{");
+            for (int i = 0; i < dependencyQualifiers.size(); i++) {
+                source.append(i == 0 ? "" : ", ").append(literal(dependencyQualifiers.get(i)));
+            }
+            source.append("};\n    }\n\n");
+
+            source.append("    @Override\n    public int getConstructorDependencyCount() {\n        return ")
+                    .append(constructorDependencyCount).append(";\n    }\n\n");
+
+            source.append("    @Override\n    public Object instantiate(Object[] dependencies) throws Exception {\n        return ")
+                    .append(constructorCall).append(";\n    }\n\n");
+
+            source.append("    @Override\n    public void inject(Object instance, Object[] dependencies) throws Exception {\n");
+            if (!injections.isEmpty()) {
+                source.append("        ").append(typeName).append(" bean = (").append(typeName).append(") instance;\n");
+                for (String injection : injections) {
+                    source.append("        ").append(injection).append('\n');
+                }
+            }
+            source.append("    }\n}\n");
+            return source.toString();
+        }
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean isObject(TypeElement type) {
+        return type.getQualifiedName().contentEquals(Object.class.getName());
+    }
+
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private static AnnotationMirror findAutowired(Element element) {
+        return findAnnotation(element, Autowired.class.getName());
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static String qualifier(AnnotationMirror autowired) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : autowired.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return String.valueOf(entry.getValue().getValue()).trim();
+            }
+        }
+        return "";
+    }
+
+    private static String literal(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * 写出索引文件，增量编译时合并上一次索引中仍然存在、并且本次没有处理过的类；
+     * 本次处理过的类以本次的结果为准，不再生成代码的类（例如增加了 @Value 或者不再是组件）从索引中移除，
+     * 输出目录中残留的旧生成类不会再被加载
+     */
+    private void writeIndex() {
+        Properties index = new Properties();
+        boolean hasPrevious = false;
+        try {
+            FileObject existing = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", BeanInstantiatorLoader.INSTANTIATORS_RESOURCE_LOCATION);
+            try (InputStream in = existing.openInputStream()) {
+                Properties previous = new Properties();
+                previous.load(in);
+                hasPrevious = true;
+                for (String className : previous.stringPropertyNames()) {
+                    if (!processedTypes.contains(className)
+                            && processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                        index.setProperty(className, previous.getProperty(className));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 没有上一次的索引，忽略
+        }
+        // 没有生成过代码的项目不写出空的索引
+        if (!hasPrevious && instantiators.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, String> entry : instantiators.entrySet()) {
+            index.setProperty(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", BeanInstantiatorLoader.INSTANTIATORS_RESOURCE_LOCATION);
+            try (OutputStream out = file.openOutputStream()) {
+                index.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write instantiator index: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 组件不能生成代码的原因，该组件运行时使用反射
+     */
+    private static class NotGeneratableException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        NotGeneratableException(String message) {
+            super(message);
+        }
+    }
+}
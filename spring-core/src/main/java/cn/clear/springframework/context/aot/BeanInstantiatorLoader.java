@@ -0,0 +1,77 @@
+package cn.clear.springframework.context.aot;
+
+import cn.clear.springframework.beans.support.BeanInstantiator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 加载类路径下所有的 META-INF/spring.instantiators，找到组件对应的编译期生成的 {@link BeanInstantiator}
+ */
+public final class BeanInstantiatorLoader {
+
+    /**
+     * 索引文件位置，内容为 组件类名=生成的类名
+     */
+    public static final String INSTANTIATORS_RESOURCE_LOCATION = "META-INF/spring.instantiators";
+
+    /**
+     * 设置为true时忽略生成的代码，始终通过反射创建bean
+     */
+    public static final String IGNORE_INSTANTIATORS = "spring.aot.ignore";
+
+    private static final Map<ClassLoader, Map<String, String>> cache = new ConcurrentHashMap<>();
+
+    private BeanInstantiatorLoader() {
+    }
+
+    /**
+     * 获取组件类对应的生成代码
+     * @param clazz 组件类
+     * @return 生成代码的实例，没有生成或者已经过期（类不存在）时返回null
+     */
+    public static BeanInstantiator loadInstantiator(Class<?> clazz) {
+        if (Boolean.getBoolean(IGNORE_INSTANTIATORS) || clazz.getClassLoader() == null) {
+            return null;
+        }
+        ClassLoader classLoader = clazz.getClassLoader();
+        String instantiatorClassName = cache.computeIfAbsent(classLoader, BeanInstantiatorLoader::doLoadIndex).get(clazz.getName());
+        if (instantiatorClassName == null) {
+            return null;
+        }
+        try {
+            return (BeanInstantiator) Class.forName(instantiatorClassName, true, classLoader).newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> doLoadIndex(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INSTANTIATORS_RESOURCE_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> result = new HashMap<>();
+            while (urls.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = urls.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    result.put(className, properties.getProperty(className));
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load instantiators from location [" + INSTANTIATORS_RESOURCE_LOCATION + "]", e);
+        }
+    }
+}
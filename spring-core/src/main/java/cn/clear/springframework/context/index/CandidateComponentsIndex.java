@@ -0,0 +1,52 @@
+package cn.clear.springframework.context.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 编译期生成的组件索引，由 {@link CandidateComponentsIndexer} 生成，{@link CandidateComponentsIndexLoader} 加载
+ */
+public class CandidateComponentsIndex {
+
+    /**
+     * key：stereotype，value：被该 stereotype 标注的类名
+     */
+    private final Map<String, List<String>> index = new HashMap<>();
+
+    CandidateComponentsIndex(List<Properties> content) {
+        for (Properties entry : content) {
+            for (String className : entry.stringPropertyNames()) {
+                for (String stereotype : entry.getProperty(className).split(",")) {
+                    index.computeIfAbsent(stereotype.trim(), key -> new ArrayList<>()).add(className);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取指定包（含子包）下被 stereotype 标注的类名
+     * @param basePackage 扫描的包
+     * @param stereotype 注解的全类名
+     * @return 类名集合
+     */
+    public Set<String> getCandidateTypes(String basePackage, String stereotype) {
+        List<String> candidates = index.get(stereotype);
+        if (candidates == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        String prefix = basePackage + ".";
+        for (String className : candidates) {
+            if (className.startsWith(prefix)) {
+                result.add(className);
+            }
+        }
+        return result;
+    }
+}
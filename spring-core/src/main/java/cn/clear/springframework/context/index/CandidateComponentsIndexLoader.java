@@ -0,0 +1,71 @@
+package cn.clear.springframework.context.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 加载类路径下所有的 META-INF/spring.components 索引文件
+ */
+public final class CandidateComponentsIndexLoader {
+
+    /**
+     * 索引文件位置
+     */
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
+
+    /**
+     * 设置为true时忽略索引，始终扫描类路径
+     */
+    public static final String IGNORE_INDEX = "spring.index.ignore";
+
+    /**
+     * 没有索引时的占位对象，ConcurrentHashMap不能存null
+     */
+    private static final CandidateComponentsIndex NO_INDEX = new CandidateComponentsIndex(new ArrayList<>());
+
+    private static final Map<ClassLoader, CandidateComponentsIndex> cache = new ConcurrentHashMap<>();
+
+    private CandidateComponentsIndexLoader() {
+    }
+
+    /**
+     * 加载索引
+     * @param classLoader 类加载器
+     * @return 索引，类路径下没有索引文件时返回null
+     */
+    public static CandidateComponentsIndex loadIndex(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX)) {
+            return null;
+        }
+        CandidateComponentsIndex index = cache.computeIfAbsent(classLoader, CandidateComponentsIndexLoader::doLoadIndex);
+        return index == NO_INDEX ? null : index;
+    }
+
+    private static CandidateComponentsIndex doLoadIndex(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return NO_INDEX;
+            }
+            List<Properties> result = new ArrayList<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Properties properties = new Properties();
+                try (InputStream in = url.openStream()) {
+                    properties.load(in);
+                }
+                result.add(properties);
+            }
+            return new CandidateComponentsIndex(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load indexes from location [" + COMPONENTS_RESOURCE_LOCATION + "]", e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package cn.clear.springframework.context.index;
+
+import cn.clear.springframework.annotation.Component;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 编译期组件索引生成器
+ * 扫描被 @Component（或被 @Component 标注的注解）标注的类，在编译输出目录下生成 META-INF/spring.components，
+ * 容器启动时读取该索引即可跳过类路径的递归扫描
+ */
+@SupportedAnnotationTypes("*")
+public class CandidateComponentsIndexer extends AbstractProcessor {
+
+    /**
+     * 收集到的组件，key：类的二进制名称，value：stereotype
+     */
+    private final Map<String, String> components = new TreeMap<>();
+
+    /**
+     * 本次编译处理过的所有类的二进制名称，索引中这些类以本次的结果为准
+     */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+
+        if (roundEnv.processingOver() && !processedTypes.isEmpty()) {
+            writeIndex();
+        }
+        // 不声明占用任何注解，其他处理器（如lombok）照常执行
+        return false;
+    }
+
+    /**
+     * 收集组件类，包括静态内部类
+     */
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement typeElement = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        processedTypes.add(className);
+        if (typeElement.getKind() == ElementKind.CLASS && isComponent(typeElement)) {
+            components.put(className, Component.class.getName());
+        }
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    /**
+     * 判断类上是否有 @Component 注解，或者有直接、间接被 @Component 标注的注解（组合注解可以多层嵌套）
+     */
+    public static boolean isComponent(TypeElement typeElement) {
+        Set<String> visited = new HashSet<>();
+        Deque<Element> annotationTypes = new ArrayDeque<>();
+        for (AnnotationMirror mirror : typeElement.getAnnotationMirrors()) {
+            annotationTypes.add(mirror.getAnnotationType().asElement());
+        }
+        while (!annotationTypes.isEmpty()) {
+            Element annotationType = annotationTypes.poll();
+            if (isComponentAnnotation(annotationType)) {
+                return true;
+            }
+            String name = ((TypeElement) annotationType).getQualifiedName().toString();
+            // JDK的元注解（@Documented、@Retention等）不再往下找
+            if (!visited.add(name) || name.startsWith("java.")) {
+                continue;
+            }
+            for (AnnotationMirror metaMirror : annotationType.getAnnotationMirrors()) {
+                annotationTypes.add(metaMirror.getAnnotationType().asElement());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isComponentAnnotation(Element annotationType) {
+        return ((TypeElement) annotationType).getQualifiedName().contentEquals(Component.class.getName());
+    }
+
+    /**
+     * 写出索引文件，增量编译时合并上一次索引中本次没有处理过、仍然存在并且仍然是组件的类；
+     * 本次处理过的类以本次的结果为准，去掉 @Component 的类从索引中移除
+     */
+    private void writeIndex() {
+        Properties index = new Properties();
+        boolean hasPrevious = false;
+        try {
+            FileObject existing = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            try (InputStream in = existing.openInputStream()) {
+                Properties previous = new Properties();
+                previous.load(in);
+                hasPrevious = true;
+                for (String className : previous.stringPropertyNames()) {
+                    if (processedTypes.contains(className)) {
+                        continue;
+                    }
+                    TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+                    if (typeElement != null && isComponent(typeElement)) {
+                        index.setProperty(className, previous.getProperty(className));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 没有上一次的索引，忽略
+        }
+        // 没有组件的项目不写出空的索引
+        if (!hasPrevious && components.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, String> entry : components.entrySet()) {
+            index.setProperty(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            try (OutputStream out = file.openOutputStream()) {
+                index.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write component index: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,1282 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.beans.BeanWrapper;
+import cn.clear.springframework.beans.config.BeanDefinition;
+import cn.clear.springframework.beans.config.BeanPostProcessor;
+import cn.clear.springframework.beans.config.ObjectFactory;
+import cn.clear.springframework.beans.config.Scope;
+import cn.clear.springframework.beans.support.BeanDefinitionReader;
+import cn.clear.springframework.beans.support.BeanInstantiator;
+import cn.clear.springframework.beans.support.BeanRef;
+import cn.clear.springframework.beans.support.BeanTypeIndex;
+import cn.clear.springframework.beans.support.ConfigurationPropertiesBindingPostProcessor;
+import cn.clear.springframework.beans.support.DependencyGraph;
+import cn.clear.springframework.beans.support.InjectionMetadata;
+import cn.clear.springframework.beans.support.PooledScope;
+import cn.clear.springframework.beans.support.SingletonRegistry;
+import cn.clear.springframework.beans.support.ThreadScope;
+import cn.clear.springframework.context.aot.BeanInstantiatorLoader;
+import cn.clear.springframework.core.env.Environment;
+import cn.clear.springframework.core.factory.ApplicationContext;
+import cn.clear.springframework.core.factory.BeanFactory;
+import cn.clear.springframework.core.io.ClassFileWatcher;
+import cn.clear.springframework.core.io.ReloadableClassLoader;
+import cn.clear.springframework.core.metrics.StartupStep;
+import cn.clear.springframework.core.metrics.StartupTimeline;
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
+import cn.clear.springframework.core.type.classreading.MetadataReaderFactory;
+import cn.clear.springframework.util.StringUtil;
+import cn.clear.springframework.util.TypeConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * 容器的公共实现：BeanDefinition注册、bean的创建、依赖注入以及非懒加载bean的预实例化
+ * 子类负责BeanDefinition的来源以及 @Autowired 依赖名称的解析规则
+ */
+public abstract class AbstractApplicationContext implements ApplicationContext {
+
+    /**
+     * 并行启动开关，开启后按依赖关系分层，同一层的bean在ForkJoinPool中并行创建
+     */
+    public static final String PARALLEL_STARTUP = "spring.context.parallel";
+
+    /**
+     * 启动时间线JSON文件的输出路径，不设置时不输出
+     */
+    public static final String STARTUP_DUMP = "spring.context.startup.dump";
+
+    /**
+     * 热刷新开关，开启后监听扫描包所在的目录，类文件变化时只重建受影响的bean
+     */
+    public static final String HOT_REFRESH = "spring.context.hotRefresh";
+
+    /**
+     * 热刷新的安静期，毫秒，一次编译写入的多个类文件一起处理
+     */
+    private static final long HOT_REFRESH_QUIET_PERIOD = 200;
+
+    /**
+     * 启动时间线
+     */
+    protected final StartupTimeline startupTimeline = new StartupTimeline();
+
+    /**
+     * 配置环境：系统属性、环境变量，子类再添加配置文件；容器的开关和 @Value 都从这里读取
+     */
+    protected final Environment environment = new Environment();
+
+    /**
+     * 字节码元信息读取，扫描和建立类型索引时不加载类
+     */
+    protected final MetadataReaderFactory metadataReaderFactory = new MetadataReaderFactory(this.getClass().getClassLoader());
+
+    /**
+     * Bean名和它对应的BeanDefinition键值对
+     */
+    protected final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
+
+    /**
+     * 类名和使用该类的第一个bean名称，同一个类的多个BeanDefinition（例如接口别名）共用一个实例
+     */
+    private final Map<String, String> beanNamesByClassName = new ConcurrentHashMap<>();
+
+    /**
+     * 单例池，按编号存放；只存放已经完成依赖注入和后置处理的实例，读取不需要加锁
+     */
+    protected final SingletonRegistry singletonRegistry = new SingletonRegistry();
+
+    /**
+     * 正在创建的单例，key：bean名称；同一个bean同时只有一个线程在创建，其他线程等待它的结果
+     */
+    private final Map<String, SingletonCreation> singletonsCurrentlyInCreation = new ConcurrentHashMap<>();
+
+    /**
+     * 正在等待其他线程创建bean的线程，value：等待的bean名称，用于发现线程之间的相互等待
+     */
+    private final Map<Thread, String> threadsWaitingForSingleton = new ConcurrentHashMap<>();
+
+    /**
+     * 注册的作用域，key：作用域名称；单例和原型不在这里
+     */
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>();
+
+    /**
+     * 非单例bean的实例化过程，每个bean只解析一次，之后创建实例只需要调用构造方法和注入
+     */
+    private final Map<String, ObjectFactory<Object>> scopedObjectFactories = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在创建的非单例bean，用于发现循环依赖
+     */
+    private final ThreadLocal<Set<String>> scopedBeansCurrentlyInCreation = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * 类型索引和注解索引
+     */
+    private final BeanTypeIndex typeIndex = new BeanTypeIndex(metadataReaderFactory);
+
+    /**
+     * 每个类的依赖注入信息
+     */
+    private final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>();
+
+    /**
+     * 加载bean的类的类加载器，每次热刷新替换为新一代的 {@link ReloadableClassLoader}
+     */
+    private volatile ClassLoader beanClassLoader = this.getClass().getClassLoader();
+
+    /**
+     * 热刷新中正在重建的单例，只对执行刷新的线程可见
+     */
+    private volatile StagedSingletons stagedSingletons;
+
+    private ClassFileWatcher classFileWatcher;
+
+    private final List<HotRefreshListener> hotRefreshListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 后置处理器，按注册顺序调用
+     */
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 每个类适用的后置处理器，key：bean的原始类
+     */
+    private final Map<Class<?>, BeanPostProcessor[]> beanPostProcessorChains = new ConcurrentHashMap<>();
+
+    /**
+     * 父上下文，当前上下文找不到的bean交给它查找
+     */
+    private final ApplicationContext parent;
+
+    /**
+     * 已经确认在父上下文中的bean名称，再次获取时不用在当前上下文中查找
+     */
+    private final Set<String> parentBeanNames = ConcurrentHashMap.newKeySet();
+
+    protected AbstractApplicationContext() {
+        this(null);
+    }
+
+    /**
+     * @param parent 父上下文，可以为null
+     */
+    protected AbstractApplicationContext(ApplicationContext parent) {
+        this.parent = parent;
+        addBeanPostProcessor(new ConfigurationPropertiesBindingPostProcessor(environment));
+        registerScope(ThreadScope.SCOPE_THREAD, new ThreadScope());
+        registerScope(PooledScope.SCOPE_POOLED, new PooledScope());
+    }
+
+    @Override
+    public Object getBean(String beanName) throws Exception {
+        // 热刷新的线程优先使用重建中的单例
+        StagedSingletons staged = stagedSingletons;
+        if (staged != null && staged.refreshThread == Thread.currentThread()) {
+            Object instance = getStagedSingleton(staged, beanName);
+            if (instance != null) {
+                return instance;
+            }
+        }
+
+        // 已经加载到容器了，直接返回
+        Object instance = getSingleton(beanName);
+        if (instance != null) {
+            return instance;
+        }
+        if (parentBeanNames.contains(beanName)) {
+            return parent.getBean(beanName);
+        }
+
+        String canonicalName = getCanonicalName(beanName);
+        if (canonicalName == null) {
+            // 当前上下文中没有定义，交给父上下文
+            if (parent != null && parent.containsBean(beanName)) {
+                parentBeanNames.add(beanName);
+                return parent.getBean(beanName);
+            }
+            throw new Exception("Bean " + beanName + " is not found");
+        }
+
+        BeanDefinition beanDefinition = beanDefinitionMap.get(canonicalName);
+        if (!beanDefinition.isSingleton()) {
+            return getScopedBean(canonicalName, beanDefinition);
+        }
+        return getOrCreateSingleton(canonicalName, beanDefinition);
+    }
+
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws Exception {
+        String[] beanNames = getBeanNamesForType(requiredType);
+        if (beanNames.length == 0 && parent != null) {
+            return parent.getBean(requiredType);
+        }
+        if (beanNames.length == 0) {
+            throw new Exception("No qualifying bean of type '" + requiredType.getName() + "' available");
+        }
+        if (beanNames.length > 1) {
+            throw new Exception("No qualifying bean of type '" + requiredType.getName()
+                    + "' available: expected single matching bean but found " + beanNames.length + ": " + String.join(",", beanNames));
+        }
+        return getBean(beanNames[0], requiredType);
+    }
+
+    @Override
+    public boolean containsBean(String name) {
+        return containsLocalBean(name) || (parent != null && parent.containsBean(name));
+    }
+
+    @Override
+    public boolean containsLocalBean(String name) {
+        return getCanonicalName(name) != null;
+    }
+
+    @Override
+    public ApplicationContext getParent() {
+        return parent;
+    }
+
+    @Override
+    public BeanFactory getParentBeanFactory() {
+        return parent;
+    }
+
+    @Override
+    public String[] getBeanDefinitionNames() {
+        return beanDefinitionMap.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return typeIndex.getBeanNamesForType(type.getName());
+    }
+
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> type) throws Exception {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (String beanName : getBeanNamesForType(type)) {
+            result.put(beanName, getBean(beanName, type));
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getBeanNamesForAnnotation(Class<? extends Annotation> annotationType) {
+        return typeIndex.getBeanNamesForAnnotation(annotationType.getName());
+    }
+
+    @Override
+    public Map<String, Object> getBeansWithAnnotation(Class<? extends Annotation> annotationType) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String beanName : getBeanNamesForAnnotation(annotationType)) {
+            result.put(beanName, getBean(beanName));
+        }
+        return result;
+    }
+
+    @Override
+    public Class<?> getType(String name) throws Exception {
+        String canonicalName = getCanonicalName(name);
+        if (canonicalName == null && parent != null && parent.containsBean(name)) {
+            return parent.getType(name);
+        }
+        if (canonicalName == null) {
+            throw new Exception("Bean " + name + " is not found");
+        }
+        return loadBeanClass(beanDefinitionMap.get(canonicalName));
+    }
+
+    /**
+     * 获取bean的引用，之后通过引用获取单例不需要再按名称查找
+     * @param name bean名称、接口别名或者类名
+     */
+    public BeanRef getBeanRef(String name) throws Exception {
+        String canonicalName = getCanonicalName(name);
+        if (canonicalName == null && parent instanceof AbstractApplicationContext && parent.containsBean(name)) {
+            return ((AbstractApplicationContext) parent).getBeanRef(name);
+        }
+        if (canonicalName == null) {
+            throw new Exception("Bean " + name + " is not found");
+        }
+        return new BeanRef(singletonRegistry, this, singletonRegistry.getId(canonicalName));
+    }
+
+    /**
+     * 获取bean并检查类型，基于接口的代理对象不是原始类的实例
+     */
+    private <T> T getBean(String beanName, Class<T> requiredType) throws Exception {
+        Object bean = getBean(beanName);
+        if (!requiredType.isInstance(bean)) {
+            throw new Exception("Bean named '" + beanName + "' is expected to be of type '" + requiredType.getName()
+                    + "' but was actually of type '" + bean.getClass().getName() + "'");
+        }
+        return requiredType.cast(bean);
+    }
+
+    /**
+     * 注册作用域
+     * @param scopeName 作用域名称，和 @Scope 的值对应
+     * @param scope 作用域
+     */
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)) {
+            throw new IllegalArgumentException("Cannot replace existing scopes 'singleton' and 'prototype'");
+        }
+        scopes.put(scopeName, scope);
+    }
+
+    /**
+     * 按配置环境中的 spring.scope.pooled.* 重新注册pooled作用域，子类在属性来源准备好之后、创建bean之前调用
+     */
+    protected void registerPooledScope() throws Exception {
+        int maxSize = environment.getProperty(PooledScope.MAX_SIZE, int.class, PooledScope.DEFAULT_MAX_SIZE);
+        int prewarmSize = environment.getProperty(PooledScope.PREWARM_SIZE, int.class, maxSize);
+        long maxWait = environment.getProperty(PooledScope.MAX_WAIT, long.class, PooledScope.DEFAULT_MAX_WAIT);
+        registerScope(PooledScope.SCOPE_POOLED, new PooledScope(maxSize, prewarmSize, maxWait));
+    }
+
+    /**
+     * @return 作用域，没有注册返回null
+     */
+    public Scope getRegisteredScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
+    /**
+     * 归还通过 getBean 借出的pooled作用域实例，其他作用域的bean忽略
+     * @param beanName bean名称
+     * @param bean 借出的实例
+     */
+    public void releaseBean(String beanName, Object bean) throws Exception {
+        String canonicalName = getCanonicalName(beanName);
+        if (canonicalName == null && parent instanceof AbstractApplicationContext && parent.containsBean(beanName)) {
+            ((AbstractApplicationContext) parent).releaseBean(beanName, bean);
+            return;
+        }
+        if (canonicalName == null) {
+            throw new Exception("Bean " + beanName + " is not found");
+        }
+        Scope scope = scopes.get(beanDefinitionMap.get(canonicalName).getScope());
+        if (scope instanceof PooledScope) {
+            ((PooledScope) scope).release(canonicalName, bean);
+        }
+    }
+
+    /**
+     * 注册BeanDefinition；父上下文中已经有同一个类的bean时不再注册，直接使用父上下文中的
+     */
+    protected void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) throws Exception {
+        if (parent != null && parent.containsBean(beanDefinition.getBeanClassName())) {
+            return;
+        }
+        if (beanDefinitionMap.containsKey(beanName)) {
+            throw new Exception("Duplicate Bean '" + beanName + "'");
+        }
+        beanDefinitionMap.put(beanName, beanDefinition);
+        // 同一个类的其他BeanDefinition（接口别名）共用一个编号，不重复进入类型索引
+        String canonicalName = beanNamesByClassName.putIfAbsent(beanDefinition.getBeanClassName(), beanName);
+        if (canonicalName == null) {
+            int id = singletonRegistry.register(beanName);
+            singletonRegistry.registerAlias(beanDefinition.getBeanClassName(), id);
+            registerBeanType(beanName, beanDefinition.getBeanClassName());
+        } else {
+            singletonRegistry.registerAlias(beanName, singletonRegistry.getId(canonicalName));
+        }
+    }
+
+    /**
+     * 把bean登记到类型索引，默认读取类的字节码解析父类、接口和注解
+     */
+    protected void registerBeanType(String beanName, String className) {
+        typeIndex.register(beanName, className);
+    }
+
+    protected BeanTypeIndex getTypeIndex() {
+        return typeIndex;
+    }
+
+    /**
+     * 把bean名称、接口别名、类名或者唯一匹配的类型名解析成真正用于创建实例的bean名称
+     * @return bean名称，找不到返回null
+     */
+    protected String getCanonicalName(String name) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+        String className = beanDefinition != null ? beanDefinition.getBeanClassName() : name;
+        String canonicalName = beanNamesByClassName.get(className);
+        if (canonicalName == null) {
+            String[] candidates = typeIndex.getBeanNamesForType(name);
+            if (candidates.length == 1) {
+                canonicalName = candidates[0];
+            }
+        }
+        return canonicalName;
+    }
+
+    /**
+     * 获取已经创建好的bean实例
+     * @param beanName bean的名称或者类路径
+     * @return bean的实例，没有创建返回null
+     */
+    protected Object getSingleton(String beanName) {
+        int id = singletonRegistry.getId(beanName);
+        return id < 0 ? null : singletonRegistry.getSingleton(id);
+    }
+
+    /**
+     * 获取单例，没有创建时由当前线程创建；其他线程正在创建时等待它完成，同一个bean只会创建一次
+     * @param beanName bean的名称
+     * @param beanDefinition bean的定义
+     */
+    protected Object getOrCreateSingleton(String beanName, BeanDefinition beanDefinition) throws Exception {
+        SingletonCreation creation = new SingletonCreation();
+        SingletonCreation existing = singletonsCurrentlyInCreation.putIfAbsent(beanName, creation);
+        if (existing != null) {
+            return awaitSingleton(beanName, existing);
+        }
+
+        try {
+            // 在检查单例池和登记创建之间，其他线程可能已经创建完成
+            Object instance = getSingleton(beanName);
+            if (instance == null) {
+                instance = createBean(beanName, beanDefinition, creation);
+            }
+            creation.result.complete(instance);
+            return instance;
+        } catch (Exception | Error e) {
+            creation.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            singletonsCurrentlyInCreation.remove(beanName, creation);
+        }
+    }
+
+    /**
+     * 等待正在创建的单例
+     * 当前线程自己正在创建它（循环依赖），或者等待会导致线程之间相互等待时，返回提前暴露的实例
+     */
+    private Object awaitSingleton(String beanName, SingletonCreation creation) throws Exception {
+        Thread current = Thread.currentThread();
+        if (creation.creator == current) {
+            return getEarlyReference(beanName, creation);
+        }
+
+        // 先登记再检查，两个线程同时开始等待时至少有一个能发现环
+        threadsWaitingForSingleton.put(current, beanName);
+        try {
+            if (isWaitingForCurrentThread(creation.creator)) {
+                return getEarlyReference(beanName, creation);
+            }
+            return creation.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Exception("Interrupted while waiting for bean '" + beanName + "'", e);
+        } finally {
+            threadsWaitingForSingleton.remove(current);
+        }
+    }
+
+    /**
+     * 沿着"线程等待的bean -> 创建该bean的线程"往下找，判断是否会回到当前线程
+     */
+    private boolean isWaitingForCurrentThread(Thread creator) {
+        Thread current = Thread.currentThread();
+        Set<Thread> visited = new HashSet<>();
+        for (Thread thread = creator; thread != null && visited.add(thread); ) {
+            if (thread == current) {
+                return true;
+            }
+            String waitingFor = threadsWaitingForSingleton.get(thread);
+            SingletonCreation creation = waitingFor == null ? null : singletonsCurrentlyInCreation.get(waitingFor);
+            thread = creation == null ? null : creation.creator;
+        }
+        return false;
+    }
+
+    /**
+     * 提前暴露的引用由后置处理器决定，例如需要AOP代理的bean提前暴露代理对象；同一个bean只暴露一个引用
+     */
+    private Object getEarlyReference(String beanName, SingletonCreation creation) throws Exception {
+        Object exposed = creation.exposedReference;
+        if (exposed != null) {
+            return exposed;
+        }
+        Object earlyReference = creation.earlyReference;
+        if (earlyReference == null) {
+            // 还在构造方法中，没有可以提前暴露的实例
+            throw new Exception("Bean '" + beanName + "' is currently in creation: Is there an unresolvable circular reference?");
+        }
+        // 后置处理器可能获取其他bean，不在锁里调用；多个线程同时计算时只采用第一个结果
+        Object candidate = getEarlyBeanReference(beanName, earlyReference);
+        synchronized (creation) {
+            if (creation.exposedReference == null) {
+                creation.exposedReference = candidate;
+            }
+            return creation.exposedReference;
+        }
+    }
+
+    /**
+     * 创建bean：实例化、依赖注入、后置处理
+     * @param beanName bean的名称
+     * @param beanDefinition bean的定义
+     * @param creation 当前的创建过程，实例化之后在这里提前暴露实例
+     * @return 最终暴露给使用者的实例
+     */
+    protected Object createBean(String beanName, BeanDefinition beanDefinition, SingletonCreation creation) throws Exception {
+        InjectionMetadata metadata = findInjectionMetadata(loadBeanClass(beanDefinition));
+        Object exposedObject = doCreateBean(beanName, metadata, creation);
+        singletonRegistry.addSingleton(singletonRegistry.getId(beanName), exposedObject);
+        return exposedObject;
+    }
+
+    /**
+     * 实例化、依赖注入、后置处理
+     * @param creation 单例的创建过程，实例化之后在这里提前暴露实例；非单例为null
+     */
+    private Object doCreateBean(String beanName, InjectionMetadata metadata, SingletonCreation creation) throws Exception {
+        StartupStep createStep = startupTimeline.start(StartupTimeline.BEAN_CREATE).tag(StartupTimeline.BEAN_NAME, beanName);
+        try {
+            // 通过构造方法实例化，构造方法的依赖在这里创建
+            StartupStep step = startupTimeline.start("bean.instantiate");
+            Object instance;
+            try {
+                instance = invoke(() -> metadata.instantiate(this));
+            } finally {
+                step.end();
+            }
+
+            // 提前暴露，只对循环依赖可见；完成依赖注入之前不会放入单例池
+            if (creation != null) {
+                creation.earlyReference = instance;
+            }
+
+            // 依赖注入
+            step = startupTimeline.start("bean.inject");
+            try {
+                populateBean(beanName, metadata, new BeanWrapper(instance));
+            } finally {
+                step.end();
+            }
+
+            // 后置处理，例如生成AOP代理
+            step = startupTimeline.start("bean.postProcess");
+            Object exposedObject;
+            try {
+                exposedObject = postProcessBean(beanName, instance);
+            } finally {
+                step.end();
+            }
+            return creation == null ? exposedObject : resolveExposedObject(beanName, instance, exposedObject, creation);
+        } finally {
+            createStep.end();
+        }
+    }
+
+    /**
+     * 循环依赖已经拿到提前暴露的引用时，最终放入容器的必须是同一个对象；还没有暴露过时，之后再来获取的也是最终的对象
+     * @param instance 原始实例
+     * @param exposedObject 后置处理的结果
+     */
+    private Object resolveExposedObject(String beanName, Object instance, Object exposedObject, SingletonCreation creation) throws Exception {
+        synchronized (creation) {
+            Object earlyReference = creation.exposedReference;
+            if (earlyReference == null) {
+                creation.exposedReference = exposedObject;
+                return exposedObject;
+            }
+            if (exposedObject == instance || exposedObject == earlyReference) {
+                return earlyReference;
+            }
+            throw new Exception("Bean '" + beanName + "' has been injected into other beans in its early version as part of "
+                    + "a circular reference, but has eventually been replaced by a post-processor");
+        }
+    }
+
+    /**
+     * 依次调用适用的后置处理器，得到提前暴露给循环依赖的引用
+     */
+    private Object getEarlyBeanReference(String beanName, Object bean) throws Exception {
+        Object result = bean;
+        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessorChain(bean.getClass())) {
+            Object current = beanPostProcessor.getEarlyBeanReference(result, beanName);
+            if (current != null) {
+                result = current;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 加载bean的类，热刷新之后使用最新一代的类加载器；热刷新的线程在重建期间使用还没有生效的新一代类加载器
+     */
+    protected Class<?> loadBeanClass(BeanDefinition beanDefinition) throws ClassNotFoundException {
+        StagedSingletons staged = stagedSingletons;
+        ClassLoader classLoader = staged != null && staged.refreshThread == Thread.currentThread()
+                ? staged.classLoader : beanClassLoader;
+        return Class.forName(beanDefinition.getBeanClassName(), true, classLoader);
+    }
+
+    /**
+     * 获取原型或者其他作用域的bean
+     */
+    private Object getScopedBean(String beanName, BeanDefinition beanDefinition) throws Exception {
+        ObjectFactory<Object> objectFactory = getScopedObjectFactory(beanName, beanDefinition);
+        if (beanDefinition.isPrototype()) {
+            return objectFactory.getObject();
+        }
+        Scope scope = scopes.get(beanDefinition.getScope());
+        if (scope == null) {
+            throw new Exception("No Scope registered for scope name '" + beanDefinition.getScope() + "'");
+        }
+        return scope.get(beanName, objectFactory);
+    }
+
+    /**
+     * 获取非单例bean的实例化过程，类和依赖注入信息只解析一次
+     */
+    private ObjectFactory<Object> getScopedObjectFactory(String beanName, BeanDefinition beanDefinition) throws Exception {
+        ObjectFactory<Object> objectFactory = scopedObjectFactories.get(beanName);
+        if (objectFactory == null) {
+            InjectionMetadata metadata = findInjectionMetadata(loadBeanClass(beanDefinition));
+            objectFactory = () -> createScopedBean(beanName, metadata);
+            ObjectFactory<Object> existing = scopedObjectFactories.putIfAbsent(beanName, objectFactory);
+            if (existing != null) {
+                objectFactory = existing;
+            }
+        }
+        return objectFactory;
+    }
+
+    private Object createScopedBean(String beanName, InjectionMetadata metadata) throws Exception {
+        Set<String> inCreation = scopedBeansCurrentlyInCreation.get();
+        if (!inCreation.add(beanName)) {
+            throw new Exception("Bean '" + beanName + "' is currently in creation: Is there an unresolvable circular reference?");
+        }
+        try {
+            return doCreateBean(beanName, metadata, null);
+        } finally {
+            inCreation.remove(beanName);
+        }
+    }
+
+    /**
+     * 依赖注入，注入类（包括父类）中所有标注了 @Autowired 的属性和方法
+     * @param beanName bean的名称
+     * @param metadata bean的类的依赖注入信息
+     * @param beanWrapper bean封装的wrapper对象
+     */
+    protected void populateBean(String beanName, InjectionMetadata metadata, BeanWrapper beanWrapper) throws Exception {
+        Object instance = beanWrapper.getWrappedInstance();
+        invoke(() -> {
+            metadata.inject(instance, this);
+            return null;
+        });
+    }
+
+    /**
+     * 获取类的依赖注入信息，每个类只解析一次；有编译期生成的代码时优先使用
+     */
+    protected InjectionMetadata findInjectionMetadata(Class<?> clazz) throws Exception {
+        InjectionMetadata metadata = injectionMetadataCache.get(clazz);
+        if (metadata == null) {
+            // 热刷新重新定义的类，编译期生成的代码可能还没有随之更新，使用反射
+            BeanInstantiator instantiator = clazz.getClassLoader() instanceof ReloadableClassLoader
+                    ? null : BeanInstantiatorLoader.loadInstantiator(clazz);
+            metadata = instantiator != null
+                    ? InjectionMetadata.forInstantiator(clazz, instantiator, this::resolveInjectionName)
+                    : InjectionMetadata.forClass(clazz, this::resolveInjectionName, this::resolveValue);
+            InjectionMetadata existing = injectionMetadataCache.putIfAbsent(clazz, metadata);
+            if (existing != null) {
+                metadata = existing;
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * 计算 @Value 的表达式并转换为注入类型，每个类只在解析注入信息时计算一次
+     */
+    private Object resolveValue(String expression, Type type) throws Exception {
+        return TypeConverter.convert(environment.resolveRequiredPlaceholders(expression), type);
+    }
+
+    /**
+     * 解析注入的bean名称，能找到对应BeanDefinition的直接使用真正创建实例的bean名称，获取时可以直接命中单例池
+     */
+    private String resolveInjectionName(Class<?> type, String qualifier) {
+        String name = resolveDependencyName(type, qualifier.trim());
+        String canonicalName = getCanonicalName(name);
+        if (canonicalName == null && qualifier.trim().isEmpty()) {
+            // 按名称找不到时，再按类型查找唯一匹配的bean
+            canonicalName = getCanonicalName(type.getName());
+        }
+        return canonicalName != null ? canonicalName : name;
+    }
+
+    /**
+     * 解析 @Autowired 要注入的bean名称
+     * @param type 被注入的类型
+     * @param qualifier @Autowired 上设定的名称，可能为空
+     * @return bean名称、接口别名或类名
+     */
+    protected abstract String resolveDependencyName(Class<?> type, String qualifier);
+
+    /**
+     * 调用MethodHandle，非受检的Throwable原样抛出
+     */
+    private static Object invoke(HandleInvocation invocation) throws Exception {
+        try {
+            return invocation.invoke();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new Exception(e);
+        }
+    }
+
+    private interface HandleInvocation {
+        Object invoke() throws Throwable;
+    }
+
+    /**
+     * 一个单例的创建过程
+     */
+    protected static final class SingletonCreation {
+
+        /**
+         * 负责创建的线程
+         */
+        private final Thread creator = Thread.currentThread();
+
+        /**
+         * 创建结果，其他线程在这里等待
+         */
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        /**
+         * 已经实例化但还没有完成依赖注入的实例
+         */
+        private volatile Object earlyReference;
+
+        /**
+         * 暴露给循环依赖的引用（经过后置处理器处理）；创建完成时为最终的对象
+         */
+        private volatile Object exposedReference;
+    }
+
+    /**
+     * 热刷新中重建的单例
+     */
+    private static final class StagedSingletons {
+
+        private final Thread refreshThread = Thread.currentThread();
+
+        /**
+         * 需要重建的bean名称
+         */
+        private final Set<String> beanNames;
+
+        /**
+         * 新一代类加载器，全部重建成功后才替换容器的类加载器
+         */
+        private final ReloadableClassLoader classLoader;
+
+        private final Map<String, SingletonCreation> creations = new LinkedHashMap<>();
+
+        private StagedSingletons(Set<String> beanNames, ReloadableClassLoader classLoader) {
+            this.beanNames = beanNames;
+            this.classLoader = classLoader;
+        }
+    }
+
+    /**
+     * 获取重建中的单例，还没有创建时创建它；不需要重建的bean返回null
+     * 需要重建的其他作用域的bean每次用新的类创建一个实例，不放入作用域，作用域中旧的实例在重建成功后才移除
+     */
+    private Object getStagedSingleton(StagedSingletons staged, String beanName) throws Exception {
+        String canonicalName = getCanonicalName(beanName);
+        BeanDefinition beanDefinition = canonicalName == null ? null : beanDefinitionMap.get(canonicalName);
+        if (beanDefinition == null || !staged.beanNames.contains(canonicalName)) {
+            return null;
+        }
+        if (!beanDefinition.isSingleton()) {
+            return createScopedBean(canonicalName, findInjectionMetadata(loadBeanClass(beanDefinition)));
+        }
+        SingletonCreation creation = staged.creations.get(canonicalName);
+        if (creation != null) {
+            // 已经创建完成，或者正在创建（循环依赖）
+            Object instance = creation.result.getNow(null);
+            return instance != null ? instance : getEarlyReference(canonicalName, creation);
+        }
+        creation = new SingletonCreation();
+        staged.creations.put(canonicalName, creation);
+        Object instance = doCreateBean(canonicalName, findInjectionMetadata(loadBeanClass(beanDefinition)), creation);
+        creation.result.complete(instance);
+        return instance;
+    }
+
+    /**
+     * 是否开启热刷新，读取配置 {@link #HOT_REFRESH}
+     */
+    protected boolean isHotRefreshEnabled() {
+        return Boolean.parseBoolean(environment.getProperty(HOT_REFRESH, "false").trim());
+    }
+
+    /**
+     * 开启热刷新：监听扫描包所在的目录，类文件变化时调用 {@link #refreshClasses(Map)}
+     * @param basePackage 扫描包
+     */
+    protected synchronized void startHotRefresh(String basePackage) {
+        if (classFileWatcher != null || StringUtil.isEmpty(basePackage)) {
+            return;
+        }
+        ClassFileWatcher watcher = new ClassFileWatcher(this.getClass().getClassLoader(), basePackage.trim(),
+                HOT_REFRESH_QUIET_PERIOD, this::refreshClasses);
+        try {
+            if (watcher.start()) {
+                classFileWatcher = watcher;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 停止监听类文件
+     */
+    public synchronized void stopHotRefresh() {
+        if (classFileWatcher == null) {
+            return;
+        }
+        try {
+            classFileWatcher.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        classFileWatcher = null;
+    }
+
+    public void addHotRefreshListener(HotRefreshListener listener) {
+        hotRefreshListeners.add(listener);
+    }
+
+    /**
+     * 热刷新：重新读取变化的类，只重建受影响的bean以及直接或间接依赖它们的bean，不重新启动整个容器
+     * 这些bean的类由新一代 {@link ReloadableClassLoader} 重新定义；新的单例在当前线程中全部完成依赖注入之后，
+     * 才替换单例池中旧的实例，在此之前其他线程拿到的一直是旧的实例
+     * 删除类、修改bean名称需要重新启动容器
+     * @param classFiles 变化的类，key：全类名，value：类文件
+     * @return 重建和新注册的bean名称
+     */
+    public synchronized Set<String> refreshClasses(Map<String, File> classFiles) throws Exception {
+        // 1、丢弃旧的字节码元信息，找出类本身、父类或者接口发生变化的bean，新的组件直接注册
+        Set<String> affected = new LinkedHashSet<>();
+        Set<String> registered = new LinkedHashSet<>();
+        Map<String, File> reloadClassFiles = new HashMap<>();
+        for (Map.Entry<String, File> entry : classFiles.entrySet()) {
+            String className = entry.getKey();
+            metadataReaderFactory.evict(className);
+            if (!entry.getValue().exists()) {
+                continue;
+            }
+            reloadClassFiles.put(className, entry.getValue());
+            String beanName = beanNamesByClassName.get(className);
+            if (beanName != null) {
+                refreshBeanType(beanName, className);
+            } else {
+                beanName = registerCandidate(className);
+                if (beanName != null && beanDefinitionMap.containsKey(beanName)) {
+                    registered.add(beanName);
+                }
+            }
+            Collections.addAll(affected, typeIndex.getBeanNamesForType(className));
+        }
+        affected.removeAll(registered);
+        if (!registered.isEmpty()) {
+            // 新注册的bean可能和父上下文中的bean同名
+            parentBeanNames.clear();
+        }
+
+        // 2、依赖受影响bean的bean也要重建，否则它们持有的还是旧的实例
+        affected = collectDependents(affected);
+        if (affected.isEmpty() && registered.isEmpty()) {
+            return affected;
+        }
+
+        // 3、新一代类加载器重新定义这些bean的类，重建期间只有当前线程使用它
+        for (String beanName : affected) {
+            String className = beanDefinitionMap.get(beanName).getBeanClassName();
+            if (!reloadClassFiles.containsKey(className)) {
+                reloadClassFiles.put(className, findClassFile(className));
+            }
+        }
+        ReloadableClassLoader classLoader = new ReloadableClassLoader(beanClassLoader, reloadClassFiles);
+
+        // 4、在当前线程中创建新的单例，只创建原来已经创建过的和非懒加载的；
+        // 任何一个创建失败时丢弃新一代的类，容器保持原来的类加载器、依赖注入信息、作用域和单例
+        StagedSingletons staged = new StagedSingletons(affected, classLoader);
+        stagedSingletons = staged;
+        try {
+            for (String beanName : affected) {
+                BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+                if (beanDefinition.isSingleton() && (getSingleton(beanName) != null || isEagerSingleton(beanDefinition))) {
+                    getBean(beanName);
+                }
+            }
+            for (String beanName : registered) {
+                if (isEagerSingleton(beanDefinitionMap.get(beanName))) {
+                    getBean(beanName);
+                }
+            }
+        } catch (Exception | Error e) {
+            evictClasses(clazz -> clazz.getClassLoader() == classLoader);
+            throw e;
+        } finally {
+            stagedSingletons = null;
+        }
+
+        // 5、新的实例全部就绪，一起替换类加载器、依赖注入信息、作用域中的实例和单例
+        evictClasses(clazz -> clazz.getClassLoader() != classLoader && classLoader.isReloaded(clazz.getName()));
+        beanClassLoader = classLoader;
+        for (String beanName : affected) {
+            scopedObjectFactories.remove(beanName);
+            Scope scope = scopes.get(beanDefinitionMap.get(beanName).getScope());
+            if (scope != null) {
+                scope.remove(beanName);
+            }
+        }
+        for (Map.Entry<String, SingletonCreation> entry : staged.creations.entrySet()) {
+            singletonRegistry.addSingleton(singletonRegistry.getId(entry.getKey()), entry.getValue().result.getNow(null));
+        }
+
+        Set<String> result = new LinkedHashSet<>(affected);
+        result.addAll(registered);
+        for (HotRefreshListener listener : hotRefreshListeners) {
+            listener.onRefresh(result);
+        }
+        return result;
+    }
+
+    /**
+     * 删除按类缓存的依赖注入信息、后置处理器链，并通知后置处理器删除它们自己的缓存
+     * @param classes 判断一个类是否已经被替换
+     */
+    private void evictClasses(Predicate<Class<?>> classes) {
+        injectionMetadataCache.keySet().removeIf(classes);
+        beanPostProcessorChains.keySet().removeIf(classes);
+        for (BeanPostProcessor beanPostProcessor : beanPostProcessors) {
+            beanPostProcessor.evictClasses(classes);
+        }
+    }
+
+    /**
+     * 热刷新时发现的新类，是组件时注册它的BeanDefinition
+     * @return 注册的bean名称，不是组件返回null
+     */
+    protected String registerCandidate(String className) throws Exception {
+        return null;
+    }
+
+    /**
+     * 类变化后重新读取作用域，重新登记类型和注解
+     */
+    private void refreshBeanType(String beanName, String className) {
+        ClassMetadata metadata = metadataReaderFactory.getMetadata(className);
+        if (metadata == null) {
+            return;
+        }
+        String scope = BeanDefinitionReader.resolveScope(metadata);
+        for (BeanDefinition beanDefinition : beanDefinitionMap.values()) {
+            if (className.equals(beanDefinition.getBeanClassName())) {
+                beanDefinition.setScope(scope);
+            }
+        }
+        typeIndex.remove(beanName);
+        registerBeanType(beanName, className);
+    }
+
+    /**
+     * 找出直接或间接依赖这些bean的所有bean
+     * @return 包含这些bean本身
+     */
+    private Set<String> collectDependents(Set<String> beanNames) throws Exception {
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (String beanName : new LinkedHashSet<>(beanNamesByClassName.values())) {
+            for (String dependency : getDependencyNames(beanName, beanDefinitionMap.get(beanName))) {
+                String dependencyName = getCanonicalName(dependency);
+                if (dependencyName != null) {
+                    dependents.computeIfAbsent(dependencyName, k -> new LinkedHashSet<>()).add(beanName);
+                }
+            }
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(beanNames);
+        while (!queue.isEmpty()) {
+            String beanName = queue.poll();
+            if (result.add(beanName)) {
+                queue.addAll(dependents.getOrDefault(beanName, Collections.emptySet()));
+            }
+        }
+        return result;
+    }
+
+    private File findClassFile(String className) throws Exception {
+        URL url = this.getClass().getClassLoader().getResource(className.replace('.', '/') + ".class");
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new Exception("Class " + className + " is not loaded from a directory and cannot be refreshed");
+        }
+        return new File(url.toURI());
+    }
+
+    /**
+     * 注册后置处理器，之后创建的bean生效
+     */
+    public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+        beanPostProcessors.remove(beanPostProcessor);
+        beanPostProcessors.add(beanPostProcessor);
+        beanPostProcessorChains.clear();
+    }
+
+    /**
+     * 把声明为组件的后置处理器注册到容器，在创建其他单例之前调用
+     */
+    protected void registerBeanPostProcessors() throws Exception {
+        for (String beanName : getBeanNamesForType(BeanPostProcessor.class)) {
+            if (beanDefinitionMap.get(beanName).isSingleton()) {
+                BeanPostProcessor beanPostProcessor = (BeanPostProcessor) getBean(beanName);
+                if (!beanPostProcessors.contains(beanPostProcessor)) {
+                    addBeanPostProcessor(beanPostProcessor);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取类适用的后置处理器链，每个类只计算一次
+     */
+    private BeanPostProcessor[] getBeanPostProcessorChain(Class<?> beanClass) {
+        BeanPostProcessor[] chain = beanPostProcessorChains.get(beanClass);
+        if (chain == null) {
+            List<BeanPostProcessor> applicable = new ArrayList<>();
+            for (BeanPostProcessor beanPostProcessor : beanPostProcessors) {
+                if (beanPostProcessor.supports(beanClass)) {
+                    applicable.add(beanPostProcessor);
+                }
+            }
+            chain = applicable.toArray(new BeanPostProcessor[0]);
+            beanPostProcessorChains.put(beanClass, chain);
+        }
+        return chain;
+    }
+
+    /**
+     * bean完成依赖注入后的处理，依次调用适用的后置处理器，返回值会替换原来的实例放入容器
+     */
+    protected Object postProcessBean(String beanName, Object bean) throws Exception {
+        BeanPostProcessor[] chain = getBeanPostProcessorChain(bean.getClass());
+        if (chain.length == 0) {
+            return bean;
+        }
+        Object result = bean;
+        for (BeanPostProcessor beanPostProcessor : chain) {
+            Object current = beanPostProcessor.postProcessBeforeInitialization(result, beanName);
+            if (current != null) {
+                result = current;
+            }
+        }
+        for (BeanPostProcessor beanPostProcessor : chain) {
+            Object current = beanPostProcessor.postProcessAfterInitialization(result, beanName);
+            if (current != null) {
+                result = current;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否开启并行启动，读取配置 {@link #PARALLEL_STARTUP}
+     */
+    protected boolean isParallelStartup() {
+        return Boolean.parseBoolean(environment.getProperty(PARALLEL_STARTUP, "false").trim());
+    }
+
+    /**
+     * 把不是延时加载的类，提前初始化
+     */
+    protected void preInstantiateSingletons() throws Exception {
+        boolean parallel = isParallelStartup();
+        StartupStep step = startupTimeline.start("context.preInstantiate").tag("parallel", String.valueOf(parallel));
+        try {
+            registerBeanPostProcessors();
+            if (parallel) {
+                preInstantiateSingletonsInParallel();
+            } else {
+                for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
+                    if (isEagerSingleton(entry.getValue())) {
+                        getBean(entry.getKey());
+                    }
+                }
+            }
+            prewarmPools();
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * 启动结束：停止记录时间线，计算依赖关键路径，配置了输出路径时写出JSON文件
+     */
+    protected void finishStartup() {
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        try {
+            DependencyGraph graph = buildDependencyGraph();
+            for (String beanName : graph.getBeanNames()) {
+                dependencies.put(beanName, graph.getDependencies(beanName));
+            }
+        } catch (Exception e) {
+            // 启动失败时依赖可能无法解析，只保留已经记录的步骤
+            dependencies = null;
+        }
+        startupTimeline.finish(dependencies);
+
+        String dump = getStartupDumpLocation();
+        if (!StringUtil.isEmpty(dump)) {
+            try {
+                startupTimeline.writeJson(new File(dump.trim()));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 启动时间线JSON文件的输出路径，读取配置 {@link #STARTUP_DUMP}
+     */
+    protected String getStartupDumpLocation() {
+        return environment.getProperty(STARTUP_DUMP);
+    }
+
+    public StartupTimeline getStartupTimeline() {
+        return startupTimeline;
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * 非懒加载的pooled作用域bean，启动时预先创建实例放入池中
+     */
+    private void prewarmPools() throws Exception {
+        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
+            BeanDefinition beanDefinition = entry.getValue();
+            Scope scope = scopes.get(beanDefinition.getScope());
+            // 同一个类的多个BeanDefinition只预热一次
+            if (beanDefinition.isLazyInit() || !(scope instanceof PooledScope)
+                    || !entry.getKey().equals(getCanonicalName(entry.getKey()))) {
+                continue;
+            }
+            ((PooledScope) scope).prewarm(entry.getKey(), getScopedObjectFactory(entry.getKey(), beanDefinition));
+        }
+    }
+
+    /**
+     * 根据 @Autowired 构建依赖图并拓扑排序，同一层的bean互不依赖，在ForkJoinPool中并行创建；
+     * 创建下一层之前，上一层的bean已经全部完成依赖注入
+     */
+    protected void preInstantiateSingletonsInParallel() throws Exception {
+        DependencyGraph graph = buildDependencyGraph();
+        List<List<String>> levels = graph.sortLevels();
+
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            for (List<String> level : levels) {
+                if (level.size() == 1) {
+                    getBean(level.get(0));
+                    continue;
+                }
+                List<Future<Object>> futures = new ArrayList<>(level.size());
+                for (String beanName : level) {
+                    futures.add(pool.submit(() -> getBean(beanName)));
+                }
+                for (Future<Object> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        throw cause instanceof Exception ? (Exception) cause : e;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 构建非懒加载bean之间的依赖图，同一个类的多个BeanDefinition只保留一个节点
+     */
+    protected DependencyGraph buildDependencyGraph() throws Exception {
+        DependencyGraph graph = new DependencyGraph();
+        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
+            if (!isEagerSingleton(entry.getValue())) {
+                continue;
+            }
+            String beanName = getCanonicalName(entry.getKey());
+            graph.addBean(beanName);
+            for (String dependency : getDependencyNames(beanName, entry.getValue())) {
+                String dependencyName = getCanonicalName(dependency);
+                // 懒加载和非单例的依赖在注入时按需创建，不参与排序
+                if (dependencyName != null && isEagerSingleton(beanDefinitionMap.get(dependencyName))) {
+                    graph.addDependency(beanName, dependencyName);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 获取bean依赖注入的所有bean名称
+     */
+    protected Collection<String> getDependencyNames(String beanName, BeanDefinition beanDefinition) throws Exception {
+        return findInjectionMetadata(loadBeanClass(beanDefinition)).getDependencyNames();
+    }
+
+    /**
+     * 是否需要在启动时创建：非懒加载的单例
+     */
+    protected static boolean isEagerSingleton(BeanDefinition beanDefinition) {
+        return beanDefinition.isSingleton() && !beanDefinition.isLazyInit();
+    }
+}
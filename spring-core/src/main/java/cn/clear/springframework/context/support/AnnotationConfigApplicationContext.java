@@ -1,143 +1,125 @@
 package cn.clear.springframework.context.support;
 
-import cn.clear.springframework.annotation.Autowired;
 import cn.clear.springframework.annotation.Component;
 import cn.clear.springframework.annotation.ComponentScan;
-import cn.clear.springframework.beans.BeanWrapper;
 import cn.clear.springframework.beans.config.BeanDefinition;
+import cn.clear.springframework.beans.support.BeanDefinitionReader;
+import cn.clear.springframework.beans.support.ConditionEvaluator;
+import cn.clear.springframework.context.index.CandidateComponentsIndex;
+import cn.clear.springframework.context.index.CandidateComponentsIndexLoader;
 import cn.clear.springframework.core.factory.ApplicationContext;
+import cn.clear.springframework.core.io.ClassPathScanner;
+import cn.clear.springframework.core.metrics.StartupStep;
+import cn.clear.springframework.core.type.classreading.AnnotationAttributes;
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
 import cn.clear.springframework.util.StringUtil;
 
 import java.beans.Introspector;
-import java.io.File;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.net.URL;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
-public class AnnotationConfigApplicationContext implements ApplicationContext {
-    /**
-     * Bean名和它对应的BeanDefinition键值对
-     */
-    private final ConcurrentHashMap<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
+public class AnnotationConfigApplicationContext extends AbstractApplicationContext {
 
     /**
-     * 单例池；map存各Bean名所对应的Bean实例
+     * 条件注解的判断，没有配置文件，属性从配置环境（系统属性、环境变量）中读取
      */
-    private final ConcurrentHashMap<String, BeanWrapper> singletonObjects = new ConcurrentHashMap<>();
-
+    private final ConditionEvaluator conditionEvaluator = new ConditionEvaluator(environment, this.getClass().getClassLoader());
 
     public AnnotationConfigApplicationContext(Class<?> config) throws Exception {
-        // 解析配置类
-        if (config.isAnnotationPresent(ComponentScan.class)) {
-            ComponentScan componentScan = config.getAnnotation(ComponentScan.class);
-            String path = componentScan.value();
-            doScanner(path);
-        }
-        
-        // 实例化bean
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-            String beanName = entry.getKey();
-            if (!entry.getValue().isLazyInit()) {
-                getBean(beanName);
-            }
-        }
+        this(config, null);
     }
-    
-    public void doScanner(String path) throws Exception {
-        URL url = this.getClass().getClassLoader().getResource(path.replace(".", "/"));
-        File file = new File(url.getFile());
-        for (File listFile : file.listFiles()) {
-            if (listFile.isDirectory()) {
-                doScanner(path + "." + listFile.getName());
-            } else {
-                if (listFile.getName().endsWith(".class")) {
-                    String className = (path + "." + listFile.getName().replace(".class", ""));
-                    Class<?> clazz = Class.forName(className);
-                    if (clazz.isInterface()) {
-                        continue;
-                    }
-                    
-                    Annotation[] annotations = clazz.getAnnotations();
-                    for (Annotation annotation : annotations) {
-                        Class<? extends Annotation> annotationType = annotation.annotationType();
-                        Component component = null;
-                        if (annotationType == Component.class) {
-                            component = (Component) annotation;
-                        } else if (annotationType.isAnnotationPresent(Component.class)) {
-                            component = annotationType.getAnnotation(Component.class);
-                        }
-                        
-                        if (component != null) {
-                            String beanName = component.value().trim();
-                            if (StringUtil.isEmpty(beanName)) {
-                                beanName = Introspector.decapitalize(clazz.getSimpleName());
-                            }
 
-                            if (beanDefinitionMap.containsKey(beanName)) {
-                                throw new Exception("Duplicate Bean '" + beanName + "'");
-                            } else {
-                                beanDefinitionMap.put(beanName, new BeanDefinition(clazz.getName(), beanName));
-                            }
+    /**
+     * @param config 配置类
+     * @param parent 父上下文，父上下文中已经有的类不再重复创建
+     */
+    public AnnotationConfigApplicationContext(Class<?> config, ApplicationContext parent) throws Exception {
+        super(parent);
+        StartupStep refresh = startupTimeline.start("context.refresh");
+        try {
+            // 按配置环境设定对象池的大小
+            registerPooledScope();
+
+            // 解析配置类
+            if (config.isAnnotationPresent(ComponentScan.class)) {
+                ComponentScan componentScan = config.getAnnotation(ComponentScan.class);
+                String path = componentScan.value();
+                StartupStep step = startupTimeline.start("context.scan").tag("package", path);
+                try {
+                    // 优先使用编译期生成的组件索引，没有索引时再扫描类路径
+                    CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(this.getClass().getClassLoader());
+                    if (index != null) {
+                        for (String className : index.getCandidateTypes(path, Component.class.getName())) {
+                            doRegister(className);
                         }
+                    } else {
+                        doScanner(path);
                     }
+                } finally {
+                    step.end();
                 }
             }
+
+            // 实例化bean
+            preInstantiateSingletons();
+
+            // 开启热刷新时监听扫描目录
+            if (isHotRefreshEnabled() && config.isAnnotationPresent(ComponentScan.class)) {
+                startHotRefresh(config.getAnnotation(ComponentScan.class).value());
+            }
+        } finally {
+            refresh.end();
+            finishStartup();
         }
     }
     
-    
-    @Override
-    public Object getBean(String name) throws Exception {
-        // 已经加载了，直接返回
-        if (singletonObjects.containsKey(name)) {
-            return singletonObjects.get(name).getWrappedInstance();
+    /**
+     * 扫描包下所有的类，支持目录和jar包
+     */
+    public void doScanner(String path) throws Exception {
+        for (String className : new ClassPathScanner(this.getClass().getClassLoader()).scan(path)) {
+            doRegister(className);
         }
-        
-        // 创建bean
-        return createBean(name);
     }
 
-    @Override
-    public <T> T getBean(Class<T> requiredType) throws Exception {
-        return null;
-    }
-    
-    public Object createBean(String beanName) throws Exception {
-        // 获取BeanDefinition
-        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
-        if (beanDefinition == null) {
-            throw new Exception("Bean " + beanName + " is not found");
+    /**
+     * 如果类上有 @Component 注解（或被 @Component 标注的注解），注册它的BeanDefinition
+     * 只读取类的字节码，不会加载该类
+     * @return 注册的bean名称，不是组件返回null
+     */
+    private String doRegister(String className) throws Exception {
+        ClassMetadata metadata = metadataReaderFactory.getMetadata(className);
+        if (metadata == null || !metadata.isConcrete()) {
+            return null;
         }
-        String beanClassName = beanDefinition.getBeanClassName();
-        
-        // 创建容器
-        Class<?> clazz = Class.forName(beanClassName);
-        Object instance = clazz.newInstance();
         
-        // 添加到容器中
-        BeanWrapper beanWrapper = new BeanWrapper(instance);
-        singletonObjects.put(beanName, beanWrapper);
-        singletonObjects.put(beanDefinition.getBeanClassName(), beanWrapper);
-
-        // 依赖注入
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Autowired.class)) {
-                Autowired autowired = field.getAnnotation(Autowired.class);
-                String fieldBeanName = autowired.value().trim();
-                if (StringUtil.isEmpty(fieldBeanName)) {
-                    fieldBeanName = Introspector.decapitalize(field.getType().getSimpleName());
-                }
-
-                // 强制访问该成员变量
-                field.setAccessible(true);
-
-                field.set(instance, getBean(fieldBeanName));
+        AnnotationAttributes component = metadataReaderFactory.findAnnotation(metadata, Component.class.getName());
+        if (component != null && !conditionEvaluator.shouldSkip(metadata)) {
+            String beanName = component.containsKey("value") ? component.getString("value").trim() : "";
+            if (StringUtil.isEmpty(beanName)) {
+                beanName = Introspector.decapitalize(metadata.getSimpleName());
             }
+
+            BeanDefinition beanDefinition = new BeanDefinition(metadata.getClassName(), beanName);
+            beanDefinition.setScope(BeanDefinitionReader.resolveScope(metadata));
+            registerBeanDefinition(beanName, beanDefinition);
+            return beanName;
         }
-        
-        return instance;
+        return null;
+    }
+
+    /**
+     * 热刷新时发现的新类
+     */
+    @Override
+    protected String registerCandidate(String className) throws Exception {
+        return doRegister(className);
+    }
+    
+    
+    /**
+     * 没有设定注入的bean名称时，按属性类型的简单类名（首字母小写）注入
+     */
+    @Override
+    protected String resolveDependencyName(Class<?> type, String qualifier) {
+        return StringUtil.isEmpty(qualifier) ? Introspector.decapitalize(type.getSimpleName()) : qualifier;
     }
 }
@@ -0,0 +1,219 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.beans.config.BeanDefinition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 容器启动结果的快照：BeanDefinition、类型索引以及依赖注入的bean名称
+ * 以类路径指纹和配置文件哈希为键，两者都没有变化、并且条件注解读取过的属性和类也没有变化时，
+ * 下次启动直接读取快照，不再扫描类路径和读取类的字节码
+ *
+ * 文件格式（DataOutputStream）：
+ * magic、version、类路径指纹、配置哈希、条件属性列表、条件类列表、BeanDefinition列表、类型索引、依赖列表
+ */
+public class ContextSnapshot {
+
+    private static final int MAGIC = 0x53505353;
+
+    private static final int VERSION = 3;
+
+    private final long classPathFingerprint;
+
+    private final long configHash;
+
+    /**
+     * 条件注解读取过的属性，key：属性名，value：当时的值，不存在时为null
+     */
+    private final Map<String, String> conditionProperties = new LinkedHashMap<>();
+
+    /**
+     * 条件注解查找过的类，key：全类名，value：当时是否存在
+     */
+    private final Map<String, Boolean> conditionClasses = new LinkedHashMap<>();
+
+    private final List<BeanDefinition> beanDefinitions = new ArrayList<>();
+
+    /**
+     * key：bean名称，value：[类型名称数组, 注解名称数组]
+     */
+    private final Map<String, String[][]> beanTypes = new LinkedHashMap<>();
+
+    /**
+     * key：bean名称，value：依赖注入的bean名称
+     */
+    private final Map<String, String[]> dependencyNames = new LinkedHashMap<>();
+
+    public ContextSnapshot(long classPathFingerprint, long configHash) {
+        this.classPathFingerprint = classPathFingerprint;
+        this.configHash = configHash;
+    }
+
+    /**
+     * 读取快照
+     * @return 快照不存在、格式不对或者指纹不一致时返回null
+     */
+    public static ContextSnapshot read(File file, long classPathFingerprint, long configHash) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != classPathFingerprint || in.readLong() != configHash) {
+                return null;
+            }
+            ContextSnapshot snapshot = new ContextSnapshot(classPathFingerprint, configHash);
+            for (int i = in.readInt(); i > 0; i--) {
+                String key = in.readUTF();
+                snapshot.conditionProperties.put(key, in.readBoolean() ? in.readUTF() : null);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                snapshot.conditionClasses.put(in.readUTF(), in.readBoolean());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                BeanDefinition beanDefinition = new BeanDefinition(in.readUTF(), in.readUTF());
+                beanDefinition.setScope(in.readUTF());
+                beanDefinition.setLazyInit(in.readBoolean());
+                snapshot.beanDefinitions.add(beanDefinition);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                snapshot.beanTypes.put(in.readUTF(), new String[][]{readStrings(in), readStrings(in)});
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                snapshot.dependencyNames.put(in.readUTF(), readStrings(in));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 写入快照，先写临时文件再改名，其他进程不会读到写了一半的文件
+     */
+    public void write(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(classPathFingerprint);
+            out.writeLong(configHash);
+            out.writeInt(conditionProperties.size());
+            for (Map.Entry<String, String> entry : conditionProperties.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeBoolean(entry.getValue() != null);
+                if (entry.getValue() != null) {
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            out.writeInt(conditionClasses.size());
+            for (Map.Entry<String, Boolean> entry : conditionClasses.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeBoolean(entry.getValue());
+            }
+            out.writeInt(beanDefinitions.size());
+            for (BeanDefinition beanDefinition : beanDefinitions) {
+                out.writeUTF(beanDefinition.getBeanClassName());
+                out.writeUTF(beanDefinition.getFactoryBeanName());
+                out.writeUTF(beanDefinition.getScope());
+                out.writeBoolean(beanDefinition.isLazyInit());
+            }
+            out.writeInt(beanTypes.size());
+            for (Map.Entry<String, String[][]> entry : beanTypes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeStrings(out, entry.getValue()[0]);
+                writeStrings(out, entry.getValue()[1]);
+            }
+            out.writeInt(dependencyNames.size());
+            for (Map.Entry<String, String[]> entry : dependencyNames.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeStrings(out, entry.getValue());
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Cannot rename " + tmp + " to " + file);
+            }
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] result = new String[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = in.readUTF();
+        }
+        return result;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * @return 条件注解读取过的属性及其当时的值
+     */
+    public Map<String, String> getConditionProperties() {
+        return conditionProperties;
+    }
+
+    /**
+     * @return 条件注解查找过的类及其当时是否存在
+     */
+    public Map<String, Boolean> getConditionClasses() {
+        return conditionClasses;
+    }
+
+    /**
+     * 记录条件注解的判断依据，下次启动时这些属性或者类有变化就不使用快照
+     */
+    public void setConditions(Map<String, String> properties, Map<String, Boolean> classes) {
+        conditionProperties.clear();
+        conditionProperties.putAll(properties);
+        conditionClasses.clear();
+        conditionClasses.putAll(classes);
+    }
+
+    public List<BeanDefinition> getBeanDefinitions() {
+        return beanDefinitions;
+    }
+
+    public void addBeanDefinition(BeanDefinition beanDefinition) {
+        beanDefinitions.add(beanDefinition);
+    }
+
+    /**
+     * @return [类型名称数组, 注解名称数组]，没有记录返回null
+     */
+    public String[][] getBeanTypes(String beanName) {
+        return beanTypes.get(beanName);
+    }
+
+    public void addBeanTypes(String beanName, String[] typeNames, String[] annotationNames) {
+        beanTypes.put(beanName, new String[][]{typeNames, annotationNames});
+    }
+
+    public String[] getDependencyNames(String beanName) {
+        return dependencyNames.get(beanName);
+    }
+
+    public void addDependencyNames(String beanName, String[] names) {
+        dependencyNames.put(beanName, names);
+    }
+}
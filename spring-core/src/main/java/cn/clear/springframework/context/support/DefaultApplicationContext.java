@@ -1,27 +1,39 @@
 package cn.clear.springframework.context.support;
 
-import cn.clear.springframework.annotation.Autowired;
-import cn.clear.springframework.aop.AopProxy;
-import cn.clear.springframework.aop.CglibAopProxy;
-import cn.clear.springframework.aop.JdkDynamicAopProxy;
+import cn.clear.springframework.aop.AopProxyPostProcessor;
 import cn.clear.springframework.aop.config.AopConfig;
-import cn.clear.springframework.aop.support.AdvisedSupport;
-import cn.clear.springframework.beans.BeanWrapper;
+import cn.clear.springframework.aop.metrics.MethodMetrics;
 import cn.clear.springframework.beans.config.BeanDefinition;
 import cn.clear.springframework.beans.support.BeanDefinitionReader;
+import cn.clear.springframework.beans.support.ConditionEvaluator;
+import cn.clear.springframework.context.index.CandidateComponentsIndexLoader;
 import cn.clear.springframework.core.factory.ApplicationContext;
+import cn.clear.springframework.core.io.ClassPathFingerprint;
+import cn.clear.springframework.core.metrics.StartupStep;
 import cn.clear.springframework.util.StringUtil;
-import cn.clear.springframework.webmvc.servlet.ViewResolver;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+
+public class DefaultApplicationContext extends AbstractApplicationContext {
+    /**
+     * 启动快照开关，开启后启动成功时保存快照，类路径和配置都没有变化时下次启动直接使用快照
+     */
+    public static final String SNAPSHOT_ENABLED = "spring.context.snapshot";
+
+    /**
+     * 启动快照的文件路径，默认放在临时目录
+     */
+    public static final String SNAPSHOT_LOCATION = "spring.context.snapshot.location";
 
-public class DefaultApplicationContext implements ApplicationContext {
     /**
      * 配置文件路径
      */
@@ -29,74 +41,111 @@ public class DefaultApplicationContext implements ApplicationContext {
 
     BeanDefinitionReader reader;
 
-    private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
+    /**
+     * 本次启动注册的BeanDefinition，按注册顺序保存到快照
+     */
+    private List<BeanDefinition> beanDefinitions;
+
+    /**
+     * 本次启动使用的快照，没有使用快照为null
+     */
+    private ContextSnapshot snapshot;
+
+    /**
+     * 方法耗时统计，配置 spring.aop.metrics=true 时启用，否则为null
+     */
+    private MethodMetrics methodMetrics;
+
+    private long classPathFingerprint;
 
-    private Map<String, BeanWrapper> factoryBeanInstanceCache = new ConcurrentHashMap<>();
+    private long configHash;
 
 
     public DefaultApplicationContext(String configLocation) {
+        this(configLocation, null);
+    }
+
+    /**
+     * @param configLocation 配置文件路径
+     * @param parent 父上下文，父上下文中已经有的类不再重复创建
+     */
+    public DefaultApplicationContext(String configLocation, ApplicationContext parent) {
+        super(parent);
         this.configLocation = configLocation;
+        StartupStep step = startupTimeline.start("context.refresh");
         try {
             refresh();
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            step.end();
+            finishStartup();
         }
     }
 
     private void refresh() throws Exception {
         // 1、定位配置文件
-        reader = new BeanDefinitionReader(this.configLocation);
+        StartupStep step = startupTimeline.start("context.loadConfig");
+        try {
+            // 配置文件的优先级低于系统属性和环境变量
+            reader = new BeanDefinitionReader(this.metadataReaderFactory, environment, this.configLocation);
+        } finally {
+            step.end();
+        }
+
+        // 按配置设定对象池的大小
+        registerPooledScope();
 
-        // 2、加载配置文件，扫描相关的类，把它们封装成BeanDefinition
-        List<BeanDefinition> beanDefinitions = reader.loadBeanDefinitions();
+        // 配置了切面时，由后置处理器为符合切点的bean生成代理
+        AopConfig aopConfig = getAopConfig();
+        if (aopConfig != null) {
+            AopProxyPostProcessor aopProxyPostProcessor = new AopProxyPostProcessor(aopConfig, this);
+            methodMetrics = aopProxyPostProcessor.getAdvisor().getMethodMetrics();
+            addBeanPostProcessor(aopProxyPostProcessor);
+        }
+
+        // 2、有可用的启动快照时直接使用，否则扫描相关的类，把它们封装成BeanDefinition
+        step = startupTimeline.start("context.snapshot.load");
+        try {
+            beanDefinitions = loadSnapshot();
+        } finally {
+            step.end();
+        }
+        if (beanDefinitions == null) {
+            step = startupTimeline.start("context.scan").tag("package", String.valueOf(reader.getScanPackage()));
+            try {
+                reader.loadCandidates();
+            } finally {
+                step.end();
+            }
+            step = startupTimeline.start("context.loadDefinitions");
+            try {
+                beanDefinitions = reader.loadBeanDefinitions();
+            } finally {
+                step.end();
+            }
+        }
 
         // 3、注册，把配置信息放到容器里面(伪IOC容器)
-        doRegisterBeanDefinition(beanDefinitions);
+        step = startupTimeline.start("context.registerDefinitions");
+        try {
+            doRegisterBeanDefinition(beanDefinitions);
+        } finally {
+            step.end();
+        }
 
         // 4、把不是延时加载的类，提前初始化
         doAutowired();
-    }
 
-    @Override
-    public Object getBean(String beanName) throws Exception {
-        // 已经加载到容器了，直接返回
-        Object instance = getSingleton(beanName);
-        if (instance != null) {
-            return instance;
+        // 5、开启热刷新时监听扫描目录
+        if (isHotRefreshEnabled()) {
+            startHotRefresh(reader.getScanPackage());
         }
-
-        // 获取bean的定义
-        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
-
-        // 创建该bean的一个实例
-        instance = instantiateBean(beanName, beanDefinition);
-
-        // 封装成beanWrapper
-        BeanWrapper beanWrapper = new BeanWrapper(instance);
-        
-        // 添加到容器中，bean的名称
-        factoryBeanInstanceCache.put(beanName, beanWrapper);
-        // 添加到容器中，bean的类路径
-        factoryBeanInstanceCache.put(beanDefinition.getBeanClassName(), beanWrapper);
-        
-        // 依赖注入
-        populateBean(beanName, beanDefinition, beanWrapper);
-
-        // 返回完成的bean
-        return factoryBeanInstanceCache.get(beanName).getWrappedInstance();
     }
 
-    @Override
-    public <T> T getBean(Class<T> requiredType) throws Exception {
-        return (T) getBean(requiredType.getName());
-    }
-    
     private void doRegisterBeanDefinition(List<BeanDefinition> beanDefinitions) throws Exception {
         for (BeanDefinition beanDefinition : beanDefinitions) {
-            if (beanDefinitionMap.containsKey(beanDefinition.getFactoryBeanName())) {
-                throw new Exception("The \"" + beanDefinition.getFactoryBeanName() + "\" is exists!!");
-            }
-            beanDefinitionMap.put(beanDefinition.getFactoryBeanName(), beanDefinition);
+            registerBeanDefinition(beanDefinition.getFactoryBeanName(), beanDefinition);
         }
     }
 
@@ -104,131 +153,182 @@ public class DefaultApplicationContext implements ApplicationContext {
      * 加载非延迟加载的bean
      */
     private void doAutowired() {
-        // 遍历扫描到的bean定义，进行初始化
-        for (Map.Entry<String, BeanDefinition> beanDefinitionEntry : beanDefinitionMap.entrySet()) {
-            String beanName = beanDefinitionEntry.getKey();
-            // 加载非懒加载的bean
-            if (!beanDefinitionEntry.getValue().isLazyInit()) {
-                try {
-                    getBean(beanName);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        try {
+            preInstantiateSingletons();
+            StartupStep step = startupTimeline.start("context.snapshot.save");
+            try {
+                saveSnapshot();
+            } finally {
+                step.end();
             }
+        } catch (Exception e) {
+            e.printStackTrace();
         }
     }
 
     /**
-     * 获取bean的一个实例
-     * @param beanName bean的名称或者类路径
-     * @return bean的实例
+     * 读取启动快照
+     * @return 快照中的BeanDefinition，没有开启、不存在或者已经过期时返回null
      */
-    private Object getSingleton(String beanName) {
-        BeanWrapper beanWrapper = factoryBeanInstanceCache.get(beanName);
-        return beanWrapper == null ? null : beanWrapper.getWrappedInstance();
+    private List<BeanDefinition> loadSnapshot() {
+        if (!isSnapshotEnabled()) {
+            return null;
+        }
+        try {
+            classPathFingerprint = ClassPathFingerprint.compute(this.getClass().getClassLoader(),
+                    reader.getScanPackage(), CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            // 配置文件中的属性按解析后的值计算哈希，被系统属性、环境变量覆盖或者占位符的值变化时快照失效
+            Properties config = new Properties();
+            for (String key : reader.getConfig().stringPropertyNames()) {
+                config.setProperty(key, environment.getProperty(key, ""));
+            }
+            config.setProperty(ConditionEvaluator.ACTIVE_PROFILES, String.join(",", reader.getConditionEvaluator().getActiveProfiles()));
+            configHash = ClassPathFingerprint.hash(config);
+            snapshot = ContextSnapshot.read(getSnapshotFile(), classPathFingerprint, configHash);
+            // 只设置在系统属性、环境变量中的条件属性，或者 @ConditionalOnClass 指定的类所在的jar变化，都不在指纹和哈希中
+            if (snapshot != null && !reader.getConditionEvaluator().isUnchanged(
+                    snapshot.getConditionProperties(), snapshot.getConditionClasses())) {
+                snapshot = null;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        return snapshot.getBeanDefinitions();
     }
 
     /**
-     * 初始化bean
-     * @param beanName bean的名称
-     * @param beanDefinition bean的定义
-     * @return bean的实例
+     * 启动成功后保存快照，本次启动已经使用了快照时不再重复保存
      */
-    private Object instantiateBean(String beanName, BeanDefinition beanDefinition) {
-        String beanClassName = beanDefinition.getBeanClassName();
-        
-        Object instance = null;
+    private void saveSnapshot() throws Exception {
+        if (!isSnapshotEnabled() || snapshot != null) {
+            return;
+        }
+        ContextSnapshot result = new ContextSnapshot(classPathFingerprint, configHash);
+        ConditionEvaluator conditionEvaluator = reader.getConditionEvaluator();
+        result.setConditions(conditionEvaluator.getEvaluatedProperties(), conditionEvaluator.getEvaluatedClasses());
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            result.addBeanDefinition(beanDefinition);
+            String beanName = beanDefinition.getFactoryBeanName();
+            String[][] types = getTypeIndex().getTypes(beanName);
+            if (types != null) {
+                result.addBeanTypes(beanName, types[0], types[1]);
+            }
+            // 依赖只记录启动时已经解析过的非懒加载单例，不为了写快照提前加载其他类
+            if (beanName.equals(getCanonicalName(beanName)) && isEagerSingleton(beanDefinition)) {
+                result.addDependencyNames(beanName, getDependencyNames(beanName, beanDefinition).toArray(new String[0]));
+            }
+        }
         try {
-            Class<?> aClass = Class.forName(beanClassName);
-            instance = aClass.newInstance();
+            result.write(getSnapshotFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            AdvisedSupport aopConfig = getAopConfig();
-            if (aopConfig != null) {
-                aopConfig.setTargetClass(aClass);
-                aopConfig.setTarget(instance);
+    private boolean isSnapshotEnabled() {
+        return Boolean.parseBoolean(environment.getProperty(SNAPSHOT_ENABLED, "false").trim())
+                && !StringUtil.isEmpty(reader.getScanPackage());
+    }
 
-                if (aopConfig.pointCutMatch()) {
-                    instance = createProxy(aopConfig).getProxy();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * 没有配置路径时，使用临时目录下以配置文件位置命名的文件，同一台机器上的多个应用互不影响
+     */
+    private File getSnapshotFile() {
+        String location = environment.getProperty(SNAPSHOT_LOCATION);
+        if (!StringUtil.isEmpty(location)) {
+            return new File(location.trim());
         }
-        
-        return instance;
+        URL config = this.getClass().getClassLoader().getResource(configLocation.replace("classpath:", ""));
+        String key = config == null ? configLocation : config.toString();
+        return new File(System.getProperty("java.io.tmpdir"), "spring-context-" + Integer.toHexString(key.hashCode()) + ".snapshot");
     }
 
     /**
-     * 依赖注入
-     * @param beanName bean的名称
-     * @param beanDefinition bean的定义
-     * @param beanWrapper bean封装的wrapper对象
+     * 热刷新之后快照中的类型和依赖信息都可能过期，不再使用
      */
-    private void populateBean(String beanName, BeanDefinition beanDefinition, BeanWrapper beanWrapper) {
-        // 获取bean的类信息
-        Class<?> clazz = beanWrapper.getWrappedClass();
-        
-        // 获取该类所有的属性
-        Field[] fields = clazz.getFields();
-        for (Field field : fields) {
-            // 如果属性上没有 @Autowired，不注入，跳过
-            if (!field.isAnnotationPresent(Autowired.class)) {
-                continue;
-            }
+    @Override
+    public synchronized Set<String> refreshClasses(Map<String, File> classFiles) throws Exception {
+        snapshot = null;
+        return super.refreshClasses(classFiles);
+    }
 
-            // 获取该属性上 Autowired 注解的信息
-            Autowired autowired = field.getAnnotation(Autowired.class);
-            // 获取注解设定的值
-            String autowiredBeanName = autowired.value().trim();
-            // 如果注解没有设定值，默认使用属性名称进行注入
-            if (autowiredBeanName.isEmpty()) {
-                autowiredBeanName = field.getType().getName();
-            }
-            
-            // 强制访问该成员变量
-            field.setAccessible(true);
-            
-            try {
-                if (factoryBeanInstanceCache.get(autowiredBeanName) != null) {
-                    continue;
-                }
-
-                // 将容器中的实例注入到成员变量中
-                field.set(beanWrapper.getWrappedInstance(), factoryBeanInstanceCache.get(autowiredBeanName).getWrappedInstance());
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+    /**
+     * 热刷新时发现的新类，是组件时注册它的BeanDefinition（包括接口别名）
+     */
+    @Override
+    protected String registerCandidate(String className) throws Exception {
+        List<BeanDefinition> candidates = reader.loadBeanDefinitions(Collections.singletonList(className));
+        doRegisterBeanDefinition(candidates);
+        beanDefinitions.addAll(candidates);
+        return candidates.isEmpty() ? null : candidates.get(0).getFactoryBeanName();
+    }
+
+    /**
+     * 快照中有类型信息时直接使用，不再读取类的字节码
+     */
+    @Override
+    protected void registerBeanType(String beanName, String className) {
+        String[][] types = snapshot == null ? null : snapshot.getBeanTypes(beanName);
+        if (types != null) {
+            getTypeIndex().register(beanName, types[0], types[1]);
+        } else {
+            super.registerBeanType(beanName, className);
+        }
+    }
+
+    /**
+     * 快照中有依赖信息时直接使用，构建依赖图时不再解析类的注入点
+     */
+    @Override
+    protected Collection<String> getDependencyNames(String beanName, BeanDefinition beanDefinition) throws Exception {
+        String[] dependencyNames = snapshot == null ? null : snapshot.getDependencyNames(beanName);
+        if (dependencyNames != null) {
+            return Arrays.asList(dependencyNames);
         }
+        return super.getDependencyNames(beanName, beanDefinition);
     }
 
-    private AdvisedSupport getAopConfig() {
-        String pointCut = this.reader.getConfig().getProperty("spring.aop.pointCut");
-        String aspectClass = this.reader.getConfig().getProperty("spring.aop.aspectClass");
-        if (StringUtil.isEmpty(pointCut) || StringUtil.isEmpty(aspectClass)) {
+    /**
+     * 没有设定注入的bean名称时，按属性的类型注入
+     */
+    @Override
+    protected String resolveDependencyName(Class<?> type, String qualifier) {
+        return qualifier.isEmpty() ? type.getName() : qualifier;
+    }
+
+    /**
+     * 配置了切点，并且配置了切面类或者启用了方法耗时统计时，返回AOP配置
+     */
+    private AopConfig getAopConfig() throws Exception {
+        String pointCut = environment.getProperty("spring.aop.pointCut");
+        String aspectClass = environment.getProperty("spring.aop.aspectClass");
+        boolean metrics = Boolean.parseBoolean(environment.getProperty("spring.aop.metrics", "false").trim());
+        if (StringUtil.isEmpty(pointCut) || (StringUtil.isEmpty(aspectClass) && !metrics)) {
             return null;
         }
-        
+
         AopConfig config = new AopConfig();
         config.setPointCut(pointCut);
         config.setAspectClass(aspectClass);
-        config.setAspectBefore(this.reader.getConfig().getProperty("spring.aop.aspectBefore"));
-        config.setAspectAfter(this.reader.getConfig().getProperty("spring.aop.aspectAfter"));
-        config.setAspectAfterThrow(this.reader.getConfig().getProperty("spring.aop.aspectAfterThrow"));
-        config.setAspectAfterThrowingName(this.reader.getConfig().getProperty("spring.aop.aspectAfterThrowingName"));
-        return new AdvisedSupport(config);
+        config.setAspectBefore(environment.getProperty("spring.aop.aspectBefore"));
+        config.setAspectAfter(environment.getProperty("spring.aop.aspectAfter"));
+        config.setAspectAround(environment.getProperty("spring.aop.aspectAround"));
+        config.setAspectAfterThrow(environment.getProperty("spring.aop.aspectAfterThrow"));
+        config.setAspectAfterThrowingName(environment.getProperty("spring.aop.aspectAfterThrowingName"));
+        config.setMetrics(metrics);
+        config.setMetricsSampleInterval(environment.getProperty("spring.aop.metrics.sampleInterval", int.class, 1));
+        return config;
     }
 
-    private AopProxy createProxy(AdvisedSupport config) {
-        Class<?> targetClass = config.getTargetClass();
-        // 如果接口数量大于0则使用JDK原生动态代理
-        if (targetClass.getInterfaces().length > 0) {
-            return new JdkDynamicAopProxy(config);
-        }
-        return new CglibAopProxy(config);
-    }
-    
-    public String[] getBeanDefinitionNames() {
-        return beanDefinitionMap.keySet().toArray(new String[0]);
+    /**
+     * @return 被代理方法的耗时统计，没有启用时为null
+     */
+    public MethodMetrics getMethodMetrics() {
+        return methodMetrics;
     }
 
     public Properties getConfig() {
@@ -0,0 +1,14 @@
+package cn.clear.springframework.context.support;
+
+import java.util.Set;
+
+/**
+ * 热刷新完成后的回调，例如 DispatcherServlet 重新建立 Controller 的映射
+ */
+public interface HotRefreshListener {
+
+    /**
+     * @param beanNames 重建过的bean名称
+     */
+    void onRefresh(Set<String> beanNames) throws Exception;
+}
@@ -0,0 +1,168 @@
+package cn.clear.springframework.core.env;
+
+import cn.clear.springframework.util.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 容器的配置环境，由多层属性来源组成，按添加顺序查找，先添加的优先级高
+ * 默认依次为：系统属性、环境变量，容器再把配置文件添加到最后
+ * 属性值中的 ${...} 占位符在第一次读取时解析，解析结果和编译好的表达式都会缓存，
+ * 之后的读取不再解析字符串、也不再逐层查找；添加属性来源时清空缓存
+ */
+public class Environment {
+
+    public static final String SYSTEM_PROPERTIES = "systemProperties";
+
+    /**
+     * 缓存中代表“属性不存在”的值
+     */
+    private static final String ABSENT = new String("<absent>");
+
+    private final List<PropertySource> propertySources = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已解析（占位符已替换）的属性值
+     */
+    private final Map<String, String> resolvedProperties = new ConcurrentHashMap<>();
+
+    /**
+     * 编译好的占位符表达式，key：原文本
+     */
+    private final Map<String, PlaceholderExpression> expressions = new ConcurrentHashMap<>();
+
+    /**
+     * 正在解析的属性，用于发现 a=${b}、b=${a} 这样的循环引用
+     */
+    private final ThreadLocal<Set<String>> resolving = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * 包含系统属性和环境变量
+     */
+    public Environment() {
+        this(true);
+    }
+
+    /**
+     * @param includeSystem 是否包含系统属性和环境变量
+     */
+    public Environment(boolean includeSystem) {
+        if (includeSystem) {
+            addLast(new PropertiesPropertySource(SYSTEM_PROPERTIES, System.getProperties()));
+            addLast(new SystemEnvironmentPropertySource());
+        }
+    }
+
+    /**
+     * 添加优先级最低的属性来源
+     */
+    public void addLast(PropertySource propertySource) {
+        propertySources.add(propertySource);
+        resolvedProperties.clear();
+    }
+
+    /**
+     * 添加优先级最低的属性来源
+     */
+    public void addLast(String name, Properties properties) {
+        addLast(new PropertiesPropertySource(name, properties));
+    }
+
+    /**
+     * @return 所有属性来源，按优先级从高到低
+     */
+    public List<PropertySource> getPropertySources() {
+        return Collections.unmodifiableList(new ArrayList<>(propertySources));
+    }
+
+    /**
+     * @return 是否存在该属性
+     */
+    public boolean containsProperty(String key) {
+        return getProperty(key) != null;
+    }
+
+    /**
+     * @return 解析占位符后的属性值，不存在返回null
+     */
+    public String getProperty(String key) {
+        String value = resolvedProperties.get(key);
+        if (value == null) {
+            value = doGetProperty(key);
+            resolvedProperties.put(key, value == null ? ABSENT : value);
+            return value;
+        }
+        return value == ABSENT ? null : value;
+    }
+
+    /**
+     * @return 解析占位符后的属性值，不存在返回默认值
+     */
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @return 转换为指定类型的属性值，不存在返回null
+     */
+    public <T> T getProperty(String key, Class<T> targetType) throws Exception {
+        return TypeConverter.convert(getProperty(key), targetType);
+    }
+
+    /**
+     * @return 转换为指定类型的属性值，不存在返回默认值
+     */
+    public <T> T getProperty(String key, Class<T> targetType, T defaultValue) throws Exception {
+        String value = getProperty(key);
+        return value == null ? defaultValue : TypeConverter.convert(value, targetType);
+    }
+
+    /**
+     * 替换文本中的占位符，无法解析的占位符保留原文
+     */
+    public String resolvePlaceholders(String text) {
+        return text == null ? null : resolve(text, true);
+    }
+
+    /**
+     * 替换文本中的占位符，无法解析、也没有默认值的占位符抛出 IllegalArgumentException
+     */
+    public String resolveRequiredPlaceholders(String text) {
+        return text == null ? null : resolve(text, false);
+    }
+
+    private String doGetProperty(String key) {
+        for (PropertySource propertySource : propertySources) {
+            String value = propertySource.getProperty(key);
+            if (value != null) {
+                Set<String> keys = resolving.get();
+                if (!keys.add(key)) {
+                    throw new IllegalArgumentException("Circular placeholder reference '" + key + "' in property definitions");
+                }
+                try {
+                    return resolve(value, true);
+                } finally {
+                    keys.remove(key);
+                }
+            }
+        }
+        return null;
+    }
+
+    private String resolve(String text, boolean ignoreUnresolvable) {
+        PlaceholderExpression expression = expressions.computeIfAbsent(text, PlaceholderExpression::compile);
+        if (!expression.hasPlaceholders()) {
+            return text;
+        }
+        return expression.resolve(this::getProperty, ignoreUnresolvable);
+    }
+}
@@ -0,0 +1,130 @@
+package cn.clear.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译好的 ${...} 占位符表达式，由字面量和占位符组成，同一段文本只解析一次
+ * 支持默认值 ${key:default}，默认值中可以再嵌套占位符
+ */
+final class PlaceholderExpression {
+
+    private static final String PREFIX = "${";
+
+    private static final String SUFFIX = "}";
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * 字面量（String）或者占位符（{@link Placeholder}）
+     */
+    private final Object[] parts;
+
+    private PlaceholderExpression(Object[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * 解析文本
+     */
+    static PlaceholderExpression compile(String text) {
+        List<Object> parts = new ArrayList<>();
+        int index = 0;
+        while (index < text.length()) {
+            int start = text.indexOf(PREFIX, index);
+            int end = start < 0 ? -1 : findPlaceholderEnd(text, start + PREFIX.length());
+            if (start < 0 || end < 0) {
+                parts.add(text.substring(index));
+                break;
+            }
+            if (start > index) {
+                parts.add(text.substring(index, start));
+            }
+            String content = text.substring(start + PREFIX.length(), end);
+            int separator = content.indexOf(SEPARATOR);
+            parts.add(separator < 0
+                    ? new Placeholder(content.trim(), null)
+                    : new Placeholder(content.substring(0, separator).trim(), compile(content.substring(separator + 1))));
+            index = end + SUFFIX.length();
+        }
+        return new PlaceholderExpression(parts.toArray());
+    }
+
+    /**
+     * 找到和开头匹配的 }，跳过嵌套的占位符
+     */
+    private static int findPlaceholderEnd(String text, int index) {
+        int depth = 0;
+        while (index < text.length()) {
+            if (text.startsWith(PREFIX, index)) {
+                depth++;
+                index += PREFIX.length();
+            } else if (text.startsWith(SUFFIX, index)) {
+                if (depth == 0) {
+                    return index;
+                }
+                depth--;
+                index += SUFFIX.length();
+            } else {
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 没有占位符时直接返回原文本
+     */
+    boolean hasPlaceholders() {
+        for (Object part : parts) {
+            if (part instanceof Placeholder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算表达式的值
+     * @param resolver 占位符的取值，返回null表示不存在
+     * @param ignoreUnresolvable 无法解析、也没有默认值的占位符是否保留原文
+     */
+    String resolve(Resolver resolver, boolean ignoreUnresolvable) {
+        StringBuilder result = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String) {
+                result.append((String) part);
+                continue;
+            }
+            Placeholder placeholder = (Placeholder) part;
+            String value = resolver.resolve(placeholder.key);
+            if (value == null && placeholder.defaultValue != null) {
+                value = placeholder.defaultValue.resolve(resolver, ignoreUnresolvable);
+            }
+            if (value == null) {
+                if (!ignoreUnresolvable) {
+                    throw new IllegalArgumentException("Could not resolve placeholder '" + placeholder.key + "'");
+                }
+                value = PREFIX + placeholder.key + SUFFIX;
+            }
+            result.append(value);
+        }
+        return result.toString();
+    }
+
+    interface Resolver {
+        String resolve(String key);
+    }
+
+    private static final class Placeholder {
+
+        private final String key;
+
+        private final PlaceholderExpression defaultValue;
+
+        private Placeholder(String key, PlaceholderExpression defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package cn.clear.springframework.core.env;
+
+import java.util.Properties;
+
+/**
+ * 以 {@link Properties} 为来源，例如系统属性、application.properties
+ */
+public class PropertiesPropertySource implements PropertySource {
+
+    private final String name;
+
+    private final Properties properties;
+
+    public PropertiesPropertySource(String name, Properties properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        return properties.getProperty(key);
+    }
+}
@@ -0,0 +1,17 @@
+package cn.clear.springframework.core.env;
+
+/**
+ * 一个属性来源，例如系统属性、环境变量、配置文件
+ */
+public interface PropertySource {
+
+    /**
+     * @return 来源名称
+     */
+    String getName();
+
+    /**
+     * @return 属性值，不存在返回null
+     */
+    String getProperty(String key);
+}
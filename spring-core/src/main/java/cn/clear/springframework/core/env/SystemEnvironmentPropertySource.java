@@ -0,0 +1,35 @@
+package cn.clear.springframework.core.env;
+
+import java.util.Map;
+
+/**
+ * 以环境变量为来源，环境变量名中不能有点号，spring.profiles.active 也会查找 SPRING_PROFILES_ACTIVE
+ */
+public class SystemEnvironmentPropertySource implements PropertySource {
+
+    public static final String NAME = "systemEnvironment";
+
+    private final Map<String, String> environment;
+
+    public SystemEnvironmentPropertySource() {
+        this(System.getenv());
+    }
+
+    public SystemEnvironmentPropertySource(Map<String, String> environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        String value = environment.get(key);
+        if (value == null) {
+            value = environment.get(key.replace('.', '_').replace('-', '_').toUpperCase());
+        }
+        return value;
+    }
+}
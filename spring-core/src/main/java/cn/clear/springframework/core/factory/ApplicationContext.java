@@ -1,4 +1,13 @@
 package cn.clear.springframework.core.factory;
 
-public interface ApplicationContext extends BeanFactory {
+/**
+ * 应用上下文，可以有一个共享的父上下文，例如多个 DispatcherServlet 共用同一个父上下文中的service
+ * 按类型、注解批量查找只在当前上下文中查找
+ */
+public interface ApplicationContext extends ListableBeanFactory, HierarchicalBeanFactory {
+
+    /**
+     * @return 父上下文，没有返回null
+     */
+    ApplicationContext getParent();
 }
@@ -7,4 +7,9 @@ public interface BeanFactory {
     Object getBean(String name) throws Exception;
     
     <T> T getBean(Class<T> requiredType) throws Exception;
+
+    /**
+     * 是否能获取到该名称的bean，包括父容器中的bean
+     */
+    boolean containsBean(String name);
 }
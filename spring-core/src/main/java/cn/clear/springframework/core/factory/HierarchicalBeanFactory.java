@@ -0,0 +1,17 @@
+package cn.clear.springframework.core.factory;
+
+/**
+ * 有父容器的容器，自己找不到的bean交给父容器查找
+ */
+public interface HierarchicalBeanFactory extends BeanFactory {
+
+    /**
+     * @return 父容器，没有返回null
+     */
+    BeanFactory getParentBeanFactory();
+
+    /**
+     * 是否在当前容器中定义了该名称的bean，不查找父容器
+     */
+    boolean containsLocalBean(String name);
+}
@@ -0,0 +1,37 @@
+package cn.clear.springframework.core.factory;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+
+/**
+ * 可以按类型、注解批量查找bean的容器
+ */
+public interface ListableBeanFactory extends BeanFactory {
+
+    String[] getBeanDefinitionNames();
+
+    /**
+     * 获取类型（类、父类或接口）匹配的bean名称，不会创建bean
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
+    /**
+     * 获取类型匹配的所有bean，key：bean名称
+     */
+    <T> Map<String, T> getBeansOfType(Class<T> type) throws Exception;
+
+    /**
+     * 获取类上标注了该注解（包括元注解）的bean名称，不会创建bean
+     */
+    String[] getBeanNamesForAnnotation(Class<? extends Annotation> annotationType);
+
+    /**
+     * 获取类上标注了该注解（包括元注解）的所有bean，key：bean名称
+     */
+    Map<String, Object> getBeansWithAnnotation(Class<? extends Annotation> annotationType) throws Exception;
+
+    /**
+     * 获取bean定义的类型，代理对象也返回被代理的原始类型
+     */
+    Class<?> getType(String name) throws Exception;
+}
@@ -0,0 +1,205 @@
+package cn.clear.springframework.core.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 通过 NIO WatchService 监听类路径目录下某个包（含子包）的 .class 文件变化，jar包中的类不监听
+ * 一次编译通常会连续写入多个文件，收到事件后等到一段安静期内没有新的事件，再把变化的类一起通知
+ */
+public class ClassFileWatcher implements Closeable {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * 类文件变化的回调
+     */
+    public interface Listener {
+
+        /**
+         * @param classFiles 变化的类，key：全类名，value：类文件（被删除时文件不存在）
+         */
+        void onChange(Map<String, File> classFiles) throws Exception;
+    }
+
+    private final ClassLoader classLoader;
+
+    private final String basePackage;
+
+    private final long quietPeriodMillis;
+
+    private final Listener listener;
+
+    /**
+     * 监听的目录对应的包名
+     */
+    private final Map<WatchKey, String> packages = new ConcurrentHashMap<>();
+
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    /**
+     * @param classLoader 查找包所在目录的类加载器
+     * @param basePackage 监听的包
+     * @param quietPeriodMillis 安静期，毫秒
+     * @param listener 回调，在监听线程中执行
+     */
+    public ClassFileWatcher(ClassLoader classLoader, String basePackage, long quietPeriodMillis, Listener listener) {
+        this.classLoader = classLoader;
+        this.basePackage = basePackage;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * 注册包所在的所有目录并启动监听线程
+     * @return 包不在任何目录下（例如只在jar包中）时不启动，返回false
+     */
+    public synchronized boolean start() throws IOException {
+        if (thread != null) {
+            return true;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Enumeration<URL> urls = classLoader.getResources(basePackage.replace('.', '/'));
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                registerAll(toPath(url), basePackage);
+            }
+        }
+        if (packages.isEmpty()) {
+            watchService.close();
+            return false;
+        }
+
+        thread = new Thread(this::watch, "class-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * 注册目录及其所有子目录
+     */
+    private void registerAll(Path directory, String packageName) throws IOException {
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        packages.put(key, packageName);
+        directories.put(key, directory);
+        try (Stream<Path> children = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                if (Files.isDirectory(child)) {
+                    registerAll(child, packageName + "." + child.getFileName());
+                }
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Map<String, File> changed = new LinkedHashMap<>();
+                collect(watchService.take(), changed);
+                // 安静期内继续收集
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    listener.onChange(changed);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 关闭监听
+        }
+    }
+
+    private void collect(WatchKey key, Map<String, File> changed) {
+        String packageName = packages.get(key);
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || packageName == null) {
+                continue;
+            }
+            Path child = directory.resolve((Path) event.context());
+            String fileName = child.getFileName().toString();
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                // 新建的子包，注册监听，目录中已经存在的类也算作变化
+                try {
+                    registerAll(child, packageName + "." + fileName);
+                    collectDirectory(child, packageName + "." + fileName, changed);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            } else if (fileName.endsWith(CLASS_SUFFIX)) {
+                changed.put(packageName + "." + fileName.substring(0, fileName.length() - CLASS_SUFFIX.length()), child.toFile());
+            }
+        }
+        if (!key.reset()) {
+            // 目录已经被删除
+            packages.remove(key);
+            directories.remove(key);
+        }
+    }
+
+    private void collectDirectory(Path directory, String packageName, Map<String, File> changed) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                String fileName = child.getFileName().toString();
+                if (Files.isDirectory(child)) {
+                    collectDirectory(child, packageName + "." + fileName, changed);
+                } else if (fileName.endsWith(CLASS_SUFFIX)) {
+                    changed.put(packageName + "." + fileName.substring(0, fileName.length() - CLASS_SUFFIX.length()), child.toFile());
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止监听
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return new File(url.getFile()).toPath();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cn.clear.springframework.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 类路径指纹：扫描包所在的目录和jar包的文件名、大小、修改时间的64位哈希
+ * 只读取文件属性，不读取类的内容；任何一个类文件或jar包变化，指纹都会变化
+ */
+public class ClassPathFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long hash = FNV_OFFSET_BASIS;
+
+    /**
+     * 计算扫描包以及组件索引文件的指纹
+     * @param classLoader 类加载器
+     * @param basePackage 扫描包，例如 cn.clear
+     * @param resourceNames 额外参与计算的类路径资源，例如组件索引文件
+     */
+    public static long compute(ClassLoader classLoader, String basePackage, String... resourceNames) throws IOException {
+        ClassPathFingerprint fingerprint = new ClassPathFingerprint();
+        fingerprint.addResources(classLoader, basePackage.replace('.', '/'));
+        for (String resourceName : resourceNames) {
+            fingerprint.addResources(classLoader, resourceName);
+        }
+        return fingerprint.hash;
+    }
+
+    /**
+     * 计算字符串键值对的哈希，与顺序无关
+     */
+    public static long hash(Map<?, ?> entries) {
+        ClassPathFingerprint fingerprint = new ClassPathFingerprint();
+        for (Map.Entry<String, String> entry : sorted(entries).entrySet()) {
+            fingerprint.update(entry.getKey());
+            fingerprint.update(entry.getValue());
+        }
+        return fingerprint.hash;
+    }
+
+    private static Map<String, String> sorted(Map<?, ?> entries) {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            result.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        return result;
+    }
+
+    private void addResources(ClassLoader classLoader, String resourceName) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(resourceName);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            update(url.toString());
+            if ("file".equals(url.getProtocol())) {
+                addFile(new File(URLDecoder.decode(url.getFile(), "UTF-8")));
+            } else {
+                addConnection(url.openConnection());
+            }
+        }
+    }
+
+    /**
+     * 目录递归计算其中所有文件
+     */
+    private void addFile(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            update(file.getName());
+            update(file.length());
+            update(file.lastModified());
+            return;
+        }
+        // listFiles的顺序由文件系统决定，排序后指纹才稳定
+        Map<String, File> sortedChildren = new TreeMap<>();
+        for (File child : children) {
+            sortedChildren.put(child.getName(), child);
+        }
+        for (File child : sortedChildren.values()) {
+            addFile(child);
+        }
+    }
+
+    /**
+     * jar包中的资源使用整个jar包（嵌套jar为最外层的jar包）的大小和修改时间
+     */
+    private void addConnection(URLConnection connection) throws IOException {
+        if (connection instanceof JarURLConnection) {
+            URL jarFileUrl = ((JarURLConnection) connection).getJarFileURL();
+            if ("file".equals(jarFileUrl.getProtocol())) {
+                File jarFile = new File(URLDecoder.decode(jarFileUrl.getFile(), "UTF-8"));
+                update(jarFile.length());
+                update(jarFile.lastModified());
+                return;
+            }
+        }
+        update(connection.getContentLengthLong());
+        update(connection.getLastModified());
+    }
+
+    private void update(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            update((byte) value.charAt(i));
+            update((byte) (value.charAt(i) >>> 8));
+        }
+        update((byte) 0);
+    }
+
+    private void update(long value) {
+        for (int i = 0; i < 8; i++) {
+            update((byte) (value >>> (i * 8)));
+        }
+    }
+
+    private void update(byte value) {
+        hash ^= value & 0xff;
+        hash *= FNV_PRIME;
+    }
+}
@@ -0,0 +1,131 @@
+package cn.clear.springframework.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 扫描类路径下指定包中的所有类名
+ * 支持展开的目录（file:）、jar包（jar:file:/app.jar!/cn/clear）以及fat jar中的嵌套jar和子目录
+ * （jar:file:/app.jar!/BOOT-INF/lib/lib.jar!/cn/clear、jar:file:/app.jar!/BOOT-INF/classes!/cn/clear）
+ */
+public class ClassPathScanner {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final String JAR_URL_SEPARATOR = "!/";
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 已经解析过中央目录的jar，同一个jar中的多个包只解析一次
+     */
+    private final Map<String, ZipCentralDirectory> directories = new ConcurrentHashMap<>();
+
+    public ClassPathScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 扫描包（含子包）下所有的类
+     * @param basePackage 包名
+     * @return 全类名集合
+     */
+    public Set<String> scan(String basePackage) throws IOException {
+        String packagePath = basePackage.replace('.', '/');
+        Set<String> result = new LinkedHashSet<>();
+        Enumeration<URL> urls = classLoader.getResources(packagePath);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                scanJar(url, result);
+            } else if ("file".equals(url.getProtocol())) {
+                scanDirectory(toFile(url), basePackage, result);
+            }
+        }
+        return result;
+    }
+
+    private void scanDirectory(File directory, String packageName, Set<String> result) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                // 递归扫描
+                scanDirectory(file, packageName + "." + file.getName(), result);
+            } else if (file.getName().endsWith(CLASS_SUFFIX)) {
+                String fileName = file.getName();
+                result.add(packageName + "." + fileName.substring(0, fileName.length() - CLASS_SUFFIX.length()));
+            }
+        }
+    }
+
+    /**
+     * 扫描jar，url的路径形如 file:/app.jar!/BOOT-INF/lib/lib.jar!/cn/clear
+     * 第一段是磁盘上的jar，中间以.jar结尾的段是嵌套jar，其余的段是jar中的目录，最后一段是包路径
+     */
+    private void scanJar(URL url, Set<String> result) throws IOException {
+        String[] segments = url.getPath().split(JAR_URL_SEPARATOR);
+        String key = segments[0];
+        ZipCentralDirectory directory = directories.get(key);
+        if (directory == null) {
+            directory = ZipCentralDirectory.open(toPath(segments[0]));
+            directories.put(key, directory);
+        }
+
+        // 类的根目录，例如 BOOT-INF/classes/
+        String root = "";
+        for (int i = 1; i < segments.length - 1; i++) {
+            String segment = segments[i];
+            if (segment.endsWith(".jar")) {
+                key = key + JAR_URL_SEPARATOR + segment;
+                ZipCentralDirectory nested = directories.get(key);
+                if (nested == null) {
+                    ByteBuffer data = directory.getEntryData(root + segment);
+                    if (data == null) {
+                        return;
+                    }
+                    nested = ZipCentralDirectory.open(data);
+                    directories.put(key, nested);
+                }
+                directory = nested;
+                root = "";
+            } else {
+                root = root + segment + "/";
+            }
+        }
+
+        String packagePath = segments[segments.length - 1];
+        String prefix = root + (packagePath.endsWith("/") ? packagePath : packagePath + "/");
+        int rootLength = root.length();
+        directory.forEachEntry(prefix, CLASS_SUFFIX, entryName -> result.add(
+                entryName.substring(rootLength, entryName.length() - CLASS_SUFFIX.length()).replace('/', '.')));
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return new File(url.getFile());
+        }
+    }
+
+    private static Path toPath(String fileUrl) throws IOException {
+        try {
+            return Paths.get(new URL(fileUrl).toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid jar location: " + fileUrl, e);
+        }
+    }
+}
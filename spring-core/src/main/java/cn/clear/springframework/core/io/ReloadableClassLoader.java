@@ -0,0 +1,90 @@
+package cn.clear.springframework.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 热刷新使用的类加载器：指定的类直接从类文件重新定义（子优先），其余的类交给父加载器
+ * 每次热刷新在上一代加载器之上创建新的一代，没有变化的类继续使用原来定义它的加载器，
+ * 所以最新一代加载器总能拿到每个类的最新版本
+ * 注意：重新定义的类和父加载器中同一个包的类不属于同一个运行时包，不能互相访问包级私有的成员
+ */
+public class ReloadableClassLoader extends ClassLoader {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * 需要重新定义的类，key：全类名，value：类文件
+     */
+    private final Map<String, File> classFiles = new HashMap<>();
+
+    /**
+     * @param parent 上一代类加载器
+     * @param classFiles 需要重新定义的类，key：全类名，value：类文件；同一目录下的内部类会一起重新定义
+     */
+    public ReloadableClassLoader(ClassLoader parent, Map<String, File> classFiles) {
+        super(parent);
+        for (Map.Entry<String, File> entry : classFiles.entrySet()) {
+            this.classFiles.put(entry.getKey(), entry.getValue());
+            addNestedClasses(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 内部类（Outer$Inner.class）和外部类必须由同一个加载器定义
+     */
+    private void addNestedClasses(String className, File classFile) {
+        String simpleName = classFile.getName().substring(0, classFile.getName().length() - CLASS_SUFFIX.length());
+        File[] nestedFiles = classFile.getParentFile() == null ? null
+                : classFile.getParentFile().listFiles((dir, name) -> name.startsWith(simpleName + "$") && name.endsWith(CLASS_SUFFIX));
+        if (nestedFiles == null) {
+            return;
+        }
+        String packagePrefix = className.substring(0, className.length() - simpleName.length());
+        for (File nestedFile : nestedFiles) {
+            String nestedName = nestedFile.getName();
+            this.classFiles.putIfAbsent(packagePrefix + nestedName.substring(0, nestedName.length() - CLASS_SUFFIX.length()), nestedFile);
+        }
+    }
+
+    /**
+     * @return 该类是否由这一代加载器重新定义
+     */
+    public boolean isReloaded(String className) {
+        return classFiles.containsKey(className);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        File classFile = classFiles.get(name);
+        if (classFile == null) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                clazz = defineClass(name, classFile);
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    private Class<?> defineClass(String name, File classFile) throws ClassNotFoundException {
+        try {
+            byte[] bytes = Files.readAllBytes(classFile.toPath());
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package cn.clear.springframework.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 直接读取zip文件的中央目录
+ * 只解析中央目录中的文件名，不解压任何条目；文件通过 {@link FileChannel} 内存映射，只有中央目录所在的页会被真正读入
+ */
+public class ZipCentralDirectory {
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+
+    /**
+     * EOCD固定长度，后面最多跟65535字节的注释
+     */
+    private static final int EOCD_SIZE = 22;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    /**
+     * zip64扩展字段的id，中央目录中值为0xFFFFFFFF的大小和偏移量在这里
+     */
+    private static final int ZIP64_EXTRA = 0x0001;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    /**
+     * 整个zip文件的内容，little-endian
+     */
+    private final ByteBuffer data;
+
+    /**
+     * 中央目录起始位置
+     */
+    private final int centralDirectoryOffset;
+
+    /**
+     * 条目数量
+     */
+    private final int entryCount;
+
+    private ZipCentralDirectory(ByteBuffer data) throws IOException {
+        this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int eocd = findEndOfCentralDirectory();
+        long offset = this.data.getInt(eocd + 16) & 0xFFFFFFFFL;
+        long count = this.data.getShort(eocd + 10) & 0xFFFF;
+        if (offset == 0xFFFFFFFFL || count == 0xFFFF) {
+            // zip64：真正的值在zip64 EOCD记录里
+            int locator = eocd - 20;
+            if (locator < 0 || this.data.getInt(locator) != ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+                throw new ZipException("Invalid zip64 end of central directory");
+            }
+            int record = toInt(this.data.getLong(locator + 8));
+            count = this.data.getLong(record + 32);
+            offset = this.data.getLong(record + 48);
+        }
+        this.centralDirectoryOffset = toInt(offset);
+        this.entryCount = toInt(count);
+    }
+
+    /**
+     * 内存映射并解析zip文件
+     */
+    public static ZipCentralDirectory open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Zip file too large to be mapped: " + file);
+            }
+            // 映射在channel关闭后仍然有效
+            return new ZipCentralDirectory(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * 解析内存中的zip数据，用于嵌套jar
+     */
+    public static ZipCentralDirectory open(ByteBuffer data) throws IOException {
+        return new ZipCentralDirectory(data);
+    }
+
+    /**
+     * 遍历文件名以 prefix 开头、以 suffix 结尾的条目，不匹配的条目不会创建字符串
+     * @param prefix 文件名前缀，例如 cn/clear/
+     * @param suffix 文件名后缀，例如 .class
+     * @param visitor 条目名称的回调
+     */
+    public void forEachEntry(String prefix, String suffix, EntryVisitor visitor) throws IOException {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        int pos = centralDirectoryOffset;
+        for (int i = 0; i < entryCount; i++) {
+            if (data.getInt(pos) != CENTRAL_DIRECTORY_HEADER) {
+                throw new ZipException("Invalid central directory header at " + pos);
+            }
+            int nameLength = data.getShort(pos + 28) & 0xFFFF;
+            int extraLength = data.getShort(pos + 30) & 0xFFFF;
+            int commentLength = data.getShort(pos + 32) & 0xFFFF;
+            int nameStart = pos + 46;
+            if (nameLength >= prefixBytes.length + suffixBytes.length
+                    && regionMatches(nameStart, prefixBytes)
+                    && regionMatches(nameStart + nameLength - suffixBytes.length, suffixBytes)) {
+                visitor.visit(readName(nameStart, nameLength));
+            }
+            pos = nameStart + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * 获取一个条目的内容，用于读取嵌套的jar
+     * 未压缩的条目直接返回映射区域的切片，压缩的条目解压到堆内存
+     * @param name 条目名称
+     * @return 条目内容，找不到返回null
+     */
+    public ByteBuffer getEntryData(String name) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int pos = centralDirectoryOffset;
+        for (int i = 0; i < entryCount; i++) {
+            int nameLength = data.getShort(pos + 28) & 0xFFFF;
+            int extraLength = data.getShort(pos + 30) & 0xFFFF;
+            int commentLength = data.getShort(pos + 32) & 0xFFFF;
+            if (nameLength == nameBytes.length && regionMatches(pos + 46, nameBytes)) {
+                int method = data.getShort(pos + 10) & 0xFFFF;
+                long compressedSize = data.getInt(pos + 20) & 0xFFFFFFFFL;
+                long uncompressedSize = data.getInt(pos + 24) & 0xFFFFFFFFL;
+                long localHeader = data.getInt(pos + 42) & 0xFFFFFFFFL;
+                if (compressedSize == ZIP64_MAGIC || uncompressedSize == ZIP64_MAGIC || localHeader == ZIP64_MAGIC) {
+                    // zip64扩展字段中依次是：原始大小、压缩后大小、本地文件头偏移量，只包含值为0xFFFFFFFF的项
+                    int field = findExtraField(pos + 46 + nameLength, extraLength, ZIP64_EXTRA);
+                    if (field < 0) {
+                        throw new ZipException("Missing zip64 extra field for entry " + name);
+                    }
+                    if (uncompressedSize == ZIP64_MAGIC) {
+                        uncompressedSize = data.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC) {
+                        compressedSize = data.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeader == ZIP64_MAGIC) {
+                        localHeader = data.getLong(field);
+                    }
+                }
+                return readEntryData(method, toInt(compressedSize), toInt(uncompressedSize), toInt(localHeader));
+            }
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+        return null;
+    }
+
+    private ByteBuffer readEntryData(int method, int compressedSize, int uncompressedSize, int localHeader) throws IOException {
+        if (data.getInt(localHeader) != LOCAL_FILE_HEADER) {
+            throw new ZipException("Invalid local file header at " + localHeader);
+        }
+        // 本地文件头的扩展字段长度可能与中央目录不同，要以本地文件头为准
+        int start = localHeader + 30 + (data.getShort(localHeader + 26) & 0xFFFF) + (data.getShort(localHeader + 28) & 0xFFFF);
+        ByteBuffer slice = data.duplicate();
+        slice.position(start).limit(start + compressedSize);
+        slice = slice.slice();
+        if (method == STORED) {
+            return slice;
+        }
+        if (method != DEFLATED) {
+            throw new ZipException("Unsupported compression method " + method);
+        }
+
+        byte[] compressed = new byte[compressedSize];
+        slice.get(compressed);
+        byte[] result = new byte[uncompressedSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int n = 0;
+            while (n < result.length && !inflater.finished()) {
+                n += inflater.inflate(result, n, result.length - n);
+                if (inflater.needsInput()) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflated entry: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(result);
+    }
+
+    /**
+     * 在扩展字段中查找指定id的字段
+     * @return 字段数据的起始位置，没有找到返回-1
+     */
+    private int findExtraField(int offset, int length, int headerId) {
+        int end = offset + length;
+        while (offset + 4 <= end) {
+            int id = data.getShort(offset) & 0xFFFF;
+            int size = data.getShort(offset + 2) & 0xFFFF;
+            if (id == headerId) {
+                return offset + 4;
+            }
+            offset += 4 + size;
+        }
+        return -1;
+    }
+
+    /**
+     * 从文件尾部往前查找EOCD
+     */
+    private int findEndOfCentralDirectory() throws ZipException {
+        int limit = data.limit();
+        int stop = Math.max(0, limit - EOCD_SIZE - 0xFFFF);
+        for (int pos = limit - EOCD_SIZE; pos >= stop; pos--) {
+            if (data.getInt(pos) == END_OF_CENTRAL_DIRECTORY) {
+                return pos;
+            }
+        }
+        throw new ZipException("End of central directory not found");
+    }
+
+    private boolean regionMatches(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (data.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readName(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int toInt(long value) throws ZipException {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new ZipException("Zip offset out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 条目遍历回调
+     */
+    public interface EntryVisitor {
+        void visit(String entryName) throws IOException;
+    }
+}
@@ -0,0 +1,98 @@
+package cn.clear.springframework.core.metrics;
+
+import java.util.Locale;
+
+/**
+ * 某一时刻 {@link LatencyHistogram} 的合并结果，单位纳秒，不再变化
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sum;
+
+    private final long max;
+
+    private final long errors;
+
+    HistogramSnapshot(long[] counts, long sum, long max, long errors) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+        this.errors = errors;
+    }
+
+    /**
+     * @return 记录的次数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 以异常结束的次数
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile 0~100
+     * @return 不小于该比例记录值的最小桶上界，误差为桶的宽度，不超过最大值
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return 每个桶的计数，下标见 {@link #getBucketLowerBound(int)}
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * @return 桶中的最小值（纳秒）
+     */
+    public long getBucketLowerBound(int index) {
+        return LatencyHistogram.lowerBound(index);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count=%d errors=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                count, errors, getMean() / 1000, getValueAtPercentile(50) / 1000.0, getValueAtPercentile(90) / 1000.0,
+                getValueAtPercentile(99) / 1000.0, max / 1000.0);
+    }
+}
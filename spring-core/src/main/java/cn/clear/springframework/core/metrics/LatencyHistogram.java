@@ -0,0 +1,144 @@
+package cn.clear.springframework.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 记录耗时（纳秒）分布的直方图，无锁、内存固定
+ * 桶按对数-线性划分：每个2的幂区间再平均分成8个桶，相对误差不超过12.5%；小于8纳秒的值精确记录，超过 {@link #MAX_VALUE} 的值记在最后一个桶
+ * 计数按线程分散到多个分段中，写入时只有分段内的原子自增，不同线程之间基本没有竞争；读取时合并所有分段
+ * 分段在第一次有线程写入时才创建，数量不超过处理器数向上取整的2的幂（最多16个）
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个2的幂区间分成 2^SUB_BUCKET_BITS 个桶
+     */
+    static final int SUB_BUCKET_BITS = 3;
+
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 能区分的最大值，约18分钟
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    /**
+     * 分段中桶之后的位置：总耗时、最大值、异常次数
+     */
+    private static final int SUM = BUCKET_COUNT;
+
+    private static final int MAX = BUCKET_COUNT + 1;
+
+    private static final int ERRORS = BUCKET_COUNT + 2;
+
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 3;
+
+    private static final int MAX_STRIPES = 16;
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        int count = 1;
+        while (count < Runtime.getRuntime().availableProcessors() && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        this.stripes = new AtomicReferenceArray<>(count);
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * 记录一次耗时
+     * @param nanos 纳秒，小于0时按0记录
+     * @param error 是否以异常结束
+     */
+    public void record(long nanos, boolean error) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        AtomicLongArray stripe = stripe();
+        stripe.incrementAndGet(indexOf(nanos));
+        stripe.addAndGet(SUM, nanos);
+        if (error) {
+            stripe.incrementAndGet(ERRORS);
+        }
+        long max = stripe.get(MAX);
+        while (nanos > max && !stripe.compareAndSet(MAX, max, nanos)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /**
+     * 合并所有分段，读取期间的写入可能部分计入
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        long max = 0;
+        long errors = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                counts[b] += stripe.get(b);
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+            errors += stripe.get(ERRORS);
+        }
+        return new HistogramSnapshot(counts, sum, max, errors);
+    }
+
+    /**
+     * 当前线程的分段，线程id是连续分配的，相邻的线程落在不同的分段
+     */
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().getId() & stripeMask;
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(STRIPE_LENGTH));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * @return 值所在的桶
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * @return 桶中的最小值
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = index & (SUB_BUCKET_COUNT - 1);
+        return (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @return 桶中的最大值
+     */
+    static long upperBound(int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+}
@@ -0,0 +1,105 @@
+package cn.clear.springframework.core.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动过程中的一个步骤，例如扫描一个包、创建一个bean
+ * 通过 {@link StartupTimeline#start(String)} 开始，必须调用 {@link #end()} 结束，通常放在finally中
+ */
+public final class StartupStep {
+
+    /**
+     * 时间线已经结束后返回的空步骤，不记录任何信息
+     */
+    static final StartupStep NOOP = new StartupStep(null, 0, null, "noop", 0);
+
+    private final StartupTimeline timeline;
+
+    private final int id;
+
+    private final StartupStep parent;
+
+    private final String name;
+
+    private final String threadName;
+
+    private final long startNanos;
+
+    private volatile long endNanos;
+
+    private Map<String, String> tags;
+
+    StartupStep(StartupTimeline timeline, int id, StartupStep parent, String name, long startNanos) {
+        this.timeline = timeline;
+        this.id = id;
+        this.parent = parent;
+        this.name = name;
+        this.threadName = timeline == null ? null : Thread.currentThread().getName();
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 添加标签，例如bean名称、包名
+     */
+    public StartupStep tag(String key, String value) {
+        if (timeline != null) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>(4);
+            }
+            tags.put(key, value);
+        }
+        return this;
+    }
+
+    public void end() {
+        if (timeline != null && endNanos == 0) {
+            endNanos = System.nanoTime();
+            timeline.end(this);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return 上一级步骤的编号，没有上一级返回0
+     */
+    public int getParentId() {
+        return parent == null ? 0 : parent.id;
+    }
+
+    StartupStep getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public Map<String, String> getTags() {
+        return tags == null ? Collections.emptyMap() : Collections.unmodifiableMap(tags);
+    }
+
+    public String getTag(String key) {
+        return tags == null ? null : tags.get(key);
+    }
+}
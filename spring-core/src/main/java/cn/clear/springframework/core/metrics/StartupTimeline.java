@@ -0,0 +1,286 @@
+package cn.clear.springframework.core.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 容器启动的时间线：记录扫描、加载BeanDefinition、每个bean的实例化、依赖注入和代理创建的耗时，以及依赖关键路径
+ * 记录一个步骤只有两次 System.nanoTime() 和一次入队；启动完成后不再记录，之后运行时创建的bean没有额外开销
+ */
+public class StartupTimeline {
+
+    /**
+     * 创建一个bean的步骤名称，标签 beanName
+     */
+    public static final String BEAN_CREATE = "bean.create";
+
+    public static final String BEAN_NAME = "beanName";
+
+    private final long startNanos = System.nanoTime();
+
+    private final long startTimeMillis = System.currentTimeMillis();
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private final Queue<StartupStep> steps = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 当前线程正在进行的步骤，新步骤以它为上一级
+     */
+    private final ThreadLocal<StartupStep> current = new ThreadLocal<>();
+
+    private volatile boolean finished;
+
+    private volatile long endNanos;
+
+    private volatile List<String> criticalPath = Collections.emptyList();
+
+    private volatile long criticalPathNanos;
+
+    /**
+     * 开始一个步骤
+     * @param name 步骤名称
+     */
+    public StartupStep start(String name) {
+        if (finished) {
+            return StartupStep.NOOP;
+        }
+        StartupStep step = new StartupStep(this, ids.incrementAndGet(), current.get(), name, System.nanoTime());
+        current.set(step);
+        return step;
+    }
+
+    void end(StartupStep step) {
+        current.set(step.getParent());
+        steps.add(step);
+    }
+
+    /**
+     * 启动完成，计算依赖关键路径，之后不再记录
+     * @param dependencies bean依赖的bean名称，用于计算关键路径，可以为null
+     */
+    public void finish(Map<String, ? extends Iterable<String>> dependencies) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        endNanos = System.nanoTime();
+        current.remove();
+        if (dependencies != null) {
+            computeCriticalPath(dependencies);
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return 所有已经结束的步骤，按开始时间排序
+     */
+    public List<StartupStep> getSteps() {
+        List<StartupStep> result = new ArrayList<>(steps);
+        result.sort(Comparator.comparingLong(StartupStep::getStartNanos));
+        return result;
+    }
+
+    /**
+     * @return 启动总耗时，没有完成时为到目前为止的耗时
+     */
+    public long getDurationNanos() {
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * 每个bean自身的创建耗时，不包括在创建过程中顺带创建的依赖bean
+     * @return key：bean名称，value：纳秒
+     */
+    public Map<String, Long> getBeanSelfTimes() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (StartupStep step : getSteps()) {
+            if (!BEAN_CREATE.equals(step.getName())) {
+                continue;
+            }
+            result.merge(step.getTag(BEAN_NAME), step.getDurationNanos(), Long::sum);
+            // 从最近的上一级bean中扣除
+            StartupStep parent = step.getParent();
+            while (parent != null && !BEAN_CREATE.equals(parent.getName())) {
+                parent = parent.getParent();
+            }
+            if (parent != null) {
+                result.merge(parent.getTag(BEAN_NAME), -step.getDurationNanos(), Long::sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 依赖关键路径：沿着依赖关系，自身创建耗时之和最长的一条链，从依赖最深的bean开始
+     */
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public long getCriticalPathNanos() {
+        return criticalPathNanos;
+    }
+
+    private void computeCriticalPath(Map<String, ? extends Iterable<String>> dependencies) {
+        Map<String, Long> selfTimes = getBeanSelfTimes();
+        Map<String, Long> longest = new HashMap<>();
+        Map<String, String> next = new HashMap<>();
+        Set<String> visiting = new HashSet<>();
+        String head = null;
+        for (String beanName : dependencies.keySet()) {
+            long length = longestPath(beanName, dependencies, selfTimes, longest, next, visiting);
+            if (head == null || length > longest.get(head)) {
+                head = beanName;
+            }
+        }
+        List<String> path = new ArrayList<>();
+        for (String beanName = head; beanName != null; beanName = next.get(beanName)) {
+            path.add(beanName);
+        }
+        Collections.reverse(path);
+        criticalPath = Collections.unmodifiableList(path);
+        criticalPathNanos = head == null ? 0 : longest.get(head);
+    }
+
+    /**
+     * 以beanName结尾的最长路径；字段注入形成的环在正在访问的节点处断开
+     */
+    private long longestPath(String beanName, Map<String, ? extends Iterable<String>> dependencies, Map<String, Long> selfTimes,
+                             Map<String, Long> longest, Map<String, String> next, Set<String> visiting) {
+        Long cached = longest.get(beanName);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(beanName)) {
+            return 0;
+        }
+        long max = 0;
+        String slowest = null;
+        Iterable<String> beanDependencies = dependencies.get(beanName);
+        if (beanDependencies != null) {
+            for (String dependency : beanDependencies) {
+                long length = longestPath(dependency, dependencies, selfTimes, longest, next, visiting);
+                if (slowest == null || length > max) {
+                    slowest = dependency;
+                    max = length;
+                }
+            }
+        }
+        if (slowest != null) {
+            next.put(beanName, slowest);
+        }
+        visiting.remove(beanName);
+        long result = Math.max(selfTimes.getOrDefault(beanName, 0L), 0) + max;
+        longest.put(beanName, result);
+        return result;
+    }
+
+    /**
+     * 输出JSON
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"startTime\": " + startTimeMillis);
+        writer.write(",\n  \"durationMillis\": " + millis(getDurationNanos()));
+        writer.write(",\n  \"criticalPathMillis\": " + millis(criticalPathNanos));
+        writer.write(",\n  \"criticalPath\": [");
+        writeList(writer, criticalPath, StartupTimeline::quote);
+        writer.write("],\n  \"steps\": [");
+        List<StartupStep> sorted = getSteps();
+        for (int i = 0; i < sorted.size(); i++) {
+            StartupStep step = sorted.get(i);
+            writer.write(i == 0 ? "\n    {" : ",\n    {");
+            writer.write("\"id\": " + step.getId());
+            writer.write(", \"parentId\": " + step.getParentId());
+            writer.write(", \"name\": " + quote(step.getName()));
+            writer.write(", \"thread\": " + quote(step.getThreadName()));
+            writer.write(", \"startMillis\": " + millis(step.getStartNanos() - startNanos));
+            writer.write(", \"durationMillis\": " + millis(step.getDurationNanos()));
+            if (!step.getTags().isEmpty()) {
+                writer.write(", \"tags\": {");
+                writeList(writer, new ArrayList<>(step.getTags().entrySet()), e -> quote(e.getKey()) + ": " + quote(e.getValue()));
+                writer.write("}");
+            }
+            writer.write("}");
+        }
+        writer.write(sorted.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+    }
+
+    /**
+     * 输出JSON文件
+     */
+    public void writeJson(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+    }
+
+    private static <T> void writeList(Writer writer, List<T> values, Function<T, String> format) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            writer.write((i == 0 ? "" : ", ") + format.apply(values.get(i)));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+}
@@ -0,0 +1,50 @@
+package cn.clear.springframework.core.type.classreading;
+
+import java.util.LinkedHashMap;
+
+/**
+ * 从字节码中读取到的注解属性，key：属性名，value：属性值
+ * 只包含类文件中显式写出的属性，注解上声明的默认值不会出现在这里
+ * 属性值类型：基本类型包装类、String、枚举常量名(String)、Class全类名(String)、嵌套注解({@link AnnotationAttributes})、数组(Object[])
+ */
+public class AnnotationAttributes extends LinkedHashMap<String, Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 注解的全类名
+     */
+    private final String annotationType;
+
+    public AnnotationAttributes(String annotationType) {
+        this.annotationType = annotationType;
+    }
+
+    public String annotationType() {
+        return this.annotationType;
+    }
+
+    public String getString(String attributeName) {
+        Object value = get(attributeName);
+        return value == null ? null : value.toString();
+    }
+
+    public String[] getStringArray(String attributeName) {
+        Object value = get(attributeName);
+        if (value == null) {
+            return null;
+        }
+        // 单个值的数组属性在源码里可以省略大括号，字节码中仍然是数组
+        Object[] array = value instanceof Object[] ? (Object[]) value : new Object[]{value};
+        String[] result = new String[array.length];
+        for (int i = 0; i < array.length; i++) {
+            result[i] = String.valueOf(array[i]);
+        }
+        return result;
+    }
+
+    public boolean getBoolean(String attributeName, boolean defaultValue) {
+        Object value = get(attributeName);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+}
@@ -0,0 +1,103 @@
+package cn.clear.springframework.core.type.classreading;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 直接从 .class 字节码中解析出的类信息，读取时不会加载和初始化该类
+ */
+public class ClassMetadata {
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    /**
+     * 全类名（二进制名称，内部类使用$分隔）
+     */
+    private final String className;
+
+    /**
+     * 父类全类名，java.lang.Object 和接口的父类为null
+     */
+    private final String superClassName;
+
+    /**
+     * 直接实现的接口全类名
+     */
+    private final String[] interfaceNames;
+
+    /**
+     * 类的访问标志
+     */
+    private final int access;
+
+    /**
+     * 类上的注解，key：注解全类名，value：注解属性
+     */
+    private final Map<String, AnnotationAttributes> annotations;
+
+    ClassMetadata(String className, String superClassName, String[] interfaceNames, int access,
+                  Map<String, AnnotationAttributes> annotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.access = access;
+        this.annotations = Collections.unmodifiableMap(annotations);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 获取类的简单名称，内部类只返回最内层的名称
+     */
+    public String getSimpleName() {
+        int index = Math.max(className.lastIndexOf('.'), className.lastIndexOf('$'));
+        return className.substring(index + 1);
+    }
+
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public String[] getInterfaceNames() {
+        return interfaceNames.clone();
+    }
+
+    public boolean isInterface() {
+        return (access & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(access);
+    }
+
+    /**
+     * 是否可以被实例化
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+
+    /**
+     * 类上直接标注的注解
+     */
+    public Map<String, AnnotationAttributes> getAnnotations() {
+        return annotations;
+    }
+
+    public boolean hasAnnotation(String annotationType) {
+        return annotations.containsKey(annotationType);
+    }
+
+    public AnnotationAttributes getAnnotationAttributes(String annotationType) {
+        return annotations.get(annotationType);
+    }
+}
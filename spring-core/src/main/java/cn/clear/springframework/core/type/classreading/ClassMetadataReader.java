@@ -0,0 +1,275 @@
+package cn.clear.springframework.core.type.classreading;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 轻量级的类文件解析器
+ * 只解析常量池、类名、父类、接口和类上的 RuntimeVisibleAnnotations，字段和方法直接跳过
+ */
+public class ClassMetadataReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final byte[] b;
+
+    /**
+     * 常量池各项在字节数组中的起始位置（tag之后）
+     */
+    private final int[] cpOffsets;
+
+    /**
+     * 已解码的 CONSTANT_Utf8
+     */
+    private final String[] utf8Cache;
+
+    /**
+     * 当前读取位置
+     */
+    private int pos;
+
+    private ClassMetadataReader(byte[] b) {
+        this.b = b;
+        if (readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        int count = readUnsignedShort(8);
+        this.cpOffsets = new int[count];
+        this.utf8Cache = new String[count];
+        this.pos = 10;
+        for (int i = 1; i < count; i++) {
+            int tag = b[pos++];
+            cpOffsets[i] = pos;
+            switch (tag) {
+                case 1:  // Utf8
+                    pos += 2 + readUnsignedShort(pos);
+                    break;
+                case 3:  // Integer
+                case 4:  // Float
+                case 9:  // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    pos += 4;
+                    break;
+                case 5:  // Long
+                case 6:  // Double
+                    pos += 8;
+                    // long和double占两个常量池位置
+                    i++;
+                    break;
+                case 7:  // Class
+                case 8:  // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    pos += 2;
+                    break;
+                case 15: // MethodHandle
+                    pos += 3;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * 从输入流读取类的元信息，不会关闭输入流
+     */
+    public static ClassMetadata read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return read(out.toByteArray());
+    }
+
+    public static ClassMetadata read(byte[] classFile) {
+        return new ClassMetadataReader(classFile).parse();
+    }
+
+    private ClassMetadata parse() {
+        int access = readUnsignedShort(pos);
+        String className = readClassName(readUnsignedShort(pos + 2));
+        int superIndex = readUnsignedShort(pos + 4);
+        String superClassName = superIndex == 0 ? null : readClassName(superIndex);
+        int interfacesCount = readUnsignedShort(pos + 6);
+        pos += 8;
+        String[] interfaceNames = new String[interfacesCount];
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaceNames[i] = readClassName(readUnsignedShort(pos));
+            pos += 2;
+        }
+
+        // 跳过字段和方法
+        skipMembers();
+        skipMembers();
+
+        Map<String, AnnotationAttributes> annotations = new LinkedHashMap<>();
+        int attributesCount = readUnsignedShort(pos);
+        pos += 2;
+        for (int i = 0; i < attributesCount; i++) {
+            String name = readUtf8(readUnsignedShort(pos));
+            int length = readInt(pos + 2);
+            pos += 6;
+            int end = pos + length;
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int count = readUnsignedShort(pos);
+                pos += 2;
+                for (int j = 0; j < count; j++) {
+                    AnnotationAttributes attributes = readAnnotation();
+                    annotations.put(attributes.annotationType(), attributes);
+                }
+            }
+            pos = end;
+        }
+
+        if ((access & 0x0200) != 0) {
+            // 接口的父类在字节码中是java.lang.Object，这里按反射的语义处理为null
+            superClassName = null;
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, access, annotations);
+    }
+
+    private void skipMembers() {
+        int count = readUnsignedShort(pos);
+        pos += 2;
+        for (int i = 0; i < count; i++) {
+            // access_flags、name_index、descriptor_index
+            int attributesCount = readUnsignedShort(pos + 6);
+            pos += 8;
+            for (int j = 0; j < attributesCount; j++) {
+                pos += 6 + readInt(pos + 2);
+            }
+        }
+    }
+
+    private AnnotationAttributes readAnnotation() {
+        String type = descriptorToClassName(readUtf8(readUnsignedShort(pos)));
+        int pairs = readUnsignedShort(pos + 2);
+        pos += 4;
+        AnnotationAttributes attributes = new AnnotationAttributes(type);
+        for (int i = 0; i < pairs; i++) {
+            String name = readUtf8(readUnsignedShort(pos));
+            pos += 2;
+            attributes.put(name, readElementValue());
+        }
+        return attributes;
+    }
+
+    private Object readElementValue() {
+        int tag = b[pos++];
+        switch (tag) {
+            case 'B':
+                return (byte) readInt(cpOffsets[readUnsignedShort(advance(2))]);
+            case 'C':
+                return (char) readInt(cpOffsets[readUnsignedShort(advance(2))]);
+            case 'S':
+                return (short) readInt(cpOffsets[readUnsignedShort(advance(2))]);
+            case 'I':
+                return readInt(cpOffsets[readUnsignedShort(advance(2))]);
+            case 'Z':
+                return readInt(cpOffsets[readUnsignedShort(advance(2))]) != 0;
+            case 'F':
+                return Float.intBitsToFloat(readInt(cpOffsets[readUnsignedShort(advance(2))]));
+            case 'J':
+                return readLong(cpOffsets[readUnsignedShort(advance(2))]);
+            case 'D':
+                return Double.longBitsToDouble(readLong(cpOffsets[readUnsignedShort(advance(2))]));
+            case 's':
+                return readUtf8(readUnsignedShort(advance(2)));
+            case 'e':
+                // 枚举只保留常量名
+                advance(2);
+                return readUtf8(readUnsignedShort(advance(2)));
+            case 'c':
+                return descriptorToClassName(readUtf8(readUnsignedShort(advance(2))));
+            case '@':
+                return readAnnotation();
+            case '[':
+                int length = readUnsignedShort(advance(2));
+                Object[] values = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = readElementValue();
+                }
+                return values;
+            default:
+                throw new IllegalArgumentException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    /**
+     * 返回当前位置，并向后移动n个字节
+     */
+    private int advance(int n) {
+        int current = pos;
+        pos += n;
+        return current;
+    }
+
+    private String readClassName(int classIndex) {
+        return readUtf8(readUnsignedShort(cpOffsets[classIndex])).replace('/', '.');
+    }
+
+    /**
+     * 解码常量池中的 modified UTF-8 字符串
+     */
+    private String readUtf8(int index) {
+        String value = utf8Cache[index];
+        if (value != null) {
+            return value;
+        }
+        int offset = cpOffsets[index];
+        int length = readUnsignedShort(offset);
+        int i = offset + 2;
+        int end = i + length;
+        char[] chars = new char[length];
+        int n = 0;
+        while (i < end) {
+            int c = b[i++] & 0xFF;
+            if (c < 0x80) {
+                chars[n++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0) {
+                chars[n++] = (char) (((c & 0x1F) << 6) | (b[i++] & 0x3F));
+            } else {
+                chars[n++] = (char) (((c & 0x0F) << 12) | ((b[i++] & 0x3F) << 6) | (b[i++] & 0x3F));
+            }
+        }
+        value = new String(chars, 0, n);
+        utf8Cache[index] = value;
+        return value;
+    }
+
+    /**
+     * Lcn/clear/Foo; 转换为 cn.clear.Foo
+     */
+    private static String descriptorToClassName(String descriptor) {
+        if (descriptor.charAt(0) == 'L') {
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+        return descriptor;
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+                | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    private long readLong(int offset) {
+        return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+    }
+}
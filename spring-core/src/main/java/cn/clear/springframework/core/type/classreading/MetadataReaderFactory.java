@@ -0,0 +1,101 @@
+package cn.clear.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通过类加载器读取 .class 资源并解析成 {@link ClassMetadata}，解析结果会被缓存
+ * 整个过程只读取字节码，不会触发类的加载和静态初始化
+ */
+public class MetadataReaderFactory {
+
+    /**
+     * 没有找到类文件时的占位对象
+     */
+    private static final ClassMetadata NOT_FOUND = new ClassMetadata("", null, new String[0], 0, new ConcurrentHashMap<>());
+
+    private final ClassLoader classLoader;
+
+    private final Map<String, ClassMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    public MetadataReaderFactory(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 获取类的元信息
+     * @param className 全类名
+     * @return 类的元信息，类路径下找不到该类时返回null
+     */
+    public ClassMetadata getMetadata(String className) {
+        ClassMetadata metadata = metadataCache.computeIfAbsent(className, this::doRead);
+        return metadata == NOT_FOUND ? null : metadata;
+    }
+
+    /**
+     * 丢弃缓存的元信息，类文件变化后下次获取时重新读取
+     */
+    public void evict(String className) {
+        metadataCache.remove(className);
+    }
+
+    private ClassMetadata doRead(String className) {
+        String resource = className.replace('.', '/') + ".class";
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) {
+                return NOT_FOUND;
+            }
+            return ClassMetadataReader.read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read class file [" + resource + "]", e);
+        }
+    }
+
+    /**
+     * 查找类上直接标注的、本身是 annotationType 或者被 annotationType 标注（可多层）的注解
+     * 例如查找 @Component 时，类上的 @Service 也会被返回
+     * @param metadata 类的元信息
+     * @param annotationType 注解全类名
+     * @return 类上直接标注的注解属性，没有找到返回null
+     */
+    public AnnotationAttributes findAnnotation(ClassMetadata metadata, String annotationType) {
+        for (AnnotationAttributes attributes : metadata.getAnnotations().values()) {
+            if (isAnnotated(attributes.annotationType(), annotationType, new HashSet<>())) {
+                return attributes;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasAnnotation(ClassMetadata metadata, String annotationType) {
+        return findAnnotation(metadata, annotationType) != null;
+    }
+
+    private boolean isAnnotated(String candidate, String annotationType, Set<String> visited) {
+        if (candidate.equals(annotationType)) {
+            return true;
+        }
+        // JDK的元注解（@Documented、@Retention等）不可能被自定义注解标注，不再往下读
+        if (candidate.startsWith("java.") || !visited.add(candidate)) {
+            return false;
+        }
+        ClassMetadata metadata = getMetadata(candidate);
+        if (metadata == null) {
+            return false;
+        }
+        for (String metaAnnotation : metadata.getAnnotations().keySet()) {
+            if (isAnnotated(metaAnnotation, annotationType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+}
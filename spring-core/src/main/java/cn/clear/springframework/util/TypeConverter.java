@@ -0,0 +1,168 @@
+package cn.clear.springframework.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 把配置中的字符串转换为字段类型，支持字符串、基本类型及其包装类、枚举，
+ * 以及逗号分隔的数组、List、Set
+ */
+public class TypeConverter {
+
+    private static final String LIST_SEPARATOR = ",";
+
+    /**
+     * @param value 字符串值，为null时基本类型返回默认值，其余返回null
+     * @param targetType 目标类型
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T convert(String value, Class<T> targetType) throws Exception {
+        return (T) convert(value, targetType, null);
+    }
+
+    /**
+     * @param value 字符串值
+     * @param genericType 带泛型的目标类型，例如 List&lt;Integer&gt;
+     */
+    public static Object convert(String value, Type genericType) throws Exception {
+        if (genericType instanceof Class) {
+            return convert(value, (Class<?>) genericType, null);
+        }
+        if (genericType instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) genericType;
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            Class<?> elementType = arguments.length == 1 && arguments[0] instanceof Class ? (Class<?>) arguments[0] : String.class;
+            return convert(value, (Class<?>) parameterizedType.getRawType(), elementType);
+        }
+        throw new Exception("Unsupported target type " + genericType);
+    }
+
+    private static Object convert(String value, Class<?> targetType, Class<?> elementType) throws Exception {
+        if (value == null) {
+            return targetType.isPrimitive() ? defaultValue(targetType) : null;
+        }
+        if (targetType == String.class || targetType == Object.class) {
+            return value;
+        }
+        if (targetType.isArray()) {
+            String[] items = split(value);
+            Object array = Array.newInstance(targetType.getComponentType(), items.length);
+            for (int i = 0; i < items.length; i++) {
+                Array.set(array, i, convert(items[i], targetType.getComponentType(), null));
+            }
+            return array;
+        }
+        if (Collection.class.isAssignableFrom(targetType)) {
+            Collection<Object> collection = Set.class.isAssignableFrom(targetType) ? new LinkedHashSet<>() : new ArrayList<>();
+            if (!targetType.isInterface() && !targetType.isInstance(collection)) {
+                throw new Exception("Unsupported collection type " + targetType.getName());
+            }
+            for (String item : split(value)) {
+                collection.add(convert(item, elementType == null ? String.class : elementType, null));
+            }
+            return collection;
+        }
+        String text = value.trim();
+        if (targetType.isEnum()) {
+            return toEnum(targetType, text);
+        }
+        if (targetType == int.class || targetType == Integer.class) {
+            return Integer.valueOf(text);
+        }
+        if (targetType == long.class || targetType == Long.class) {
+            return Long.valueOf(text);
+        }
+        if (targetType == boolean.class || targetType == Boolean.class) {
+            return Boolean.valueOf(text);
+        }
+        if (targetType == double.class || targetType == Double.class) {
+            return Double.valueOf(text);
+        }
+        if (targetType == float.class || targetType == Float.class) {
+            return Float.valueOf(text);
+        }
+        if (targetType == short.class || targetType == Short.class) {
+            return Short.valueOf(text);
+        }
+        if (targetType == byte.class || targetType == Byte.class) {
+            return Byte.valueOf(text);
+        }
+        if (targetType == char.class || targetType == Character.class) {
+            if (value.length() != 1) {
+                throw new Exception("Can not convert '" + value + "' to char");
+            }
+            return value.charAt(0);
+        }
+        throw new Exception("Can not convert '" + value + "' to " + targetType.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> targetType, String text) {
+        return Enum.valueOf((Class<Enum>) targetType, text);
+    }
+
+    private static String[] split(String value) {
+        if (value.trim().isEmpty()) {
+            return new String[0];
+        }
+        String[] items = value.split(LIST_SEPARATOR);
+        for (int i = 0; i < items.length; i++) {
+            items[i] = items[i].trim();
+        }
+        return items;
+    }
+
+    /**
+     * 没有配置时基本类型的默认值
+     */
+    private static Object defaultValue(Class<?> primitiveType) {
+        if (primitiveType == boolean.class) {
+            return false;
+        }
+        if (primitiveType == char.class) {
+            return '\0';
+        }
+        return Array.get(Array.newInstance(primitiveType, 1), 0);
+    }
+
+    /**
+     * 复制转换结果中可变的部分：数组和集合返回新的副本，其他值本身不可变，原样返回
+     * 转换结果被缓存、注入到多个实例时使用，避免一个实例的修改影响其他实例
+     */
+    public static Object copyOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        if (value instanceof Set) {
+            return new LinkedHashSet<>((Set<?>) value);
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        return value;
+    }
+
+    /**
+     * 判断类型是否可以由 {@link #convert} 转换
+     */
+    public static boolean isConvertible(Class<?> type) {
+        if (type.isArray()) {
+            return isConvertible(type.getComponentType());
+        }
+        return type == String.class || type.isPrimitive() || type.isEnum() || Number.class.isAssignableFrom(type)
+                || type == Boolean.class || type == Character.class || type == List.class || type == Set.class
+                || type == Collection.class;
+    }
+}
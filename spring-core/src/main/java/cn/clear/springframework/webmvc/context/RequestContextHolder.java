@@ -0,0 +1,30 @@
+package cn.clear.springframework.webmvc.context;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 保存当前线程正在处理的请求，由 DispatcherServlet 在分发请求前后设置和清除
+ */
+public abstract class RequestContextHolder {
+
+    private static final ThreadLocal<HttpServletRequest> REQUEST_HOLDER = new ThreadLocal<>();
+
+    public static void setRequest(HttpServletRequest request) {
+        if (request == null) {
+            REQUEST_HOLDER.remove();
+        } else {
+            REQUEST_HOLDER.set(request);
+        }
+    }
+
+    public static void resetRequest() {
+        REQUEST_HOLDER.remove();
+    }
+
+    /**
+     * @return 当前请求，不在请求处理线程中返回null
+     */
+    public static HttpServletRequest getRequest() {
+        return REQUEST_HOLDER.get();
+    }
+}
@@ -0,0 +1,51 @@
+package cn.clear.springframework.webmvc.context;
+
+import cn.clear.springframework.beans.config.ObjectFactory;
+import cn.clear.springframework.beans.config.Scope;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 请求作用域，实例保存在当前请求的attribute中，请求结束后随请求一起释放
+ */
+public class RequestScope implements Scope {
+
+    public static final String SCOPE_REQUEST = "request";
+
+    /**
+     * attribute名称前缀，避免和业务代码的attribute冲突
+     */
+    private static final String ATTRIBUTE_PREFIX = RequestScope.class.getName() + ".";
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) throws Exception {
+        HttpServletRequest request = currentRequest(name);
+        String attributeName = ATTRIBUTE_PREFIX + name;
+        Object instance = request.getAttribute(attributeName);
+        if (instance == null) {
+            instance = objectFactory.getObject();
+            request.setAttribute(attributeName, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        HttpServletRequest request = RequestContextHolder.getRequest();
+        if (request == null) {
+            return null;
+        }
+        String attributeName = ATTRIBUTE_PREFIX + name;
+        Object instance = request.getAttribute(attributeName);
+        request.removeAttribute(attributeName);
+        return instance;
+    }
+
+    private HttpServletRequest currentRequest(String name) throws Exception {
+        HttpServletRequest request = RequestContextHolder.getRequest();
+        if (request == null) {
+            throw new Exception("Scope 'request' is not active for bean '" + name + "': no request bound to the current thread");
+        }
+        return request;
+    }
+}
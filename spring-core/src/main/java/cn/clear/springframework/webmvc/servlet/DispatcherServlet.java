@@ -5,9 +5,14 @@ package cn.clear.springframework.webmvc.servlet;
 import cn.clear.springframework.annotation.Controller;
 import cn.clear.springframework.annotation.RequestMapping;
 import cn.clear.springframework.context.support.DefaultApplicationContext;
+import cn.clear.springframework.core.factory.ApplicationContext;
+import cn.clear.springframework.util.StringUtil;
+import cn.clear.springframework.webmvc.context.RequestContextHolder;
+import cn.clear.springframework.webmvc.context.RequestScope;
 
 
 import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,11 +34,19 @@ public class DispatcherServlet extends HttpServlet {
     /**配置文件地址，从web.xml中获取*/
     private static final String CONTEXT_CONFIG_LOCATION = "contextConfigLocation";
 
+    /**
+     * 共享的父上下文在ServletContext中的属性名
+     */
+    public static final String ROOT_CONTEXT_ATTRIBUTE = DispatcherServlet.class.getName() + ".ROOT";
+
     private DefaultApplicationContext context;
 
-    private final List<HandlerMapping> handlerMappings = new ArrayList<>();
+    /**
+     * 热刷新重建Controller之后整体替换
+     */
+    private volatile List<HandlerMapping> handlerMappings = new ArrayList<>();
 
-    private final Map<HandlerMapping, HandlerAdapter> handlerAdapters = new HashMap<>();
+    private volatile Map<HandlerMapping, HandlerAdapter> handlerAdapters = new HashMap<>();
 
     private final List<ViewResolver> viewResolvers = new ArrayList<>();
 
@@ -44,6 +57,8 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        // 绑定当前请求，request作用域的bean保存在请求的attribute中
+        RequestContextHolder.setRequest(req);
         try {
             this.doDispatch(req, resp);
         } catch (Exception e) {
@@ -51,6 +66,8 @@ public class DispatcherServlet extends HttpServlet {
                     + Arrays.toString(e.getStackTrace()).replaceAll("\\[|\\]", "")
                     .replaceAll(",\\s", "\r\n"));
             e.printStackTrace();
+        } finally {
+            RequestContextHolder.resetRequest();
         }
     }
 
@@ -76,11 +93,57 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     public void init(ServletConfig config) throws ServletException {
-        // 1、初始化ApplicationContext容器
-        context = new DefaultApplicationContext(config.getInitParameter(CONTEXT_CONFIG_LOCATION));
+        // 1、初始化ApplicationContext容器，有共享的父上下文时只创建父上下文中没有的bean（例如Controller）
+        context = new DefaultApplicationContext(config.getInitParameter(CONTEXT_CONFIG_LOCATION),
+                getRootContext(config.getServletContext()));
+        context.registerScope(RequestScope.SCOPE_REQUEST, new RequestScope());
 
         // 2、初始化Spring MVC 九大组件
         initStrategies(context);
+
+        // 3、热刷新重建了Controller时，重新建立URL映射
+        context.addHotRefreshListener(beanNames -> {
+            for (String beanName : context.getBeanNamesForAnnotation(Controller.class)) {
+                if (beanNames.contains(beanName)) {
+                    refreshHandlerMappings(context);
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取所有DispatcherServlet共享的父上下文，web.xml中配置了 context-param contextConfigLocation 时，
+     * 由第一个初始化的DispatcherServlet创建并保存到ServletContext中
+     * @return 父上下文，没有配置返回null
+     */
+    private ApplicationContext getRootContext(ServletContext servletContext) {
+        synchronized (servletContext) {
+            ApplicationContext root = (ApplicationContext) servletContext.getAttribute(ROOT_CONTEXT_ATTRIBUTE);
+            if (root == null) {
+                String configLocation = servletContext.getInitParameter(CONTEXT_CONFIG_LOCATION);
+                if (StringUtil.isEmpty(configLocation)) {
+                    return null;
+                }
+                DefaultApplicationContext rootContext = new DefaultApplicationContext(configLocation);
+                rootContext.registerScope(RequestScope.SCOPE_REQUEST, new RequestScope());
+                servletContext.setAttribute(ROOT_CONTEXT_ATTRIBUTE, rootContext);
+                root = rootContext;
+            }
+            return root;
+        }
+    }
+
+    /**
+     * 新的映射和适配器都建好之后再替换，正在处理的请求继续使用旧的映射
+     */
+    private void refreshHandlerMappings(DefaultApplicationContext context) {
+        List<HandlerMapping> mappings = createHandlerMappings(context);
+        Map<HandlerMapping, HandlerAdapter> adapters = new HashMap<>(this.handlerAdapters);
+        adapters.putAll(createHandlerAdapters(mappings));
+        this.handlerAdapters = adapters;
+        this.handlerMappings = mappings;
+        this.handlerAdapters = createHandlerAdapters(mappings);
     }
 
 
@@ -116,18 +179,18 @@ public class DispatcherServlet extends HttpServlet {
      * @param context ApplicationContext容器
      */
     private void initHandlerMappings(DefaultApplicationContext context) {
-        // 获取容器中注册的bean名称数组
-        String[] beanDefinitionNames = context.getBeanDefinitionNames();
+        this.handlerMappings = createHandlerMappings(context);
+    }
+
+    private List<HandlerMapping> createHandlerMappings(DefaultApplicationContext context) {
+        List<HandlerMapping> handlerMappings = new ArrayList<>();
         try {
-            for (String beanDefinitionName : beanDefinitionNames) {
-                Object bean = context.getBean(beanDefinitionName);
-                // 获取bean的类信息
-                Class<?> clazz = bean.getClass();
-                // 如果bean没有@Controller注解，跳过
-                if (!clazz.isAnnotationPresent(Controller.class)) {
-                    continue;
-                }
-                
+            // 通过注解索引只取出@Controller的bean，不再逐个创建所有bean再判断
+            for (String beanName : context.getBeanNamesForAnnotation(Controller.class)) {
+                Object bean = context.getBean(beanName);
+                // 获取bean定义的类信息
+                Class<?> clazz = context.getType(beanName);
+
                 // 拿到类上定义的baseUrl
                 String baseUrl = "";
                 if (clazz.isAnnotationPresent(RequestMapping.class)) {
@@ -153,17 +216,24 @@ public class DispatcherServlet extends HttpServlet {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return handlerMappings;
     }
     
     private void initHandlerAdapters(DefaultApplicationContext context) {
+        this.handlerAdapters = createHandlerAdapters(this.handlerMappings);
+    }
+
+    private Map<HandlerMapping, HandlerAdapter> createHandlerAdapters(List<HandlerMapping> handlerMappings) {
+        Map<HandlerMapping, HandlerAdapter> handlerAdapters = new HashMap<>();
         for (HandlerMapping handlerMapping : handlerMappings) {
             handlerAdapters.put(handlerMapping, new HandlerAdapter());
         }
+        return handlerAdapters;
     }
 
     private void initViewResolvers(DefaultApplicationContext context) {
         // 配置文件中拿到模板的存放目录
-        String templateRoot = context.getConfig().getProperty("spring.template.root");
+        String templateRoot = context.getEnvironment().getProperty("spring.template.root");
         URL url = this.getClass().getClassLoader().getResource(templateRoot);
         if (url != null) {
             this.viewResolvers.add(new ViewResolver(templateRoot));
@@ -0,0 +1,105 @@
+package cn.clear.springframework.aop;
+
+import cn.clear.springframework.aop.aspect.JoinPoint;
+import cn.clear.springframework.aop.config.AopConfig;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JDK代理和子类代理的 equals、hashCode：代理等于自己，同一个目标对象的代理相等，可以作为 HashSet 的元素
+ */
+public class AopProxyEqualityTest extends TestCase {
+
+    public AopProxyEqualityTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(AopProxyEqualityTest.class);
+    }
+
+    public void testJdkProxyEquality() throws Exception {
+        GreeterImpl target = new GreeterImpl();
+        Object proxy = createProxy(target);
+        Object other = createProxy(target);
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertEquality(target, proxy, other, createProxy(new GreeterImpl()));
+        assertEquals("hi", ((Greeter) proxy).greet());
+    }
+
+    public void testSubclassProxyEquality() throws Exception {
+        Counter target = new Counter();
+        Object proxy = createProxy(target);
+        Object other = createProxy(target);
+        assertTrue(proxy instanceof Counter);
+        assertNotSame(Counter.class, proxy.getClass());
+        assertEquality(target, proxy, other, createProxy(new Counter()));
+        assertEquals(1, ((Counter) proxy).next());
+    }
+
+    public void testProxiesOfSameTargetAndUnwrapping() throws Exception {
+        GreeterImpl target = new GreeterImpl();
+        assertEquals(createProxy(target), createProxy(target));
+        assertSame(target, AopProxyUtils.getTarget(createProxy(target)));
+        assertNull(AopProxyUtils.getTarget(target));
+    }
+
+    private static void assertEquality(Object target, Object proxy, Object sameTargetProxy, Object otherTargetProxy) {
+        assertTrue(proxy.equals(proxy));
+        assertTrue(proxy.equals(sameTargetProxy));
+        assertTrue(sameTargetProxy.equals(proxy));
+        assertEquals(proxy.hashCode(), sameTargetProxy.hashCode());
+        assertEquals(target.hashCode(), proxy.hashCode());
+        assertFalse(proxy.equals(otherTargetProxy));
+        assertFalse(proxy.equals(target));
+        assertFalse(proxy.equals(null));
+
+        Set<Object> set = new HashSet<>();
+        set.add(proxy);
+        assertTrue(set.contains(proxy));
+        assertTrue(set.contains(sameTargetProxy));
+        assertFalse(set.contains(otherTargetProxy));
+    }
+
+    private static Object createProxy(Object target) throws Exception {
+        AopConfig config = new AopConfig();
+        config.setPointCut("execution(* greet(..)) || execution(* next(..))");
+        config.setAspectClass(CountingAspect.class.getName());
+        config.setAspectBefore("before");
+        AopProxyPostProcessor processor = new AopProxyPostProcessor(config, null);
+        assertTrue(processor.supports(target.getClass()));
+        Object proxy = processor.postProcessAfterInitialization(target, "target");
+        assertNotNull(proxy);
+        assertNotSame(target, proxy);
+        return proxy;
+    }
+
+    public interface Greeter {
+        String greet();
+    }
+
+    public static class GreeterImpl implements Greeter {
+        @Override
+        public String greet() {
+            return "hi";
+        }
+    }
+
+    public static class Counter {
+        private int count;
+
+        public int next() {
+            return ++count;
+        }
+    }
+
+    public static class CountingAspect {
+        public void before(JoinPoint joinPoint) {
+        }
+    }
+}
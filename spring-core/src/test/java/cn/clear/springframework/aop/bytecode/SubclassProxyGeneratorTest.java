@@ -0,0 +1,213 @@
+package cn.clear.springframework.aop.bytecode;
+
+import cn.clear.springframework.core.type.classreading.ClassMetadata;
+import cn.clear.springframework.core.type.classreading.ClassMetadataReader;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 生成的字节码能通过校验并正确执行：常量、各种类型的参数和返回值、装箱拆箱、异常透传
+ */
+public class SubclassProxyGeneratorTest extends TestCase {
+
+    private static final int ACC_STATIC = 0x0008;
+
+    public SubclassProxyGeneratorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SubclassProxyGeneratorTest.class);
+    }
+
+    /**
+     * pushInt 在不同的取值范围分别使用 iconst、bipush、sipush、ldc_w
+     */
+    public void testClassFileWriterConstants() throws Exception {
+        int[] values = {-1, 0, 5, 6, -2, Byte.MAX_VALUE, Byte.MIN_VALUE, 128, Short.MAX_VALUE, Short.MIN_VALUE,
+                Short.MAX_VALUE + 1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        ClassFileWriter writer = new ClassFileWriter(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SUPER,
+                "cn/clear/generated/Constants", "java/lang/Object", "java/io/Serializable");
+        for (int i = 0; i < values.length; i++) {
+            writer.addMethod(ClassFileWriter.ACC_PUBLIC | ACC_STATIC, "value" + i, "()I")
+                    .pushInt(values[i]).returnValue(int.class).maxs(1, 0);
+        }
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC | ACC_STATIC, "second", "(JDLjava/lang/String;)D")
+                .load(double.class, 2).returnValue(double.class).maxs(2, 5);
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC | ACC_STATIC, "third", "(JDLjava/lang/String;)Ljava/lang/String;")
+                .load(String.class, 4).returnValue(String.class).maxs(1, 5);
+        writer.addField(ClassFileWriter.ACC_PUBLIC, "field", "J");
+        byte[] bytes = writer.toByteArray();
+
+        Class<?> clazz = new TestClassLoader().define("cn.clear.generated.Constants", bytes);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("value" + i, values[i], clazz.getMethod("value" + i).invoke(null));
+        }
+        assertEquals(2.5d, clazz.getMethod("second", long.class, double.class, String.class).invoke(null, 1L, 2.5d, "s"));
+        assertEquals("s", clazz.getMethod("third", long.class, double.class, String.class).invoke(null, 1L, 2.5d, "s"));
+        assertEquals(long.class, clazz.getField("field").getType());
+
+        // 自己写出的常量池也能被字节码元信息读取器解析
+        ClassMetadata metadata = ClassMetadataReader.read(bytes);
+        assertEquals("cn.clear.generated.Constants", metadata.getClassName());
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertEquals(Arrays.asList("java.io.Serializable"), Arrays.asList(metadata.getInterfaceNames()));
+    }
+
+    public void testGetProxiedMethodsSkipsStaticAndFinal() {
+        List<String> names = new ArrayList<>();
+        for (Method method : SubclassProxyGenerator.getProxiedMethods(Target.class)) {
+            assertFalse(method.toString(), Modifier.isFinal(method.getModifiers()) || Modifier.isStatic(method.getModifiers()));
+            names.add(method.getName());
+        }
+        assertTrue(names.contains("mix"));
+        assertTrue(names.contains("toString"));
+        assertFalse(names.contains("fixed"));
+        assertFalse(names.contains("utility"));
+        assertFalse(names.contains("getClass"));
+    }
+
+    /**
+     * 有通知的方法：参数装箱后交给dispatcher，返回值拆箱
+     */
+    public void testAdvisedMethodsDispatch() throws Exception {
+        Target target = new Target();
+        Method[] methods = SubclassProxyGenerator.getProxiedMethods(Target.class);
+        boolean[] advised = new boolean[methods.length];
+        Arrays.fill(advised, true);
+        List<String> calls = new ArrayList<>();
+        Target proxy = (Target) SubclassProxyGenerator.getProxyClass(Target.class, methods, advised, null)
+                .newInstance(target, (index, self, args) -> {
+                    calls.add(methods[index].getName());
+                    try {
+                        return methods[index].invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        assertInvocations(proxy);
+        assertTrue(calls.containsAll(Arrays.asList("mix", "bytes", "flags", "values", "run", "fail")));
+        assertSame(target, SubclassProxyGenerator.getTarget(proxy));
+        assertNull(SubclassProxyGenerator.getTarget(target));
+        assertTrue(proxy.getClass().isSynthetic());
+        assertEquals(1, target.runs);
+    }
+
+    /**
+     * 没有通知的方法直接调用目标对象，不经过dispatcher
+     */
+    public void testUnadvisedMethodsDelegate() throws Exception {
+        Target target = new Target();
+        Method[] methods = SubclassProxyGenerator.getProxiedMethods(Target.class);
+        Target proxy = (Target) SubclassProxyGenerator.getProxyClass(Target.class, methods, new boolean[methods.length], null)
+                .newInstance(target, (index, self, args) -> {
+                    throw new AssertionError("unadvised method " + methods[index] + " was dispatched");
+                });
+
+        assertInvocations(proxy);
+        assertEquals(1, target.runs);
+        assertEquals("target", proxy.toString());
+    }
+
+    private static void assertInvocations(Target proxy) {
+        assertEquals("1|2|3|4|5.0|6.0|true|c|x", proxy.mix((byte) 1, (short) 2, 3, 4L, 5f, 6d, true, 'c', "x"));
+        assertEquals(Long.MAX_VALUE, proxy.max(Long.MAX_VALUE, 1));
+        assertEquals(0.5d, proxy.half(1d));
+        assertEquals('z', proxy.next('y'));
+        assertTrue(Arrays.equals(new byte[]{3, 2, 1}, proxy.bytes(new byte[]{1, 2, 3})));
+        assertEquals(2, proxy.flags(new boolean[][]{{true}, {false, true}}));
+        assertEquals(Arrays.asList("a", "b"), proxy.values("a", "b"));
+        proxy.run();
+        try {
+            proxy.fail("boom");
+            fail("checked exception should propagate");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    private static class TestClassLoader extends ClassLoader {
+
+        TestClassLoader() {
+            super(SubclassProxyGeneratorTest.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    public static class Target {
+
+        int runs;
+
+        public String mix(byte b, short s, int i, long l, float f, double d, boolean z, char c, String text) {
+            return b + "|" + s + "|" + i + "|" + l + "|" + f + "|" + d + "|" + z + "|" + c + "|" + text;
+        }
+
+        public long max(long a, int b) {
+            return Math.max(a, b);
+        }
+
+        public double half(double value) {
+            return value / 2;
+        }
+
+        public char next(char c) {
+            return (char) (c + 1);
+        }
+
+        public byte[] bytes(byte[] values) {
+            byte[] result = new byte[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[values.length - 1 - i];
+            }
+            return result;
+        }
+
+        public int flags(boolean[][] values) {
+            int count = 0;
+            for (boolean[] row : values) {
+                for (boolean value : row) {
+                    count += value ? 1 : 0;
+                }
+            }
+            return count;
+        }
+
+        public List<String> values(String... values) {
+            return Arrays.asList(values);
+        }
+
+        public void run() {
+            runs++;
+        }
+
+        public void fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public final String fixed() {
+            return "fixed";
+        }
+
+        public static String utility() {
+            return "utility";
+        }
+
+        @Override
+        public String toString() {
+            return "target";
+        }
+    }
+}
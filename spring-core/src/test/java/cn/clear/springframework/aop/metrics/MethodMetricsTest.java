@@ -0,0 +1,44 @@
+package cn.clear.springframework.aop.metrics;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 方法耗时统计的名称：参数类型使用全名，重载方法各自统计
+ */
+public class MethodMetricsTest extends TestCase {
+
+    public MethodMetricsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(MethodMetricsTest.class);
+    }
+
+    public void testOverloadsWithSameSimpleName() throws Exception {
+        MethodMetrics metrics = new MethodMetrics(1);
+        metrics.createInterceptor(Target.class, Target.class.getMethod("foo", java.util.Date.class));
+        metrics.createInterceptor(Target.class, Target.class.getMethod("foo", java.sql.Date.class));
+        metrics.createInterceptor(Target.class, Target.class.getMethod("foo", String[].class, int.class));
+
+        String prefix = Target.class.getName() + ".foo(";
+        assertEquals(3, metrics.snapshot().size());
+        assertTrue(metrics.snapshot().containsKey(prefix + "java.util.Date)"));
+        assertTrue(metrics.snapshot().containsKey(prefix + "java.sql.Date)"));
+        assertTrue(metrics.snapshot().containsKey(prefix + "java.lang.String[],int)"));
+    }
+
+    public static class Target {
+
+        public void foo(java.util.Date date) {
+        }
+
+        public void foo(java.sql.Date date) {
+        }
+
+        public void foo(String[] values, int count) {
+        }
+    }
+}
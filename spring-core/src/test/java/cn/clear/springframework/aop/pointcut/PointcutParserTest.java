@@ -0,0 +1,153 @@
+package cn.clear.springframework.aop.pointcut;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 切点表达式的语法、匹配规则和不合法表达式的报错
+ */
+public class PointcutParserTest extends TestCase {
+
+    private static final String SERVICE = PointcutParserTest.class.getName() + "$OrderService";
+
+    public PointcutParserTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(PointcutParserTest.class);
+    }
+
+    public void testExecutionOnDeclaringType() {
+        assertEquals(set("find", "findAll", "save", "toString"), matched("execution(* " + SERVICE + ".*(..))", OrderService.class));
+        // 子类继承的方法按声明类型匹配，子类自己声明的方法不匹配
+        assertEquals(set("find", "findAll", "save", "toString"), matched("execution(* " + SERVICE + ".*(..))", SpecialOrderService.class));
+        assertEquals(set("find", "findAll", "save", "toString", "cancel"), matched("execution(* " + SERVICE + "+.*(..))", SpecialOrderService.class));
+        assertEquals(set("find", "findAll", "save", "toString"), matched("execution(* *OrderService.*(..))", OrderService.class));
+        assertFalse(PointcutParser.parse("execution(* java.util..*.*(..))").matchesClass(OrderService.class));
+    }
+
+    public void testReturnTypeParametersAndThrows() {
+        assertEquals(set("find"), matched("execution(public String *.find*(String, ..))", OrderService.class));
+        assertEquals(set("find", "findAll"), matched("execution(* find*(..))", OrderService.class));
+        assertEquals(set("save"), matched("execution(* *(*, int))", OrderService.class));
+        assertEquals(set("save"), matched("execution(void *(..) throws java.io.IOException)", OrderService.class));
+        assertEquals(set("findAll"), matched("execution(String[] *(..))", OrderService.class));
+        assertEquals(set("equals", "find", "findAll", "hashCode", "toString"), matched("execution(* *(..)) && !execution(void *(..))", OrderService.class));
+        assertEquals(set("find"), matched("execution(* *(String, String))", OrderService.class));
+        assertEquals(set("findAll", "hashCode", "toString"), matched("execution(* *())", OrderService.class));
+    }
+
+    public void testStaticAndFinalMethodsNeverMatch() {
+        Set<String> all = matched("execution(* *(..))", OrderService.class);
+        assertFalse(all.contains("helper"));
+        assertFalse(all.contains("finalMethod"));
+        assertFalse(all.contains("getClass"));
+        assertFalse(all.contains("wait"));
+        assertFalse(all.contains("notify"));
+        assertFalse(matched("execution(static * *(..))", OrderService.class).contains("helper"));
+        assertFalse(matched("within(*OrderService)", OrderService.class).contains("finalMethod"));
+    }
+
+    public void testWithinMatchesOnlyMethodsDeclaredInMatchingTypes() {
+        assertEquals(set("find", "findAll", "save", "toString"), matched("within(*OrderService)", OrderService.class));
+        // hashCode、equals 从Object继承，不在切点的类型中声明
+        Set<String> inherited = matched("within(*OrderService+)", SpecialOrderService.class);
+        assertEquals(set("find", "findAll", "save", "toString", "cancel"), inherited);
+        assertEquals(set("cancel"), matched("within(*SpecialOrderService)", SpecialOrderService.class));
+        assertFalse(PointcutParser.parse("within(java..*)").matchesClass(OrderService.class));
+    }
+
+    public void testAnnotationAndComposition() {
+        assertEquals(set("save"), matched("@annotation(java.lang.Deprecated)", OrderService.class));
+        assertEquals(set("find", "save"), matched("execution(* find(..)) || @annotation(java.lang.Deprecated)", OrderService.class));
+        assertEquals(set("find"), matched("(execution(* find*(..)) and not execution(* findAll(..)))", OrderService.class));
+        assertEquals(set("find"), matched("within(*OrderService) && (execution(* find(..)) or execution(* nothing(..)))", OrderService.class));
+    }
+
+    public void testLegacyRegexExpression() {
+        Pointcut pointcut = PointcutParser.parse("public .* " + PointcutParserTest.class.getPackage().getName() + "..*..*(.*)");
+        assertTrue(pointcut.matchesClass(OrderService.class));
+        assertTrue(matched(pointcut, OrderService.class).contains("find"));
+    }
+
+    public void testMalformedExpressions() {
+        assertRejected("execution(* *(..)");
+        assertRejected("execution(* *(..)) &&");
+        assertRejected("execution(* *(..)) foo");
+        assertRejected("(execution(* *(..))");
+        assertRejected("!foo(bar)");
+        assertRejected("within()");
+        assertRejected("execution(* *(..)) || ");
+        assertRejected("not");
+    }
+
+    private static void assertRejected(String expression) {
+        try {
+            Pointcut pointcut = PointcutParser.parse(expression);
+            fail("expected '" + expression + "' to be rejected, got " + pointcut);
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("pointcut") || expected.getMessage().contains("pattern"));
+        }
+    }
+
+    private static Set<String> matched(String expression, Class<?> type) {
+        return matched(PointcutParser.parse(expression), type);
+    }
+
+    private static Set<String> matched(Pointcut pointcut, Class<?> type) {
+        Set<String> result = new TreeSet<>();
+        if (pointcut.matchesClass(type)) {
+            for (Method method : type.getMethods()) {
+                if (pointcut.matches(method, type)) {
+                    result.add(method.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> set(String... names) {
+        Set<String> result = new TreeSet<>();
+        for (String name : names) {
+            result.add(name);
+        }
+        return result;
+    }
+
+    public static class OrderService {
+        public String find(String id, String owner) {
+            return id;
+        }
+
+        public String[] findAll() {
+            return new String[0];
+        }
+
+        @Deprecated
+        public void save(Object order, int count) throws IOException {
+        }
+
+        public final void finalMethod() {
+        }
+
+        public static void helper() {
+        }
+
+        @Override
+        public String toString() {
+            return "orders";
+        }
+    }
+
+    public static class SpecialOrderService extends OrderService {
+        public void cancel() {
+        }
+    }
+}
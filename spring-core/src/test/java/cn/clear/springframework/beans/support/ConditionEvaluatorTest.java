@@ -0,0 +1,165 @@
+package cn.clear.springframework.beans.support;
+
+import cn.clear.springframework.annotation.ConditionalOnClass;
+import cn.clear.springframework.annotation.ConditionalOnProperty;
+import cn.clear.springframework.annotation.Profile;
+import cn.clear.springframework.core.env.Environment;
+import cn.clear.springframework.core.type.classreading.MetadataReaderFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 条件注解：属性和profile从配置环境中读取，包括系统属性和占位符
+ */
+public class ConditionEvaluatorTest extends TestCase {
+
+    private static final String SYSTEM_KEY = "conditionEvaluatorTest.feature";
+
+    private final MetadataReaderFactory metadataReaderFactory = new MetadataReaderFactory(ConditionEvaluatorTest.class.getClassLoader());
+
+    public ConditionEvaluatorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ConditionEvaluatorTest.class);
+    }
+
+    @Override
+    protected void tearDown() {
+        System.clearProperty(SYSTEM_KEY);
+    }
+
+    public void testPropertyPlaceholderIsResolved() {
+        ConditionEvaluator evaluator = evaluator(new Environment(false), "cache.mode", "${cache.default}", "cache.default", "on");
+
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(CacheOn.class.getName())));
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(CacheOff.class.getName())));
+    }
+
+    public void testSystemPropertyOverridesConfig() {
+        ConditionEvaluator evaluator = evaluator(new Environment(), SYSTEM_KEY, "false");
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(Feature.class.getName())));
+
+        System.setProperty(SYSTEM_KEY, "true");
+        evaluator = evaluator(new Environment(), SYSTEM_KEY, "false");
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(Feature.class.getName())));
+    }
+
+    public void testMissingProperty() {
+        ConditionEvaluator evaluator = evaluator(new Environment(false));
+
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(CacheOn.class.getName())));
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(MissingOk.class.getName())));
+    }
+
+    public void testProfiles() {
+        ConditionEvaluator evaluator = evaluator(new Environment(false));
+        assertEquals(Collections.singleton(ConditionEvaluator.DEFAULT_PROFILE), evaluator.getActiveProfiles());
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(DevOnly.class.getName())));
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(NotDev.class.getName())));
+
+        evaluator = evaluator(new Environment(false), ConditionEvaluator.ACTIVE_PROFILES, "${profile.name}, worker", "profile.name", "dev");
+        assertTrue(evaluator.getActiveProfiles().contains("dev"));
+        assertTrue(evaluator.getActiveProfiles().contains("worker"));
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(DevOnly.class.getName())));
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(NotDev.class.getName())));
+    }
+
+    public void testPropertySourceAddedLater() {
+        Environment environment = new Environment(false);
+        ConditionEvaluator evaluator = new ConditionEvaluator(environment, getClass().getClassLoader());
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(DevOnly.class.getName())));
+
+        Properties properties = new Properties();
+        properties.setProperty(ConditionEvaluator.ACTIVE_PROFILES, "dev");
+        environment.addLast("config", properties);
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(DevOnly.class.getName())));
+    }
+
+    public void testClassConditions() {
+        ConditionEvaluator evaluator = evaluator(new Environment(false));
+
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(WithList.class.getName())));
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(WithMissingClass.class.getName())));
+    }
+
+    /**
+     * 启动快照依赖记录下来的属性和类判断条件的结果是否可能变化，包括只在系统属性中设置、或者不存在的属性
+     */
+    public void testRecordsEvaluatedConditions() {
+        Environment environment = new Environment();
+        ConditionEvaluator evaluator = evaluator(environment);
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(MissingOk.class.getName())));
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(Feature.class.getName())));
+        assertTrue(evaluator.shouldSkip(metadataReaderFactory.getMetadata(WithMissingClass.class.getName())));
+        assertFalse(evaluator.shouldSkip(metadataReaderFactory.getMetadata(WithList.class.getName())));
+
+        Map<String, String> properties = evaluator.getEvaluatedProperties();
+        Map<String, Boolean> classes = evaluator.getEvaluatedClasses();
+        assertTrue(properties.containsKey("cache.mode"));
+        assertNull(properties.get("cache.mode"));
+        assertTrue(properties.containsKey(SYSTEM_KEY));
+        assertEquals(Boolean.FALSE, classes.get("com.example.DoesNotExist"));
+        assertEquals(Boolean.TRUE, classes.get("java.util.List"));
+        assertTrue(evaluator.isUnchanged(properties, classes));
+
+        System.setProperty(SYSTEM_KEY, "true");
+        assertFalse(evaluator(new Environment()).isUnchanged(properties, classes));
+        System.clearProperty(SYSTEM_KEY);
+
+        Map<String, Boolean> movedClass = new HashMap<>(classes);
+        movedClass.put("com.example.DoesNotExist", true);
+        assertFalse(evaluator.isUnchanged(properties, movedClass));
+    }
+
+    /**
+     * @param keyValues 配置文件中的属性，key和value交替
+     */
+    private ConditionEvaluator evaluator(Environment environment, String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        environment.addLast("config", properties);
+        return new ConditionEvaluator(environment, getClass().getClassLoader());
+    }
+
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "on")
+    static class CacheOn {
+    }
+
+    @ConditionalOnProperty(name = "cache.mode", havingValue = "off")
+    static class CacheOff {
+    }
+
+    @ConditionalOnProperty(name = SYSTEM_KEY)
+    static class Feature {
+    }
+
+    @ConditionalOnProperty(name = "cache.mode", matchIfMissing = true)
+    static class MissingOk {
+    }
+
+    @Profile("dev")
+    static class DevOnly {
+    }
+
+    @Profile("!dev")
+    static class NotDev {
+    }
+
+    @ConditionalOnClass(java.util.List.class)
+    static class WithList {
+    }
+
+    @ConditionalOnClass(name = "com.example.DoesNotExist")
+    static class WithMissingClass {
+    }
+}
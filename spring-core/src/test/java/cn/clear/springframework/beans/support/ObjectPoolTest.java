@@ -0,0 +1,113 @@
+package cn.clear.springframework.beans.support;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对象池：一个对象同一时间只借给一个使用者，创建的对象不超过池的容量
+ */
+public class ObjectPoolTest extends TestCase {
+
+    public ObjectPoolTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ObjectPoolTest.class);
+    }
+
+    public void testDoubleReleaseIsIgnored() throws Exception {
+        ObjectPool pool = new ObjectPool("test", 2);
+        Object borrowed = pool.borrow(Object::new, 10);
+        assertTrue(pool.release(borrowed));
+        assertFalse(pool.release(borrowed));
+
+        Object first = pool.borrow(Object::new, 10);
+        Object second = pool.borrow(Object::new, 10);
+        assertNotSame(first, second);
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(2, statistics.getCreated());
+        assertEquals(2, statistics.getActive());
+        assertEquals(0, statistics.getIdle());
+    }
+
+    public void testForeignObjectIsIgnored() throws Exception {
+        AtomicInteger instances = new AtomicInteger();
+        ObjectPool pool = new ObjectPool("test", 1);
+        Object borrowed = pool.borrow(() -> {
+            instances.incrementAndGet();
+            return new Object();
+        }, 10);
+        assertFalse(pool.release(new Object()));
+        assertFalse(pool.release(null));
+        try {
+            pool.borrow(Object::new, 10);
+            fail("pool of size 1 must not hand out a second instance");
+        } catch (Exception expected) {
+            // 唯一的对象还在借出中
+        }
+        assertTrue(pool.release(borrowed));
+        assertSame(borrowed, pool.borrow(Object::new, 10));
+        assertEquals(1, instances.get());
+        assertEquals(1, pool.getStatistics().getCreated());
+    }
+
+    public void testPrewarmedObjectsAreIdle() throws Exception {
+        ObjectPool pool = new ObjectPool("test", 4);
+        pool.prewarm(Object::new, 2);
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(2, statistics.getCreated());
+        assertEquals(2, statistics.getIdle());
+        assertEquals(0, statistics.getActive());
+    }
+
+    public void testConcurrentBorrowNeverSharesAnInstance() throws Exception {
+        int size = 4;
+        int threads = 16;
+        ObjectPool pool = new ObjectPool("test", size);
+        AtomicInteger created = new AtomicInteger();
+        Set<Object> inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        Object object = pool.borrow(() -> {
+                            created.incrementAndGet();
+                            return new Object();
+                        }, 5000);
+                        assertTrue("instance handed out twice", inUse.add(object));
+                        inUse.remove(object);
+                        assertTrue(pool.release(object));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(created.get() <= size);
+        assertEquals(created.get(), pool.getStatistics().getCreated());
+        assertEquals(created.get(), pool.getStatistics().getIdle());
+    }
+}
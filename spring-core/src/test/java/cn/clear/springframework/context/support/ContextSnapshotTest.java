@@ -0,0 +1,73 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.beans.config.BeanDefinition;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动快照的读写：指纹不一致时不使用，条件注解的判断依据完整保存
+ */
+public class ContextSnapshotTest extends TestCase {
+
+    private File file;
+
+    public ContextSnapshotTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ContextSnapshotTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("context", ".snapshot");
+    }
+
+    @Override
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testRoundTrip() throws Exception {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("feature.enabled", "true");
+        properties.put("feature.missing", null);
+        Map<String, Boolean> classes = new LinkedHashMap<>();
+        classes.put("com.example.Present", true);
+        classes.put("com.example.Absent", false);
+
+        ContextSnapshot snapshot = new ContextSnapshot(1L, 2L);
+        snapshot.setConditions(properties, classes);
+        BeanDefinition beanDefinition = new BeanDefinition("com.example.Service", "service");
+        beanDefinition.setLazyInit(true);
+        snapshot.addBeanDefinition(beanDefinition);
+        snapshot.addBeanTypes("service", new String[]{"com.example.Service"}, new String[0]);
+        snapshot.addDependencyNames("service", new String[]{"repository"});
+        snapshot.write(file);
+
+        ContextSnapshot read = ContextSnapshot.read(file, 1L, 2L);
+        assertNotNull(read);
+        assertEquals(properties, read.getConditionProperties());
+        assertTrue(read.getConditionProperties().containsKey("feature.missing"));
+        assertEquals(classes, read.getConditionClasses());
+        assertEquals(1, read.getBeanDefinitions().size());
+        assertEquals("service", read.getBeanDefinitions().get(0).getFactoryBeanName());
+        assertTrue(read.getBeanDefinitions().get(0).isLazyInit());
+        assertEquals("com.example.Service", read.getBeanTypes("service")[0][0]);
+        assertEquals("repository", read.getDependencyNames("service")[0]);
+    }
+
+    public void testFingerprintMismatch() throws Exception {
+        new ContextSnapshot(1L, 2L).write(file);
+
+        assertNull(ContextSnapshot.read(file, 3L, 2L));
+        assertNull(ContextSnapshot.read(file, 1L, 3L));
+        assertNotNull(ContextSnapshot.read(file, 1L, 2L));
+    }
+}
@@ -0,0 +1,135 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.annotation.Autowired;
+import cn.clear.springframework.beans.config.BeanDefinition;
+import cn.clear.springframework.beans.config.BeanPostProcessor;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 循环依赖：提前暴露的引用经过后置处理器处理，和最终放入容器的对象是同一个
+ */
+public class EarlyReferenceTest extends TestCase {
+
+    public EarlyReferenceTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(EarlyReferenceTest.class);
+    }
+
+    public void testEarlyProxyIsFinalObject() throws Exception {
+        TestContext context = new TestContext();
+        context.addBeanPostProcessor(new EarlyWrapper());
+
+        Object a = context.getBean("a");
+        assertTrue(a instanceof Wrapper);
+        B b = (B) context.getBean("b");
+        assertSame(a, b.a);
+        assertSame(b, ((A) ((Wrapper) a).target).b);
+    }
+
+    public void testReplacedEarlyReferenceIsRejected() throws Exception {
+        TestContext context = new TestContext();
+        context.addBeanPostProcessor(new LateWrapper());
+
+        try {
+            context.getBean("a");
+            fail("bean replaced after its early reference was exposed should be rejected");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), String.valueOf(e.getMessage()).contains("circular reference"));
+        }
+    }
+
+    public void testWithoutCircularReference() throws Exception {
+        TestContext context = new TestContext();
+        context.addBeanPostProcessor(new LateWrapper());
+
+        Object c = context.getBean("c");
+        assertTrue(c instanceof Wrapper);
+        assertSame(c, context.getBean("c"));
+    }
+
+    public interface Named {
+    }
+
+    public static class A implements Named {
+        @Autowired("b")
+        B b;
+    }
+
+    public static class B {
+        @Autowired("a")
+        Named a;
+    }
+
+    public static class C implements Named {
+    }
+
+    static class Wrapper implements Named {
+        final Object target;
+
+        Wrapper(Object target) {
+            this.target = target;
+        }
+    }
+
+    /**
+     * 在提前暴露时包装，初始化之后不再包装
+     */
+    static class EarlyWrapper implements BeanPostProcessor {
+
+        @Override
+        public boolean supports(Class<?> beanClass) {
+            return A.class == beanClass;
+        }
+
+        @Override
+        public Object getEarlyBeanReference(Object bean, String beanName) {
+            return new Wrapper(bean);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+
+    /**
+     * 只在初始化之后包装
+     */
+    static class LateWrapper implements BeanPostProcessor {
+
+        @Override
+        public boolean supports(Class<?> beanClass) {
+            return A.class == beanClass || C.class == beanClass;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return new Wrapper(bean);
+        }
+    }
+
+    private static class TestContext extends AbstractApplicationContext {
+
+        TestContext() throws Exception {
+            register("a", A.class);
+            register("b", B.class);
+            register("c", C.class);
+        }
+
+        private void register(String beanName, Class<?> beanClass) throws Exception {
+            BeanDefinition beanDefinition = new BeanDefinition(beanClass.getName(), beanName);
+            beanDefinition.setLazyInit(true);
+            registerBeanDefinition(beanName, beanDefinition);
+        }
+
+        @Override
+        protected String resolveDependencyName(Class<?> type, String qualifier) {
+            return qualifier.isEmpty() ? type.getName() : qualifier;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.beans.config.BeanDefinition;
+import cn.clear.springframework.beans.config.BeanPostProcessor;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 热刷新：重建失败时容器保持原来的类加载器、作用域和单例，重建成功后一起替换；
+ * 按类缓存的后置处理器删除被替换的一代类，旧的类加载器可以回收
+ */
+public class HotRefreshRollbackTest extends TestCase {
+
+    private static final String FAIL_PROPERTY = "hotRefreshRollbackTest.fail";
+
+    public HotRefreshRollbackTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(HotRefreshRollbackTest.class);
+    }
+
+    @Override
+    protected void tearDown() {
+        System.clearProperty(FAIL_PROPERTY);
+    }
+
+    public void testFailedRefreshKeepsOldGeneration() throws Exception {
+        TestContext context = new TestContext();
+        ClassCache cache = new ClassCache();
+        context.addBeanPostProcessor(cache);
+        Object singleton = context.getBean("reloadable");
+
+        System.setProperty(FAIL_PROPERTY, "true");
+        try {
+            context.refreshClasses(classFiles(Reloadable.class, Prototype.class));
+            fail("refresh should fail when a staged singleton cannot be created");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), String.valueOf(e.getMessage()).contains("staged"));
+        }
+        System.clearProperty(FAIL_PROPERTY);
+
+        assertSame(singleton, context.getBean("reloadable"));
+        assertSame(Prototype.class, context.getBean("prototype").getClass());
+        // 丢弃的新一代类不再缓存，原来的类保留
+        assertTrue(cache.classes.containsKey(Reloadable.class));
+        for (Class<?> clazz : cache.classes.keySet()) {
+            assertSame(clazz.getName(), Reloadable.class.getClassLoader(), clazz.getClassLoader());
+        }
+    }
+
+    public void testSuccessfulRefreshSwapsGeneration() throws Exception {
+        TestContext context = new TestContext();
+        ClassCache cache = new ClassCache();
+        context.addBeanPostProcessor(cache);
+        Object singleton = context.getBean("reloadable");
+        context.getBean("prototype");
+
+        context.refreshClasses(classFiles(Reloadable.class, Prototype.class));
+        assertFalse(cache.classes.containsKey(Reloadable.class));
+        assertFalse(cache.classes.containsKey(Prototype.class));
+
+        Object refreshed = context.getBean("reloadable");
+        assertNotSame(singleton, refreshed);
+        assertEquals(Reloadable.class.getName(), refreshed.getClass().getName());
+        assertNotSame(Reloadable.class, refreshed.getClass());
+        Object prototype = context.getBean("prototype");
+        assertNotSame(Prototype.class, prototype.getClass());
+        assertSame(refreshed.getClass().getClassLoader(), prototype.getClass().getClassLoader());
+    }
+
+    private static Map<String, File> classFiles(Class<?>... classes) throws Exception {
+        Map<String, File> result = new HashMap<>();
+        for (Class<?> clazz : classes) {
+            String fileName = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+            result.put(clazz.getName(), new File(clazz.getResource(fileName).toURI()));
+        }
+        return result;
+    }
+
+    /**
+     * 按类缓存的后置处理器
+     */
+    private static class ClassCache implements BeanPostProcessor {
+
+        final Map<Class<?>, Boolean> classes = new ConcurrentHashMap<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            classes.put(bean.getClass(), Boolean.TRUE);
+            return bean;
+        }
+
+        @Override
+        public void evictClasses(Predicate<Class<?>> replaced) {
+            classes.keySet().removeIf(replaced);
+        }
+    }
+
+    /**
+     * 注册一个单例和一个多例，bean名称为类名首字母小写
+     */
+    private static class TestContext extends AbstractApplicationContext {
+
+        TestContext() throws Exception {
+            BeanDefinition singleton = new BeanDefinition(Reloadable.class.getName(), "reloadable");
+            singleton.setLazyInit(true);
+            registerBeanDefinition("reloadable", singleton);
+            BeanDefinition prototype = new BeanDefinition(Prototype.class.getName(), "prototype");
+            prototype.setLazyInit(true);
+            prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            registerBeanDefinition("prototype", prototype);
+        }
+
+        @Override
+        protected String resolveDependencyName(Class<?> type, String qualifier) {
+            return qualifier.isEmpty() ? type.getName() : qualifier;
+        }
+    }
+
+    public static class Reloadable {
+        public Reloadable() {
+            if (System.getProperty(FAIL_PROPERTY) != null) {
+                throw new IllegalStateException("staged creation failed");
+            }
+        }
+    }
+
+    public static class Prototype {
+    }
+}
@@ -0,0 +1,57 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.beans.support.PoolStatistics;
+import cn.clear.springframework.beans.support.PooledScope;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * pooled作用域的容量和等待时间从配置环境中读取，注解配置的容器也一样
+ */
+public class PooledScopeConfigTest extends TestCase {
+
+    public PooledScopeConfigTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(PooledScopeConfigTest.class);
+    }
+
+    @Override
+    protected void tearDown() {
+        System.clearProperty(PooledScope.MAX_SIZE);
+        System.clearProperty(PooledScope.PREWARM_SIZE);
+        System.clearProperty(PooledScope.MAX_WAIT);
+    }
+
+    public void testAnnotationConfigHonoursPoolSettings() throws Exception {
+        System.setProperty(PooledScope.MAX_SIZE, "1");
+        System.setProperty(PooledScope.MAX_WAIT, "10");
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class);
+        PooledScope scope = (PooledScope) context.getRegisteredScope(PooledScope.SCOPE_POOLED);
+
+        Object borrowed = scope.get("pooled", Object::new);
+        PoolStatistics statistics = scope.getStatistics("pooled");
+        assertEquals(1, statistics.getMaxSize());
+        try {
+            scope.get("pooled", Object::new);
+            fail("pool of size 1 should be exhausted");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), String.valueOf(e.getMessage()).contains("Timeout"));
+        }
+        scope.release("pooled", borrowed);
+    }
+
+    public void testDefaults() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class);
+        PooledScope scope = (PooledScope) context.getRegisteredScope(PooledScope.SCOPE_POOLED);
+
+        scope.get("pooled", Object::new);
+        assertEquals(PooledScope.DEFAULT_MAX_SIZE, scope.getStatistics("pooled").getMaxSize());
+    }
+
+    public static class Config {
+    }
+}
@@ -0,0 +1,204 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.annotation.Autowired;
+import cn.clear.springframework.beans.config.BeanDefinition;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发获取懒加载单例：同一个bean只创建一次，其他线程拿不到未完成依赖注入的实例
+ */
+public class SingletonCreationConcurrencyTest extends TestCase {
+
+    private static final int THREADS = 32;
+
+    private static final int ROUNDS = 20;
+
+    public SingletonCreationConcurrencyTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SingletonCreationConcurrencyTest.class);
+    }
+
+    @Override
+    protected void setUp() {
+        SlowBean.INSTANCES.set(0);
+        Consumer.INSTANCES.set(0);
+    }
+
+    public void testConcurrentFirstAccessCreatesOneInstance() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            SlowBean.INSTANCES.set(0);
+            TestContext context = new TestContext(SlowBean.class);
+
+            List<Object> beans = runConcurrently(THREADS, i -> context.getBean("slowBean"));
+
+            assertEquals(1, SlowBean.INSTANCES.get());
+            for (Object bean : beans) {
+                assertSame(beans.get(0), bean);
+            }
+        }
+    }
+
+    public void testNoHalfInitializedInstanceIsVisible() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Consumer.INSTANCES.set(0);
+            SlowBean.INSTANCES.set(0);
+            TestContext context = new TestContext(Consumer.class, SlowBean.class);
+
+            List<Object> beans = runConcurrently(THREADS, i -> context.getBean("consumer"));
+
+            assertEquals(1, Consumer.INSTANCES.get());
+            assertEquals(1, SlowBean.INSTANCES.get());
+            for (Object bean : beans) {
+                assertNotNull(((Consumer) bean).slowBean);
+            }
+        }
+    }
+
+    public void testCircularReferenceAcrossThreads() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            TestContext context = new TestContext(CircularA.class, CircularB.class);
+
+            // 一半线程从A开始，一半从B开始，创建A和B的线程会相互等待
+            List<Object> beans = runConcurrently(THREADS, i -> context.getBean(i % 2 == 0 ? "circularA" : "circularB"));
+
+            CircularA a = (CircularA) context.getBean("circularA");
+            CircularB b = (CircularB) context.getBean("circularB");
+            assertSame(b, a.b);
+            assertSame(a, b.a);
+            for (int i = 0; i < beans.size(); i++) {
+                assertSame(i % 2 == 0 ? a : b, beans.get(i));
+            }
+        }
+    }
+
+    public void testConstructorCycleIsReported() throws Exception {
+        TestContext context = new TestContext(ConstructorA.class, ConstructorB.class);
+        try {
+            context.getBean("constructorA");
+            fail("constructor cycle should not be resolvable");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("currently in creation"));
+        }
+    }
+
+    private static List<Object> runConcurrently(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit((Callable<Object>) () -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+
+            List<Object> result = new ArrayList<>(threads);
+            for (Future<Object> future : futures) {
+                result.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Task {
+        Object run(int index) throws Exception;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 只注册懒加载bean，bean名称为类名首字母小写，按类型注入
+     */
+    private static class TestContext extends AbstractApplicationContext {
+
+        TestContext(Class<?>... classes) throws Exception {
+            for (Class<?> clazz : classes) {
+                String beanName = Character.toLowerCase(clazz.getSimpleName().charAt(0)) + clazz.getSimpleName().substring(1);
+                BeanDefinition beanDefinition = new BeanDefinition(clazz.getName(), beanName);
+                beanDefinition.setLazyInit(true);
+                registerBeanDefinition(beanName, beanDefinition);
+            }
+        }
+
+        @Override
+        protected String resolveDependencyName(Class<?> type, String qualifier) {
+            return qualifier.isEmpty() ? type.getName() : qualifier;
+        }
+    }
+
+    static class SlowBean {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        SlowBean() {
+            INSTANCES.incrementAndGet();
+            pause();
+        }
+    }
+
+    static class Consumer {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        @Autowired
+        SlowBean slowBean;
+
+        Consumer() {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    static class CircularA {
+        @Autowired
+        CircularB b;
+
+        CircularA() {
+            pause();
+        }
+    }
+
+    static class CircularB {
+        @Autowired
+        CircularA a;
+
+        CircularB() {
+            pause();
+        }
+    }
+
+    static class ConstructorA {
+        @Autowired
+        ConstructorA(ConstructorB b) {
+        }
+    }
+
+    static class ConstructorB {
+        @Autowired
+        ConstructorB(ConstructorA a) {
+        }
+    }
+}
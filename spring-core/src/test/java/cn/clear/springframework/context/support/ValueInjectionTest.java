@@ -0,0 +1,109 @@
+package cn.clear.springframework.context.support;
+
+import cn.clear.springframework.annotation.ConfigurationProperties;
+import cn.clear.springframework.annotation.Value;
+import cn.clear.springframework.beans.config.BeanDefinition;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * @Value 和 @ConfigurationProperties 的值只转换一次，但数组和集合不能在多个实例之间共享
+ */
+public class ValueInjectionTest extends TestCase {
+
+    public ValueInjectionTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ValueInjectionTest.class);
+    }
+
+    public void testValueCollectionsAreNotShared() throws Exception {
+        TestContext context = new TestContext(ValueBean.class);
+        ValueBean first = (ValueBean) context.getBean("valueBean");
+        ValueBean second = (ValueBean) context.getBean("valueBean");
+        assertNotSame(first, second);
+        assertEquals(Arrays.asList(1, 2, 3), first.ids);
+        assertEquals(8080, first.port);
+
+        first.ids.add(4);
+        first.names[0] = "changed";
+        assertEquals(Arrays.asList(1, 2, 3), second.ids);
+        assertEquals("a", second.names[0]);
+        assertEquals(Arrays.asList(1, 2, 3), ((ValueBean) context.getBean("valueBean")).ids);
+    }
+
+    public void testBoundCollectionsAreNotShared() throws Exception {
+        TestContext context = new TestContext(ServerProperties.class);
+        ServerProperties first = (ServerProperties) context.getBean("serverProperties");
+        ServerProperties second = (ServerProperties) context.getBean("serverProperties");
+        assertEquals(2, first.getHosts().size());
+
+        first.getHosts().clear();
+        first.getPorts()[0] = 0;
+        assertEquals(2, second.getHosts().size());
+        assertEquals(80, second.getPorts()[0]);
+    }
+
+    private static class TestContext extends AbstractApplicationContext {
+
+        TestContext(Class<?> clazz) throws Exception {
+            Properties properties = new Properties();
+            properties.setProperty("app.ids", "1,2,3");
+            properties.setProperty("server.hosts", "a,b");
+            properties.setProperty("server.ports", "80,443");
+            getEnvironment().addLast("test", properties);
+            String beanName = Character.toLowerCase(clazz.getSimpleName().charAt(0)) + clazz.getSimpleName().substring(1);
+            BeanDefinition beanDefinition = new BeanDefinition(clazz.getName(), beanName);
+            beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            beanDefinition.setLazyInit(true);
+            registerBeanDefinition(beanName, beanDefinition);
+        }
+
+        @Override
+        protected String resolveDependencyName(Class<?> type, String qualifier) {
+            return qualifier.isEmpty() ? type.getName() : qualifier;
+        }
+    }
+
+    static class ValueBean {
+        @Value("${app.ids}")
+        List<Integer> ids;
+
+        @Value("${app.names:a,b}")
+        String[] names;
+
+        @Value("${app.port:8080}")
+        int port;
+    }
+
+    @ConfigurationProperties(prefix = "server")
+    public static class ServerProperties {
+        private Set<String> hosts;
+
+        private int[] ports;
+
+        public Set<String> getHosts() {
+            return hosts;
+        }
+
+        public void setHosts(Set<String> hosts) {
+            this.hosts = hosts;
+        }
+
+        public int[] getPorts() {
+            return ports;
+        }
+
+        public void setPorts(int[] ports) {
+            this.ports = ports;
+        }
+    }
+}
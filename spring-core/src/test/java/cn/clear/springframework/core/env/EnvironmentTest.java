@@ -0,0 +1,108 @@
+package cn.clear.springframework.core.env;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Properties;
+
+/**
+ * 占位符解析：嵌套、默认值、循环引用，以及循环引用失败后不留下错误的缓存
+ */
+public class EnvironmentTest extends TestCase {
+
+    public EnvironmentTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(EnvironmentTest.class);
+    }
+
+    public void testNestedPlaceholdersAndDefaults() {
+        Environment environment = environment("host", "localhost", "port", "8080",
+                "url", "http://${host}:${port}/${path:${missing:api}}", "name", "${unknown}");
+
+        assertEquals("http://localhost:8080/api", environment.getProperty("url"));
+        assertEquals("${unknown}", environment.getProperty("name"));
+        assertEquals("localhost-x", environment.resolvePlaceholders("${host}-${other:x}"));
+        try {
+            environment.resolveRequiredPlaceholders("${unknown}");
+            fail("unresolvable placeholder should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("unknown"));
+        }
+    }
+
+    public void testSelfReference() {
+        assertCircular(environment("a", "${a}"), "a");
+    }
+
+    public void testIndirectCycle() {
+        Environment environment = environment("a", "x-${b}", "b", "${c}", "c", "${a}", "d", "ok");
+
+        assertCircular(environment, "a");
+        assertCircular(environment, "b");
+        // 失败后正在解析的属性已经清理，其他属性不受影响，失败的属性也没有被缓存
+        assertEquals("ok", environment.getProperty("d"));
+        assertCircular(environment, "a");
+    }
+
+    public void testCycleThroughDefaultValue() {
+        Environment environment = environment("a", "${missing:${b}}", "b", "${a}");
+
+        assertCircular(environment, "a");
+        try {
+            environment.resolvePlaceholders("${b}");
+            fail("cycle should be detected from resolvePlaceholders too");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Circular"));
+        }
+    }
+
+    /**
+     * 同一个属性在同一个值中出现多次不是循环引用
+     */
+    public void testRepeatedReferenceIsNotCycle() {
+        Environment environment = environment("a", "${b}${b}", "b", "${c}-${c}", "c", "x");
+
+        assertEquals("x-xx-x", environment.getProperty("a"));
+    }
+
+    /**
+     * 高优先级的属性来源覆盖低优先级的，添加属性来源后重新解析
+     */
+    public void testPropertySourceOrder() {
+        Environment environment = environment("a", "${b}", "b", "first");
+        assertEquals("first", environment.getProperty("a"));
+
+        Properties overrides = new Properties();
+        overrides.setProperty("b", "second");
+        overrides.setProperty("c", "${a}");
+        environment.addLast("overrides", overrides);
+        assertEquals("first", environment.getProperty("a"));
+        assertEquals("first", environment.getProperty("c"));
+    }
+
+    private static void assertCircular(Environment environment, String key) {
+        try {
+            environment.getProperty(key);
+            fail("circular reference through '" + key + "' should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Circular placeholder reference"));
+        }
+    }
+
+    /**
+     * @param keyValues 属性，key和value交替
+     */
+    private static Environment environment(String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        Environment environment = new Environment(false);
+        environment.addLast("test", properties);
+        return environment;
+    }
+}
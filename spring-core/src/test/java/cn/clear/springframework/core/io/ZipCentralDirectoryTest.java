@@ -0,0 +1,216 @@
+package cn.clear.springframework.core.io;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接读取zip中央目录：按前缀后缀过滤条目、EOCD注释、zip64、嵌套jar
+ */
+public class ZipCentralDirectoryTest extends TestCase {
+
+    private static final List<String> NAMES = Arrays.asList(
+            "META-INF/MANIFEST.MF", "cn/clear/A.class", "cn/clear/sub/B.class", "cn/clear/readme.txt",
+            "cn/clear/中文.class", "cn/other/C.class");
+
+    public ZipCentralDirectoryTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ZipCentralDirectoryTest.class);
+    }
+
+    public void testForEachEntryFiltersByPrefixAndSuffix() throws Exception {
+        ZipCentralDirectory directory = ZipCentralDirectory.open(ByteBuffer.wrap(deflatedZip(entries(NAMES), "comment")));
+
+        assertEquals(Arrays.asList("cn/clear/A.class", "cn/clear/sub/B.class", "cn/clear/中文.class"),
+                names(directory, "cn/clear/", ".class"));
+        assertEquals(Collections.singletonList("cn/other/C.class"), names(directory, "cn/other/", ".class"));
+        assertEquals(NAMES, names(directory, "", ""));
+        assertTrue(names(directory, "cn/clear/A.class/", "").isEmpty());
+    }
+
+    public void testOpenMappedFile() throws Exception {
+        File file = File.createTempFile("zip-central-directory", ".jar");
+        try {
+            Files.write(file.toPath(), deflatedZip(entries(NAMES), null));
+            ZipCentralDirectory directory = ZipCentralDirectory.open(file.toPath());
+            assertEquals(NAMES, names(directory, "", ""));
+            assertEquals("cn/other/C.class", content(directory.getEntryData("cn/other/C.class")));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    public void testZip64EndOfCentralDirectory() throws Exception {
+        ZipCentralDirectory directory = ZipCentralDirectory.open(ByteBuffer.wrap(new ZipBuilder(true, false).build(entries(NAMES))));
+
+        assertEquals(NAMES, names(directory, "", ""));
+        assertEquals("cn/clear/A.class", content(directory.getEntryData("cn/clear/A.class")));
+    }
+
+    public void testZip64ExtraField() throws Exception {
+        ZipCentralDirectory directory = ZipCentralDirectory.open(ByteBuffer.wrap(new ZipBuilder(true, true).build(entries(NAMES))));
+
+        assertEquals(NAMES, names(directory, "", ""));
+        for (String name : NAMES) {
+            assertEquals(name, content(directory.getEntryData(name)));
+        }
+    }
+
+    public void testNestedJars() throws Exception {
+        byte[] inner = new ZipBuilder(false, false).build(entries(Arrays.asList("cn/clear/Inner.class", "cn/clear/inner.txt")));
+        Map<String, byte[]> outerEntries = new LinkedHashMap<>();
+        outerEntries.put("BOOT-INF/classes/cn/clear/Outer.class", new byte[1]);
+        outerEntries.put("BOOT-INF/lib/stored.jar", inner);
+        Map<String, byte[]> deflatedEntries = new LinkedHashMap<>(outerEntries);
+        deflatedEntries.put("BOOT-INF/lib/deflated.jar", inner);
+
+        // 未压缩的嵌套jar直接使用映射区域的切片，压缩的解压到堆内存
+        ZipCentralDirectory stored = ZipCentralDirectory.open(ByteBuffer.wrap(new ZipBuilder(false, false).build(outerEntries)));
+        ZipCentralDirectory deflated = ZipCentralDirectory.open(ByteBuffer.wrap(deflatedZip(deflatedEntries, null)));
+        for (ZipCentralDirectory nested : Arrays.asList(
+                ZipCentralDirectory.open(stored.getEntryData("BOOT-INF/lib/stored.jar")),
+                ZipCentralDirectory.open(deflated.getEntryData("BOOT-INF/lib/stored.jar")),
+                ZipCentralDirectory.open(deflated.getEntryData("BOOT-INF/lib/deflated.jar")))) {
+            assertEquals(Collections.singletonList("cn/clear/Inner.class"), names(nested, "cn/clear/", ".class"));
+            assertEquals("cn/clear/inner.txt", content(nested.getEntryData("cn/clear/inner.txt")));
+        }
+        assertNull(stored.getEntryData("BOOT-INF/lib/missing.jar"));
+    }
+
+    public void testRejectsNonZipData() throws Exception {
+        try {
+            ZipCentralDirectory.open(ByteBuffer.wrap(new byte[100]));
+            fail("data without an end of central directory should be rejected");
+        } catch (ZipException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("End of central directory"));
+        }
+    }
+
+    private static List<String> names(ZipCentralDirectory directory, String prefix, String suffix) throws IOException {
+        List<String> result = new ArrayList<>();
+        directory.forEachEntry(prefix, suffix, result::add);
+        return result;
+    }
+
+    private static String content(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 每个条目的内容是它自己的名称
+     */
+    private static Map<String, byte[]> entries(List<String> names) {
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, name.getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * 和jar工具一样用 {@link ZipOutputStream} 压缩，本地文件头中没有大小，大小在数据描述符和中央目录里
+     */
+    private static byte[] deflatedZip(Map<String, byte[]> entries, String comment) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            if (comment != null) {
+                zip.setComment(comment);
+            }
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 手工生成未压缩的zip，可以写出zip64的EOCD和中央目录中的zip64扩展字段
+     */
+    private static class ZipBuilder {
+
+        private final boolean zip64End;
+
+        private final boolean zip64Extra;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        ZipBuilder(boolean zip64End, boolean zip64Extra) {
+            this.zip64End = zip64End;
+            this.zip64Extra = zip64Extra;
+        }
+
+        byte[] build(Map<String, byte[]> entries) {
+            List<Integer> offsets = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                offsets.add(buffer.position());
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(0x04034b50).putShort((short) 10).putShort((short) 0x0800).putShort((short) 0)
+                        .putInt(0).putInt(crc(entry.getValue())).putInt(entry.getValue().length).putInt(entry.getValue().length)
+                        .putShort((short) name.length).putShort((short) 0).put(name).put(entry.getValue());
+            }
+
+            int centralDirectory = buffer.position();
+            int i = 0;
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                int size = entry.getValue().length;
+                buffer.putInt(0x02014b50).putShort((short) 45).putShort((short) 45).putShort((short) 0x0800)
+                        .putShort((short) 0).putInt(0).putInt(crc(entry.getValue()))
+                        .putInt(zip64Extra ? -1 : size).putInt(zip64Extra ? -1 : size)
+                        .putShort((short) name.length).putShort((short) (zip64Extra ? 4 + 4 + 24 : 0)).putShort((short) 0)
+                        .putShort((short) 0).putShort((short) 0).putInt(0)
+                        .putInt(zip64Extra ? -1 : offsets.get(i)).put(name);
+                if (zip64Extra) {
+                    // 放一个无关的扩展字段在前面，确认按id查找
+                    buffer.putShort((short) 0xCAFE).putShort((short) 0);
+                    buffer.putShort((short) 0x0001).putShort((short) 24)
+                            .putLong(size).putLong(size).putLong(offsets.get(i));
+                }
+                i++;
+            }
+            int centralDirectorySize = buffer.position() - centralDirectory;
+
+            if (zip64End) {
+                int record = buffer.position();
+                buffer.putInt(0x06064b50).putLong(44).putShort((short) 45).putShort((short) 45).putInt(0).putInt(0)
+                        .putLong(entries.size()).putLong(entries.size()).putLong(centralDirectorySize).putLong(centralDirectory);
+                buffer.putInt(0x07064b50).putInt(0).putLong(record).putInt(1);
+            }
+            buffer.putInt(0x06054b50).putShort((short) 0).putShort((short) 0)
+                    .putShort((short) (zip64End ? 0xFFFF : entries.size())).putShort((short) (zip64End ? 0xFFFF : entries.size()))
+                    .putInt(zip64End ? -1 : centralDirectorySize).putInt(zip64End ? -1 : centralDirectory).putShort((short) 0);
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        private static int crc(byte[] data) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cn.clear.springframework.core.metrics;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 对数-线性分桶的边界：桶连续不重叠、相对误差不超过12.5%、越界值落在最后一个桶
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public LatencyHistogramTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(LatencyHistogramTest.class);
+    }
+
+    public void testSmallValuesAreExact() {
+        for (int value = 0; value < LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.lowerBound(value));
+            assertEquals(value, LatencyHistogram.upperBound(value));
+        }
+    }
+
+    public void testBucketsAreContiguous() {
+        assertEquals(0, LatencyHistogram.lowerBound(0));
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT - 1; index++) {
+            long lower = LatencyHistogram.lowerBound(index);
+            long upper = LatencyHistogram.upperBound(index);
+            assertTrue("bucket " + index, lower <= upper);
+            assertEquals("bucket " + index, upper + 1, LatencyHistogram.lowerBound(index + 1));
+            assertEquals(index, LatencyHistogram.indexOf(lower));
+            assertEquals(index, LatencyHistogram.indexOf(upper));
+            // 桶宽度不超过下界的1/8
+            assertTrue("bucket " + index, (upper - lower) * LatencyHistogram.SUB_BUCKET_COUNT <= Math.max(lower, 1));
+        }
+    }
+
+    public void testPowerOfTwoBoundaries() {
+        for (int exponent = LatencyHistogram.SUB_BUCKET_BITS; exponent < 40; exponent++) {
+            long power = 1L << exponent;
+            int index = LatencyHistogram.indexOf(power);
+            assertEquals(power, LatencyHistogram.lowerBound(index));
+            assertEquals(index - 1, LatencyHistogram.indexOf(power - 1));
+            assertEquals(power - 1, LatencyHistogram.upperBound(index - 1));
+        }
+    }
+
+    public void testOverflowGoesToLastBucket() {
+        int last = LatencyHistogram.BUCKET_COUNT - 1;
+        assertEquals(last, LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE));
+        assertEquals(last, LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE + 1));
+        assertEquals(last, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(last));
+    }
+
+    public void testSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5, false);
+        histogram.record(7, false);
+        histogram.record(1000, true);
+        histogram.record(Long.MAX_VALUE / 4, false);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(4, snapshot.getCount());
+        assertEquals(1, snapshot.getErrors());
+        assertEquals(Long.MAX_VALUE / 4, snapshot.getMax());
+        assertEquals(1, snapshot.getCounts()[0]);
+        assertEquals(1, snapshot.getCounts()[7]);
+        assertEquals(1, snapshot.getCounts()[LatencyHistogram.indexOf(1000)]);
+        assertEquals(1, snapshot.getCounts()[LatencyHistogram.BUCKET_COUNT - 1]);
+
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(7, snapshot.getValueAtPercentile(50));
+        // 1000 所在的桶是 [960, 1023]，返回桶的上界
+        assertEquals(1023, snapshot.getValueAtPercentile(75));
+        // 最后一个桶没有上界，返回记录到的最大值
+        assertEquals(Long.MAX_VALUE / 4, snapshot.getValueAtPercentile(100));
+    }
+
+    public void testEmptySnapshot() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+}
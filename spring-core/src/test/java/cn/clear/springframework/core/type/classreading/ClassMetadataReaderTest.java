@@ -0,0 +1,165 @@
+package cn.clear.springframework.core.type.classreading;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直接解析字节码：常量池的各种常量、modified UTF-8 字符串、注解属性的各种取值类型
+ */
+public class ClassMetadataReaderTest extends TestCase {
+
+    public ClassMetadataReaderTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ClassMetadataReaderTest.class);
+    }
+
+    public void testClassStructure() throws Exception {
+        ClassMetadata metadata = read(Annotated.class);
+
+        assertEquals(Annotated.class.getName(), metadata.getClassName());
+        assertEquals("Annotated", metadata.getSimpleName());
+        assertEquals(Base.class.getName(), metadata.getSuperClassName());
+        assertEquals(Arrays.asList(Serializable.class.getName(), Runnable.class.getName()),
+                Arrays.asList(metadata.getInterfaceNames()));
+        assertTrue(metadata.isConcrete());
+    }
+
+    public void testInterfaceAndAbstract() throws Exception {
+        ClassMetadata base = read(Base.class);
+        assertTrue(base.isAbstract());
+        assertFalse(base.isConcrete());
+
+        ClassMetadata anInterface = read(Runnable.class);
+        assertTrue(anInterface.isInterface());
+        assertNull(anInterface.getSuperClassName());
+
+        ClassMetadata annotation = read(Values.class);
+        assertTrue(annotation.isAnnotation());
+
+        assertNull(read(Object.class).getSuperClassName());
+    }
+
+    /**
+     * Annotated 的常量池中有 long、double 常量（各占两个槽位）、中文和补充平面字符的 UTF-8 常量，
+     * 解析到的注解属性的常量池下标必须都对得上
+     */
+    public void testAnnotationValues() throws Exception {
+        AnnotationAttributes attributes = read(Annotated.class).getAnnotationAttributes(Values.class.getName());
+
+        assertEquals(Values.class.getName(), attributes.annotationType());
+        assertEquals((byte) -1, attributes.get("b"));
+        assertEquals('中', attributes.get("c"));
+        assertEquals((short) 300, attributes.get("s"));
+        assertEquals(Integer.MIN_VALUE, attributes.get("i"));
+        assertEquals(Long.MAX_VALUE, attributes.get("j"));
+        assertEquals(1.5f, attributes.get("f"));
+        assertEquals(Math.PI, attributes.get("d"));
+        assertEquals(Boolean.TRUE, attributes.get("z"));
+        assertEquals("配置\u0000😀", attributes.getString("text"));
+        assertEquals("SECONDS", attributes.get("unit"));
+        assertEquals(String.class.getName(), attributes.get("type"));
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(attributes.getStringArray("names")));
+
+        Object[] empty = (Object[]) attributes.get("empty");
+        assertEquals(0, empty.length);
+        AnnotationAttributes nested = (AnnotationAttributes) attributes.get("nested");
+        assertEquals(Nested.class.getName(), nested.annotationType());
+        assertEquals("inner", nested.getString("value"));
+        assertFalse("default values are not in the class file", attributes.containsKey("withDefault"));
+    }
+
+    public void testPrimitiveClassValue() throws Exception {
+        AnnotationAttributes attributes = read(PrimitiveType.class).getAnnotationAttributes(Values.class.getName());
+        assertEquals("I", attributes.get("type"));
+    }
+
+    public void testRejectsNonClassFile() throws Exception {
+        try {
+            ClassMetadataReader.read(new byte[]{1, 2, 3, 4, 0, 0, 0, 52, 0, 1});
+            fail("bad magic should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Not a class file", e.getMessage());
+        }
+    }
+
+    private static ClassMetadata read(Class<?> clazz) throws IOException {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getResourceAsStream(resource)) {
+            assertNotNull(resource, in);
+            return ClassMetadataReader.read(in);
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Nested {
+        String value();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Values {
+        byte b() default 0;
+
+        char c() default ' ';
+
+        short s() default 0;
+
+        int i() default 0;
+
+        long j() default 0L;
+
+        float f() default 0f;
+
+        double d() default 0d;
+
+        boolean z() default false;
+
+        String text() default "";
+
+        TimeUnit unit() default TimeUnit.DAYS;
+
+        Class<?> type() default Object.class;
+
+        String[] names() default {};
+
+        ElementType[] empty() default {ElementType.TYPE};
+
+        Nested nested() default @Nested("default");
+
+        String withDefault() default "default";
+    }
+
+    abstract static class Base {
+    }
+
+    @Values(b = -1, c = '中', s = 300, i = Integer.MIN_VALUE, j = Long.MAX_VALUE, f = 1.5f, d = Math.PI, z = true,
+            text = "配置\u0000😀", unit = TimeUnit.SECONDS, type = String.class,
+            names = {"a", "b"}, empty = {}, nested = @Nested("inner"))
+    static class Annotated extends Base implements Serializable, Runnable {
+        private static final long serialVersionUID = 1L;
+
+        static final long BIG = 1L << 40;
+
+        static final double RATIO = 0.123456789;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Values(type = int.class)
+    static class PrimitiveType {
+    }
+}